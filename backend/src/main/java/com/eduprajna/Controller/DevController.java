@@ -14,16 +14,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.eduprajna.config.CorsConfig;
-import com.eduprajna.entity.CartItem;
-import com.eduprajna.entity.Order;
-import com.eduprajna.entity.OrderItem;
+import com.eduprajna.entity.MaintenanceJob;
 import com.eduprajna.entity.Product;
 import com.eduprajna.entity.User;
-import com.eduprajna.repository.CartItemRepository;
-import com.eduprajna.repository.OrderRepository;
-import com.eduprajna.service.CartService;
+import com.eduprajna.service.MaintenanceJobService;
 import com.eduprajna.service.ProductService;
 import com.eduprajna.service.UserService;
+import com.eduprajna.service.VariantLabelTask;
 
 /**
  * Development controller for seeding the database with sample data
@@ -38,17 +35,13 @@ public class DevController {
 
     private final UserService userService;
     private final ProductService productService;
-        private final CartService cartService;
-        private final CartItemRepository cartItemRepo;
-        private final OrderRepository orderRepo;
+        private final MaintenanceJobService maintenanceJobService;
 
-        public DevController(UserService userService, ProductService productService, CartService cartService,
-                        CartItemRepository cartItemRepo, OrderRepository orderRepo) {
+        public DevController(UserService userService, ProductService productService,
+                        MaintenanceJobService maintenanceJobService) {
                 this.userService = userService;
                 this.productService = productService;
-                this.cartService = cartService;
-                this.cartItemRepo = cartItemRepo;
-                this.orderRepo = orderRepo;
+                this.maintenanceJobService = maintenanceJobService;
         }
 
     /**
@@ -189,53 +182,12 @@ public class DevController {
         /**
          * Fix and populate variant_label for existing cart_items and order_items.
          * This derives sanitized labels from product/variant metadata and saves updates.
+         * Runs as a maintenance job; follow it at /api/admin/maintenance/jobs/{id}.
          * WARNING: Intended for development or one-time maintenance use.
          */
         @PostMapping("/fix-variant-labels")
-        public ResponseEntity<?> fixVariantLabels() {
-                try {
-                        int cartUpdated = 0;
-                        int orderItemsUpdated = 0;
-
-                        for (CartItem ci : cartItemRepo.findAll()) {
-                                String derived = null;
-                                try {
-                                        derived = cartService.deriveVariantLabel(ci.getProduct(), ci.getVariantId());
-                                } catch (Exception ignored) { }
-                                if (derived != null && !derived.equals(ci.getVariantLabel())) {
-                                        ci.setVariantLabel(derived);
-                                        cartItemRepo.save(ci);
-                                        cartUpdated++;
-                                }
-                        }
-
-                        for (Order order : orderRepo.findAll()) {
-                                boolean changed = false;
-                                for (OrderItem oi : order.getItems()) {
-                                        String derived = null;
-                                        try {
-                                                derived = cartService.deriveVariantLabel(oi.getProduct(), oi.getVariantId());
-                                        } catch (Exception ignored) { }
-                                        if (derived != null && !derived.equals(oi.getVariantLabel())) {
-                                                oi.setVariantLabel(derived);
-                                                changed = true;
-                                                orderItemsUpdated++;
-                                        }
-                                }
-                                if (changed) {
-                                        orderRepo.save(order);
-                                }
-                        }
-
-                        return ResponseEntity.ok(Map.of(
-                                        "cart_items_updated", cartUpdated,
-                                        "order_items_updated", orderItemsUpdated));
-                } catch (Exception e) {
-                        logger.error("Error fixing variant labels", e);
-                        return ResponseEntity.status(500).body(Map.of(
-                                        "error", "Failed to fix variant labels",
-                                        "message", e.getMessage()));
-                }
+        public ResponseEntity<MaintenanceJob> fixVariantLabels() {
+                return ResponseEntity.accepted().body(maintenanceJobService.start(VariantLabelTask.TYPE, null));
         }
 
     /**
@@ -0,0 +1,84 @@
+package com.eduprajna.Controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduprajna.config.CorsConfig;
+import com.eduprajna.entity.MaintenanceJob;
+import com.eduprajna.service.MaintenanceJobService;
+
+/**
+ * Admin API for catalog maintenance jobs: start one, follow its progress, cancel or
+ * resume it. Job types: GET /types.
+ */
+@RestController
+@RequestMapping("/api/admin/maintenance")
+@CrossOrigin(origins = { CorsConfig.LOCALHOST_3000, CorsConfig.LOCALHOST_5173, CorsConfig.LOCALHOST_IP_3000,
+        CorsConfig.LOCALHOST_IP_5173, CorsConfig.AWS_CURRENT_IP_HTTP,
+        CorsConfig.AWS_CURRENT_IP_HTTPS }, allowCredentials = "true")
+public class MaintenanceController {
+
+    private final MaintenanceJobService maintenanceJobService;
+
+    public MaintenanceController(MaintenanceJobService maintenanceJobService) {
+        this.maintenanceJobService = maintenanceJobService;
+    }
+
+    @GetMapping("/types")
+    public List<String> types() {
+        return maintenanceJobService.types();
+    }
+
+    @GetMapping("/jobs")
+    public List<MaintenanceJob> jobs() {
+        return maintenanceJobService.recent();
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> job(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(maintenanceJobService.get(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<?> start(@RequestParam String type, @RequestParam(required = false) Integer chunkSize) {
+        try {
+            return ResponseEntity.accepted().body(maintenanceJobService.start(type, chunkSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/jobs/{id}/resume")
+    public ResponseEntity<?> resume(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(maintenanceJobService.resume(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<?> cancel(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(maintenanceJobService.cancel(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.eduprajna.Controller;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -16,9 +18,11 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -28,16 +32,45 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.eduprajna.config.CorsConfig;
+import com.eduprajna.dto.BulkVariantUpdateResultDTO;
+import com.eduprajna.dto.ProductCardDTO;
+import com.eduprajna.dto.ProductImportResultDTO;
+import com.eduprajna.dto.ProductPageDTO;
+import com.eduprajna.dto.VariantUpdateDTO;
+import com.eduprajna.dto.VariantUpdateResultDTO;
+import com.eduprajna.entity.MaintenanceJob;
 import com.eduprajna.entity.Product;
+import com.eduprajna.service.CatalogAliases;
+import com.eduprajna.service.CatalogEventBroadcaster;
+import com.eduprajna.service.CatalogResponseCache;
+import com.eduprajna.service.CatalogSnapshot;
+import com.eduprajna.service.CatalogSnapshotService;
+import com.eduprajna.service.DuplicateImagesTask;
+import com.eduprajna.service.ImageDerivativeService;
+import com.eduprajna.service.ImageUploadService;
+import com.eduprajna.service.MaintenanceJobService;
+import com.eduprajna.service.ProductImageUrls;
+import com.eduprajna.service.ProductImportService;
+import com.eduprajna.service.ProductMetadataEnricher;
 import com.eduprajna.service.ProductService;
+import com.eduprajna.service.ProductSort;
 import com.eduprajna.service.StorageService;
+import com.eduprajna.service.UploadSanitizeTask;
+import com.eduprajna.service.VariantBulkUpdateService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/admin/products")
@@ -61,13 +94,44 @@ public class ProductController {
     @Autowired(required = false)
     private com.eduprajna.service.S3ImageService s3ImageService;
 
+    @Autowired
+    private ProductMetadataEnricher productMetadataEnricher;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private VariantBulkUpdateService variantBulkUpdateService;
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private MaintenanceJobService maintenanceJobService;
+
+    @Autowired
+    private CatalogEventBroadcaster catalogEventBroadcaster;
+
     // Customer-facing endpoint that filters out-of-stock products
     @GetMapping("/customer")
-    public ResponseEntity<List<Product>> getCustomerProducts(
+    public ResponseEntity<?> getCustomerProducts(
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "sub", required = false) String sub,
             @RequestParam(value = "type", required = false) String type,
-            @RequestParam(value = "petType", required = false) String petType) {
+            @RequestParam(value = "petType", required = false) String petType,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            WebRequest request) {
         // Normalize type parameter (prioritize 'type' over 'petType')
         String effectiveType = normalizeTypeParameter(type, petType);
 
@@ -78,6 +142,28 @@ public class ProductController {
         log.info("ProductController: Customer request - type: '{}', category: '{}', sub: '{}'",
                 effectiveType, normalizedCategory, normalizedSub);
 
+        if (isPageRequest(limit, cursor, sort)) {
+            return getProductPage(effectiveType, normalizedCategory, normalizedSub, limit, cursor, sort, true,
+                    CacheControl.maxAge(5, TimeUnit.MINUTES), request);
+        }
+
+        // Serve from the in-memory catalog snapshot once it has been loaded; its products are
+        // already enriched and its in-stock posting list replaces the per-request stock check.
+        // The serialized response is cached per snapshot and query.
+        String cacheKey = String.join("|", "customer", String.valueOf(effectiveType),
+                String.valueOf(normalizedCategory), String.valueOf(normalizedSub));
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            CatalogResponseCache.Entry cached = catalogResponseCache.get(snapshot, cacheKey,
+                    () -> snapshot.findCustomerProducts(effectiveType, normalizedCategory, normalizedSub));
+            return cachedResponse(cached, request, CacheControl.maxAge(5, TimeUnit.MINUTES));
+        }
+
+        String etag = catalogResponseCache.writeEtag(cacheKey);
+        if (isNotModified(request, etag)) {
+            return notModified(etag, CacheControl.maxAge(5, TimeUnit.MINUTES));
+        }
+
         List<Product> products = getFilteredProductsWithType(normalizedCategory, normalizedSub, effectiveType);
 
         // Filter out products that are completely out of stock
@@ -85,17 +171,48 @@ public class ProductController {
                 .filter(this::hasAvailableStock)
                 .collect(Collectors.toList());
 
-        // Enrich all products with metadata for frontend display
-        inStockProducts.forEach(this::enrichProductMetadata);
+        // Enriched at write time; only rows not yet re-materialized are touched here
+        inStockProducts.forEach(productMetadataEnricher::materialize);
 
         log.info("ProductController: Returning {} in-stock products out of {} total products for customers",
                 inStockProducts.size(), products.size());
 
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                .eTag(etag)
                 .body(inStockProducts);
     }
 
+    // Listing-page cards: only the columns a product tile shows, selected without loading entities
+    @GetMapping("/customer/cards")
+    public ResponseEntity<?> getCustomerProductCards(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "sub", required = false) String sub,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "petType", required = false) String petType,
+            @RequestParam(value = "inStockOnly", defaultValue = "true") boolean inStockOnly,
+            WebRequest request) {
+        String effectiveType = normalizeTypeParameter(type, petType);
+        String normalizedCategory = normalizeParameter(category);
+        String normalizedSub = normalizeParameter(sub);
+
+        String etag = catalogResponseCache.writeEtag(String.join("|", "cards", String.valueOf(effectiveType),
+                String.valueOf(normalizedCategory), String.valueOf(normalizedSub), String.valueOf(inStockOnly)));
+        if (isNotModified(request, etag)) {
+            return notModified(etag, CacheControl.maxAge(5, TimeUnit.MINUTES));
+        }
+
+        List<ProductCardDTO> cards = productService.getProductCards(effectiveType, normalizedCategory,
+                normalizedSub, inStockOnly);
+        log.debug("ProductController: Returning {} product cards - type: '{}', category: '{}', sub: '{}'",
+                cards.size(), effectiveType, normalizedCategory, normalizedSub);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                .eTag(etag)
+                .body(cards);
+    }
+
     // Enhanced filtering method that handles type-first filtering
     private List<Product> getFilteredProductsWithType(String category, String sub, String type) {
         List<Product> products;
@@ -104,41 +221,11 @@ public class ProductController {
             log.info("ProductController: Filtering products - type: '{}', category: '{}', sub: '{}'",
                     type, category, sub);
 
-            // Type-first filtering: if type provided, filter by type first
+            // Type-first filtering: if type provided, filter by the product audiences
+            // classified at write time (one indexed lookup, no fallback scan)
             if (type != null && !type.isBlank()) {
                 products = productService.getFilteredProductsByType(type, category, sub);
                 log.info("ProductController: Type-filtered query returned {} products", products.size());
-
-                // If no products found with strict type filtering, try fallback strategies
-                if (products.isEmpty()) {
-                    log.info("ProductController: No products found by type '{}', trying category-based fallback", type);
-
-                    List<Product> allProducts = productService.getAll();
-
-                    if ("Pharmacy".equalsIgnoreCase(type)) {
-                        // Fallback: find products by pharmacy-related categories
-                        products = allProducts.stream()
-                                .filter(p -> isPharmacyProduct(p, category, sub))
-                                .collect(Collectors.toList());
-                    } else if ("Dog".equalsIgnoreCase(type)) {
-                        // Fallback: find products by dog-related categories or metadata
-                        products = allProducts.stream()
-                                .filter(p -> isDogProduct(p, category, sub))
-                                .collect(Collectors.toList());
-                    } else if ("Cat".equalsIgnoreCase(type)) {
-                        // Fallback: find products by cat-related categories or metadata
-                        products = allProducts.stream()
-                                .filter(p -> isCatProduct(p, category, sub))
-                                .collect(Collectors.toList());
-                    } else if ("Outlet".equalsIgnoreCase(type)) {
-                        // Fallback: find products by outlet-related categories or metadata
-                        products = allProducts.stream()
-                                .filter(p -> isOutletProduct(p, category, sub))
-                                .collect(Collectors.toList());
-                    }
-
-                    log.info("ProductController: Fallback strategy found {} products", products.size());
-                }
             } else {
                 // Fallback to category/subcategory filtering
                 products = productService.getFilteredProducts(category, sub);
@@ -152,158 +239,6 @@ public class ProductController {
         }
     }
 
-    // Helper method to identify pharmacy products by category patterns
-    private boolean isPharmacyProduct(Product p, String category, String sub) {
-        if (p == null || !Boolean.TRUE.equals(p.getIsActive()))
-            return false;
-
-        // Check if product type is pharmacy
-        if ("Pharmacy".equalsIgnoreCase(p.getType()))
-            return true;
-
-        // Check metadata for pharmacy indicators
-        Map<String, Object> metadata = p.getMetadata();
-        if (metadata != null) {
-            Object metaType = metadata.get("type");
-            Object petType = metadata.get("petType");
-            if ("Pharmacy".equalsIgnoreCase(String.valueOf(metaType)) ||
-                    "Pharmacy".equalsIgnoreCase(String.valueOf(petType))) {
-                return true;
-            }
-        }
-
-        // Check category patterns for pharmacy products
-        String productCategory = p.getCategory();
-        String productSubcategory = p.getSubcategory();
-
-        if (productCategory != null) {
-            String catLower = productCategory.toLowerCase();
-            if (catLower.contains("pharmacy") || catLower.contains("medicine") ||
-                    catLower.contains("supplement") || catLower.contains("prescription")) {
-
-                // If specific category/subcategory filters provided, check them
-                if (category != null && !category.isBlank()) {
-                    if (!productCategory.toLowerCase().contains(category.toLowerCase())) {
-                        return false;
-                    }
-                }
-
-                if (sub != null && !sub.isBlank() && productSubcategory != null) {
-                    if (!productSubcategory.toLowerCase().contains(sub.toLowerCase())) {
-                        return false;
-                    }
-                }
-
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    // Helper method to identify dog products
-    private boolean isDogProduct(Product p, String category, String sub) {
-        if (p == null || !Boolean.TRUE.equals(p.getIsActive()))
-            return false;
-
-        // Check if product type is dog
-        if ("Dog".equalsIgnoreCase(p.getType()))
-            return true;
-
-        // Check metadata for dog indicators
-        Map<String, Object> metadata = p.getMetadata();
-        if (metadata != null) {
-            Object metaType = metadata.get("type");
-            Object petType = metadata.get("petType");
-            if ("Dog".equalsIgnoreCase(String.valueOf(metaType)) ||
-                    "Dog".equalsIgnoreCase(String.valueOf(petType))) {
-                return matchesCategoryAndSub(p, category, sub);
-            }
-        }
-
-        // Check category patterns for dog products
-        String productCategory = p.getCategory();
-        if (productCategory != null && productCategory.toLowerCase().contains("dog")) {
-            return matchesCategoryAndSub(p, category, sub);
-        }
-
-        return false;
-    }
-
-    // Helper method to identify cat products
-    private boolean isCatProduct(Product p, String category, String sub) {
-        if (p == null || !Boolean.TRUE.equals(p.getIsActive()))
-            return false;
-
-        // Check if product type is cat
-        if ("Cat".equalsIgnoreCase(p.getType()))
-            return true;
-
-        // Check metadata for cat indicators
-        Map<String, Object> metadata = p.getMetadata();
-        if (metadata != null) {
-            Object metaType = metadata.get("type");
-            Object petType = metadata.get("petType");
-            if ("Cat".equalsIgnoreCase(String.valueOf(metaType)) ||
-                    "Cat".equalsIgnoreCase(String.valueOf(petType))) {
-                return matchesCategoryAndSub(p, category, sub);
-            }
-        }
-
-        // Check category patterns for cat products
-        String productCategory = p.getCategory();
-        if (productCategory != null && productCategory.toLowerCase().contains("cat")) {
-            return matchesCategoryAndSub(p, category, sub);
-        }
-
-        return false;
-    }
-
-    // Helper method to identify outlet products
-    private boolean isOutletProduct(Product p, String category, String sub) {
-        if (p == null || !Boolean.TRUE.equals(p.getIsActive()))
-            return false;
-
-        // Check if product type is outlet
-        if ("Outlet".equalsIgnoreCase(p.getType()))
-            return true;
-
-        // Check metadata for outlet indicators
-        Map<String, Object> metadata = p.getMetadata();
-        if (metadata != null) {
-            Object metaType = metadata.get("type");
-            Object petType = metadata.get("petType");
-            if ("Outlet".equalsIgnoreCase(String.valueOf(metaType)) ||
-                    "Outlet".equalsIgnoreCase(String.valueOf(petType))) {
-                return matchesCategoryAndSub(p, category, sub);
-            }
-        }
-
-        return false;
-    }
-
-    // Helper method to check category and subcategory matching
-    private boolean matchesCategoryAndSub(Product p, String category, String sub) {
-        String productCategory = p.getCategory();
-        String productSubcategory = p.getSubcategory();
-
-        // If specific category filter provided, check it
-        if (category != null && !category.isBlank() && productCategory != null) {
-            if (!productCategory.toLowerCase().contains(category.toLowerCase())) {
-                return false;
-            }
-        }
-
-        // If specific subcategory filter provided, check it
-        if (sub != null && !sub.isBlank() && productSubcategory != null) {
-            if (!productSubcategory.toLowerCase().contains(sub.toLowerCase())) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     private List<Product> getFilteredProducts(String category, String sub) {
         List<Product> products;
 
@@ -380,11 +315,15 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAll(
+    public ResponseEntity<?> getAll(
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "sub", required = false) String sub,
             @RequestParam(value = "type", required = false) String type,
-            @RequestParam(value = "petType", required = false) String petType) {
+            @RequestParam(value = "petType", required = false) String petType,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            WebRequest request) {
         // Normalize type parameter (prioritize 'type' over 'petType')
         String effectiveType = normalizeTypeParameter(type, petType);
 
@@ -395,18 +334,103 @@ public class ProductController {
         log.info("ProductController: Admin request - type: '{}', category: '{}', sub: '{}'",
                 effectiveType, normalizedCategory, normalizedSub);
 
+        if (isPageRequest(limit, cursor, sort)) {
+            return getProductPage(effectiveType, normalizedCategory, normalizedSub, limit, cursor, sort, false,
+                    CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic(), request);
+        }
+
+        String etag = catalogResponseCache.writeEtag(String.join("|", "admin", String.valueOf(effectiveType),
+                String.valueOf(normalizedCategory), String.valueOf(normalizedSub)));
+        if (isNotModified(request, etag)) {
+            return notModified(etag, CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic());
+        }
+
         List<Product> products = getFilteredProductsWithType(normalizedCategory, normalizedSub, effectiveType);
 
-        // Enrich all products with metadata for frontend display
-        products.forEach(this::enrichProductMetadata);
+        // Enriched at write time; only rows not yet re-materialized are touched here
+        products.forEach(productMetadataEnricher::materialize);
 
         log.info("ProductController: Returning {} products for admin panel", products.size());
 
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
+                .eTag(etag)
                 .body(products);
     }
 
+    // Paginated listing is opt-in: clients that send none of limit/cursor/sort keep getting the full list
+    private boolean isPageRequest(Integer limit, String cursor, String sort) {
+        return limit != null || (cursor != null && !cursor.isBlank()) || (sort != null && !sort.isBlank());
+    }
+
+    // Keyset-paginated listing shared by the admin and customer endpoints.
+    // Type filtering matches product audiences, like the other listings.
+    private ResponseEntity<?> getProductPage(String type, String category, String sub, Integer limit,
+            String cursor, String sort, boolean inStockOnly, CacheControl cacheControl, WebRequest request) {
+        String etag = catalogResponseCache.writeEtag(String.join("|", "page", String.valueOf(type),
+                String.valueOf(category), String.valueOf(sub), String.valueOf(limit), String.valueOf(cursor),
+                String.valueOf(sort), String.valueOf(inStockOnly)));
+        if (isNotModified(request, etag)) {
+            return notModified(etag, cacheControl);
+        }
+
+        ProductPageDTO page;
+        try {
+            page = productService.getProductPage(type, category, sub, ProductSort.fromParam(sort), cursor,
+                    limit != null ? limit : ProductService.DEFAULT_PAGE_SIZE, inStockOnly);
+        } catch (IllegalArgumentException e) {
+            log.warn("ProductController: Rejected page request - {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        page.items.forEach(productMetadataEnricher::materialize);
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(page);
+    }
+
+    // Pre-serialized snapshot listing; clients that accept gzip get the compressed bytes as-is,
+    // under the gzip variant's own ETag
+    private ResponseEntity<?> cachedResponse(CatalogResponseCache.Entry entry, WebRequest request,
+            CacheControl cacheControl) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = gzip ? entry.getGzipEtag() : entry.getEtag();
+        if (isNotModified(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        return gzip
+                ? ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.getGzip())
+                : ok.body(entry.getJson());
+    }
+
+    // If-None-Match uses weak comparison, so W/"x" matches "x"
+    private boolean isNotModified(WebRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private ResponseEntity<?> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(etag).build();
+    }
+
     @GetMapping("/test")
     public ResponseEntity<Map<String, Object>> testEndpoint() {
         Map<String, Object> response = new HashMap<>();
@@ -552,107 +576,9 @@ public class ProductController {
         }
     }
 
-    // Helper method to apply parameter value normalization
+    // Helper method to apply parameter value normalization (alias table lives in CatalogAliases)
     private String normalizeParameterValue(String value) {
-        if (value == null || value.isBlank()) {
-            return null;
-        }
-
-        String normalized = value.toLowerCase().trim();
-
-        // Type normalization
-        switch (normalized) {
-            case "dog":
-            case "dogs":
-            case "canine":
-                return "Dog";
-            case "cat":
-            case "cats":
-            case "feline":
-                return "Cat";
-            case "pharmacy":
-            case "medicine":
-            case "medical":
-                return "Pharmacy";
-            case "outlet":
-            case "clearance":
-                return "Outlet";
-        }
-
-        // Category normalization
-        switch (normalized) {
-            case "dog-food":
-            case "dogfood":
-            case "food":
-                return "Dog Food";
-            case "cat-food":
-            case "catfood":
-                return "Cat Food";
-            case "dog-treats":
-            case "dogtreats":
-            case "treats":
-                return "Dog Treats";
-            case "cat-treats":
-            case "cattreats":
-                return "Cat Treats";
-            case "dog-toys":
-            case "dogtoys":
-            case "toys":
-                return "Dog Toys";
-            case "cat-toys":
-            case "cattoys":
-                return "Cat Toys";
-            case "dog-grooming":
-            case "doggrooming":
-            case "grooming":
-                return "Dog Grooming";
-            case "cat-grooming":
-            case "catgrooming":
-                return "Cat Grooming";
-        }
-
-        // Subcategory normalization
-        switch (normalized) {
-            case "dry":
-            case "dry-food":
-                return "Dry Food";
-            case "wet":
-            case "wet-food":
-                return "Wet Food";
-            case "grain-free":
-            case "grainfree":
-                return "Grain Free";
-            case "puppy":
-            case "puppy-food":
-                return "Puppy Food";
-            case "kitten":
-            case "kitten-food":
-                return "Kitten Food";
-            case "hypoallergenic":
-            case "hypo":
-                return "Hypoallergenic";
-            case "veterinary":
-            case "vet":
-            case "veterinary-food":
-                return "Veterinary Food";
-            case "chicken-free":
-            case "chickenfree":
-                return "Chicken Free";
-            default:
-                // Return title case for unknown values
-                return toTitleCase(value);
-        }
-    }
-
-    // Helper method to convert string to title case
-    private String toTitleCase(String input) {
-        if (input == null || input.isEmpty()) {
-            return input;
-        }
-
-        return Arrays.stream(input.split("\\s+"))
-                .map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
-                .collect(Collectors.joining(" "));
+        return CatalogAliases.normalize(value);
     }
 
     private boolean listContainsIgnoreCase(Object maybeList, String needle) {
@@ -745,380 +671,37 @@ public class ProductController {
         return false;
     }
 
+    // Committed product and stock changes as Server-Sent Events; see CatalogEventBroadcaster.
+    // EventSource sends Last-Event-ID on reconnect so missed events are replayed.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no") // keep nginx from buffering the stream
+                .body(catalogEventBroadcaster.subscribe(lastEventId));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, WebRequest request) {
+        String etag = catalogResponseCache.writeEtag("product|" + id);
+        if (isNotModified(request, etag)) {
+            return notModified(etag, CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic());
+        }
+
         Product p = productService.getById(id);
         if (p == null)
             return ResponseEntity.notFound().build();
 
-        // Enrich metadata with column values for frontend editing
-        enrichProductMetadata(p);
+        // Rows not yet re-materialized still need their metadata enriched
+        productMetadataEnricher.materialize(p);
 
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
+                .eTag(etag)
                 .body(p);
     }
 
-    // Enrich product metadata with values from separate columns for frontend
-    // compatibility
-    @SuppressWarnings("unchecked")
-    private void enrichProductMetadata(Product p) {
-        if (p == null)
-            return;
-        try {
-            Map<String, Object> md = p.getMetadata();
-            if (md == null)
-                md = new HashMap<>();
-
-            // Only add essential data that frontend needs for display
-            // Avoid duplicating data that's already in columns
-
-            // Add features as array format for frontend (parse JSON string back to array)
-            if (p.getFeatures() != null && !p.getFeatures().isBlank()) {
-                try {
-                    String featuresJson = p.getFeatures();
-                    if (featuresJson.startsWith("[") && featuresJson.endsWith("]")) {
-                        List<String> featuresList = new ArrayList<>();
-                        String content = featuresJson.substring(1, featuresJson.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    featuresList.add(cleaned);
-                                }
-                            }
-                        }
-                        md.put("features", featuresList);
-                    } else {
-                        List<String> featuresList = new ArrayList<>();
-                        featuresList.add(featuresJson);
-                        md.put("features", featuresList);
-                    }
-                } catch (Exception e) {
-                    // On error, ensure we still set an empty array
-                    md.put("features", new ArrayList<>());
-                }
-            } else {
-                md.put("features", new ArrayList<>());
-            }
-
-            // Add nutrition object for frontend convenience
-            Map<String, String> nutrition = new HashMap<>();
-            if (p.getNutritionProtein() != null && !p.getNutritionProtein().isBlank()) {
-                nutrition.put("protein", p.getNutritionProtein());
-            }
-            if (p.getNutritionFat() != null && !p.getNutritionFat().isBlank()) {
-                nutrition.put("fat", p.getNutritionFat());
-            }
-            if (p.getNutritionFiber() != null && !p.getNutritionFiber().isBlank()) {
-                nutrition.put("fiber", p.getNutritionFiber());
-            }
-            if (p.getNutritionMoisture() != null && !p.getNutritionMoisture().isBlank()) {
-                nutrition.put("moisture", p.getNutritionMoisture());
-            }
-            if (p.getNutritionAsh() != null && !p.getNutritionAsh().isBlank()) {
-                nutrition.put("ash", p.getNutritionAsh());
-            }
-            if (p.getNutritionCalories() != null && !p.getNutritionCalories().isBlank()) {
-                nutrition.put("calories", p.getNutritionCalories());
-            }
-            if (!nutrition.isEmpty()) {
-                md.put("nutrition", nutrition);
-            }
-
-            // Parse flavors and colors from JSON strings to arrays if needed
-            if (p.getFlavors() != null && !p.getFlavors().isBlank()) {
-                try {
-                    String flavorsStr = p.getFlavors();
-                    if (flavorsStr.startsWith("[") && flavorsStr.endsWith("]")) {
-                        List<String> flavorsList = new ArrayList<>();
-                        String content = flavorsStr.substring(1, flavorsStr.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    flavorsList.add(cleaned);
-                                }
-                            }
-                        }
-                        md.put("flavors", flavorsList);
-                    }
-                } catch (Exception e) {
-                    // Keep as string if parsing fails
-                }
-            }
-
-            if (p.getColors() != null && !p.getColors().isBlank()) {
-                try {
-                    String colorsStr = p.getColors();
-                    if (colorsStr.startsWith("[") && colorsStr.endsWith("]")) {
-                        List<String> colorsList = new ArrayList<>();
-                        String content = colorsStr.substring(1, colorsStr.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    colorsList.add(cleaned);
-                                }
-                            }
-                        }
-                        md.put("colors", colorsList);
-                    }
-                } catch (Exception e) {
-                    // Keep as string if parsing fails
-                }
-            }
-
-            // Add pharmacy object for frontend convenience (include all stored pharmacy
-            // columns)
-            Map<String, Object> pharmacy = new HashMap<>();
-            if (p.getPrescriptionRequired() != null) {
-                pharmacy.put("prescriptionRequired", p.getPrescriptionRequired());
-            }
-            if (p.getDosageForm() != null && !p.getDosageForm().isBlank()) {
-                pharmacy.put("dosageForm", p.getDosageForm());
-            }
-            if (p.getStrength() != null && !p.getStrength().isBlank()) {
-                pharmacy.put("strength", p.getStrength());
-            }
-            if (p.getActiveIngredient() != null && !p.getActiveIngredient().isBlank()) {
-                pharmacy.put("activeIngredient", p.getActiveIngredient());
-            }
-            if (p.getManufacturer() != null && !p.getManufacturer().isBlank()) {
-                pharmacy.put("manufacturer", p.getManufacturer());
-            }
-            if (p.getIndications() != null && !p.getIndications().isBlank()) {
-                pharmacy.put("indications", p.getIndications());
-            }
-            if (p.getContraindications() != null && !p.getContraindications().isBlank()) {
-                pharmacy.put("contraindications", p.getContraindications());
-            }
-            if (p.getExpiryDate() != null && !p.getExpiryDate().isBlank()) {
-                pharmacy.put("expiryDate", p.getExpiryDate());
-            }
-            if (!pharmacy.isEmpty()) {
-                md.put("pharmacy", pharmacy);
-            }
-
-            // Ensure a structured `manufacturer` object is available in metadata
-            try {
-                // Prefer explicit manufacturer column value
-                if (p.getManufacturer() != null && !p.getManufacturer().isBlank()) {
-                    Map<String, Object> m = new HashMap<>();
-                    m.put("name", p.getManufacturer());
-                    // add extra fields from columns if available
-                    if (p.getManufacturerAddress() != null) m.put("address", p.getManufacturerAddress());
-                    if (p.getCountryOfOrigin() != null) m.put("countryOfOrigin", p.getCountryOfOrigin());
-                    if (p.getSku() != null) m.put("sku", p.getSku());
-                    if (p.getMarketedBy() != null) m.put("marketedBy", p.getMarketedBy());
-                    md.put("manufacturer", m);
-                } else {
-                    // If pharmacy.manufacturer exists, map it into metadata.manufacturer
-                    Object pharmacyMan = pharmacy.get("manufacturer");
-                    if (pharmacyMan != null) {
-                        if (pharmacyMan instanceof Map) {
-                            md.put("manufacturer", pharmacyMan);
-                        } else {
-                            Map<String, Object> m = new HashMap<>();
-                            m.put("name", pharmacyMan.toString());
-                            md.put("manufacturer", m);
-                        }
-                    } else {
-                        // If metadata already contains a manufacturer (string), convert to object
-                        Object existing = md.get("manufacturer");
-                        if (existing instanceof String) {
-                            Map<String, Object> m = new HashMap<>();
-                            m.put("name", existing.toString());
-                            md.put("manufacturer", m);
-                        }
-                    }
-                }
-            } catch (Exception ignore) {
-            }
-
-            // Export SKU / country / manufacturer address / marketedBy into metadata for frontend
-            try {
-                if (p.getSku() != null && !p.getSku().isBlank()) md.put("sku", p.getSku());
-                if (p.getCountryOfOrigin() != null && !p.getCountryOfOrigin().isBlank()) md.put("countryOfOrigin", p.getCountryOfOrigin());
-                if (p.getManufacturerAddress() != null && !p.getManufacturerAddress().isBlank()) md.put("manufacturerAddress", p.getManufacturerAddress());
-                if (p.getMarketedBy() != null && !p.getMarketedBy().isBlank()) md.put("marketedBy", p.getMarketedBy());
-            } catch (Exception ignore) {}
-
-            // Add filters object for frontend convenience (from extracted columns)
-            Map<String, Object> filters = new HashMap<>();
-            if (p.getBrands() != null && !p.getBrands().isBlank()) {
-                try {
-                    // Parse JSON array back to List for frontend
-                    String brandsStr = p.getBrands();
-                    if (brandsStr.startsWith("[") && brandsStr.endsWith("]")) {
-                        List<String> brandsList = new ArrayList<>();
-                        String content = brandsStr.substring(1, brandsStr.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    brandsList.add(cleaned);
-                                }
-                            }
-                        }
-                        filters.put("brands", brandsList);
-                    }
-                } catch (Exception e) {
-                    // Keep as string if parsing fails
-                }
-            }
-            if (p.getProductWeights() != null && !p.getProductWeights().isBlank()) {
-                try {
-                    String weightsStr = p.getProductWeights();
-                    if (weightsStr.startsWith("[") && weightsStr.endsWith("]")) {
-                        List<String> weightsList = new ArrayList<>();
-                        String content = weightsStr.substring(1, weightsStr.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    weightsList.add(cleaned);
-                                }
-                            }
-                        }
-                        filters.put("weights", weightsList);
-                    }
-                } catch (Exception e) {
-                    // Keep as string if parsing fails
-                }
-            }
-            if (p.getPriceRanges() != null && !p.getPriceRanges().isBlank()) {
-                try {
-                    String priceRangesStr = p.getPriceRanges();
-                    if (priceRangesStr.startsWith("[") && priceRangesStr.endsWith("]")) {
-                        List<String> priceRangesList = new ArrayList<>();
-                        String content = priceRangesStr.substring(1, priceRangesStr.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    priceRangesList.add(cleaned);
-                                }
-                            }
-                        }
-                        filters.put("priceRanges", priceRangesList);
-                    }
-                } catch (Exception e) {
-                    // Keep as string if parsing fails
-                }
-            }
-            // Add other filter fields as needed by frontend
-            if (p.getLifeStages() != null && !p.getLifeStages().isBlank()) {
-                try {
-                    String lifeStagesStr = p.getLifeStages();
-                    if (lifeStagesStr.startsWith("[") && lifeStagesStr.endsWith("]")) {
-                        List<String> lifeStagesList = new ArrayList<>();
-                        String content = lifeStagesStr.substring(1, lifeStagesStr.length() - 1);
-                        if (!content.isBlank()) {
-                            String[] items = content.split("\",\\s*\"");
-                            for (String item : items) {
-                                String cleaned = item.replace("\"", "").trim();
-                                if (!cleaned.isEmpty()) {
-                                    lifeStagesList.add(cleaned);
-                                }
-                            }
-                        }
-                        filters.put("lifeStages", lifeStagesList);
-                    }
-                } catch (Exception e) {
-                }
-            }
-            if (!filters.isEmpty()) {
-                md.put("filters", filters);
-            }
-
-            // If top-level price/originalPrice is missing, try to derive from variants
-            try {
-                Object variantsObj2 = md.get("variants");
-                if (variantsObj2 instanceof List) {
-                    List<?> variantsList2 = (List<?>) variantsObj2;
-                    double minPrice = Double.MAX_VALUE;
-                    double minOriginal = Double.MAX_VALUE;
-                    boolean foundPrice = false;
-                    boolean foundOriginal = false;
-
-                    for (Object varObj : variantsList2) {
-                        if (!(varObj instanceof Map)) continue;
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> v = (Map<String, Object>) varObj;
-
-                        Object pv = v.get("price");
-                        if (pv == null) pv = v.get("sellingPrice");
-                        if (pv == null) pv = v.get("mrp");
-                        Double pval = null;
-                        try {
-                            if (pv instanceof Number) pval = ((Number) pv).doubleValue();
-                            else if (pv != null) {
-                                String s = pv.toString().replaceAll("[^0-9\\.\\-]", "");
-                                if (!s.isBlank()) pval = Double.parseDouble(s);
-                            }
-                        } catch (Exception ignore) {
-                        }
-
-                        if (pval != null) {
-                            foundPrice = true;
-                            if (pval < minPrice) minPrice = pval;
-                        }
-
-                        Object opv = v.get("originalPrice");
-                        if (opv == null) opv = v.get("original_price");
-                        if (opv == null) opv = v.get("mrp");
-                        Double oval = null;
-                        try {
-                            if (opv instanceof Number) oval = ((Number) opv).doubleValue();
-                            else if (opv != null) {
-                                String s = opv.toString().replaceAll("[^0-9\\.\\-]", "");
-                                if (!s.isBlank()) oval = Double.parseDouble(s);
-                            }
-                        } catch (Exception ignore) {
-                        }
-
-                        if (oval != null) {
-                            foundOriginal = true;
-                            if (oval < minOriginal) minOriginal = oval;
-                        }
-                    }
-
-                    if (foundPrice && p.getPrice() == null) {
-                        p.setPrice(minPrice == Double.MAX_VALUE ? null : minPrice);
-                    }
-                    if (foundOriginal && p.getOriginalPrice() == null) {
-                        p.setOriginalPrice(minOriginal == Double.MAX_VALUE ? null : minOriginal);
-                    }
-                    // If originalPrice still missing, set it equal to price for display
-                    if (p.getOriginalPrice() == null && p.getPrice() != null) {
-                        p.setOriginalPrice(p.getPrice());
-                    }
-
-                    // Put pricing back into metadata for frontend convenience
-                    try {
-                        if (p.getPrice() != null) md.put("price", p.getPrice());
-                        if (p.getOriginalPrice() != null) md.put("originalPrice", p.getOriginalPrice());
-                    } catch (Exception ignore) {}
-                }
-            } catch (Exception ignore) {}
-
-            p.setMetadata(md);
-
-        } catch (Exception e) {
-            try {
-                log.warn("Failed to enrich product metadata for {}: {}", p.getId(), e.getMessage());
-            } catch (Exception ignored) {
-            }
-        }
-    }
-
     @GetMapping("/{id}/stock")
     public ResponseEntity<Map<String, Object>> getStockInfo(@PathVariable Long id) {
         Product p = productService.getById(id);
@@ -1247,15 +830,27 @@ public class ProductController {
             }
         }
 
-        // Save the product
+        // Save the product; the service stores the enriched read model
         Product saved = productService.save(p);
 
-        // Enrich metadata with column values for frontend display
-        enrichProductMetadata(saved);
-
         return ResponseEntity.ok(saved);
     }
 
+    // Bulk import: streams a CSV (header row) or NDJSON body into batched inserts and reports
+    // per-row errors and throughput. Rows get the same normalization as the admin form.
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize,
+            InputStream body) throws IOException {
+        ProductImportService.Format format = ProductImportService.Format.of(MediaType.parseMediaType(contentType));
+        ProductImportResultDTO result = productImportService.importProducts(body, format, batchSize, p -> {
+            normalizeAndExtractFields(p);
+            filterNullFields(p);
+        });
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping(value = "/{id}", consumes = { "multipart/form-data" })
     public ResponseEntity<Product> update(
             @PathVariable Long id,
@@ -1301,7 +896,7 @@ public class ProductController {
 
                 // Remove duplicates by content (not just URL) - more sophisticated
                 // deduplication
-                List<String> uniqueImages = removeDuplicateImageUrls(allImages);
+                List<String> uniqueImages = ProductImageUrls.removeDuplicates(allImages);
 
                 p.getMetadata().put("images", uniqueImages);
                 p.setImageUrl(uniqueImages.get(0));
@@ -1310,7 +905,7 @@ public class ProductController {
                         uniqueImages.size(), allImages.size());
             } else if (!existingImages.isEmpty()) {
                 // No new images, but clean up existing duplicates
-                List<String> uniqueImages = removeDuplicateImageUrls(existingImages);
+                List<String> uniqueImages = ProductImageUrls.removeDuplicates(existingImages);
                 p.getMetadata().put("images", uniqueImages);
                 p.setImageUrl(uniqueImages.get(0));
             }
@@ -1377,18 +972,28 @@ public class ProductController {
             }
         }
 
-        // Save the product
+        // Save the product; the service stores the enriched read model
         Product saved = productService.save(p);
 
-        // Enrich metadata with column values for frontend display
-        enrichProductMetadata(saved);
-
         return ResponseEntity.ok(saved);
     }
 
+    // Bulk variant stock/price update (warehouse sync): many (productId, variantId) items in
+    // one request, applied per product group with one result per item
+    @PatchMapping("/variants")
+    public ResponseEntity<?> updateVariants(@RequestBody List<VariantUpdateDTO> items) {
+        try {
+            BulkVariantUpdateResultDTO result = variantBulkUpdateService.update(items);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Patch endpoint to update a single variant's stock count.
-     * This avoids multipart handling when only a simple numeric update is needed.
+     * This avoids multipart handling when only a simple numeric update is needed; the stock
+     * is written to the variant row like an item of the bulk PATCH.
      */
     @PatchMapping("/{id}/variant/{variantId}/stock")
     public ResponseEntity<Product> updateVariantStock(
@@ -1399,37 +1004,20 @@ public class ProductController {
             Product existing = productService.getById(id);
             if (existing == null)
                 return ResponseEntity.notFound().build();
-
-            // Ensure metadata and variants structure
-            Map<String, Object> md = existing.getMetadata();
-            if (md == null)
-                md = new java.util.HashMap<>();
-            Object variantsObj = md.get("variants");
-            if (!(variantsObj instanceof java.util.List)) {
+            if (!existing.hasVariants()) {
                 // if variants missing, nothing to update
                 return ResponseEntity.badRequest().build();
             }
 
-            @SuppressWarnings("unchecked")
-            java.util.List<Map<String, Object>> variants = (java.util.List<Map<String, Object>>) variantsObj;
-            boolean found = false;
-            for (Map<String, Object> v : variants) {
-                Object vid = v.get("id");
-                if (vid != null && vid.toString().equals(variantId)) {
-                    // store as Integer or String - prefer integer
-                    v.put("stock", stock);
-                    found = true;
-                    break;
-                }
-            }
-
-            if (!found)
+            BulkVariantUpdateResultDTO result = variantBulkUpdateService.update(List.of(
+                    new VariantUpdateDTO(id, variantId, stock, null, VariantUpdateDTO.MODE_SET)));
+            VariantUpdateResultDTO item = result.items.get(0);
+            if (VariantUpdateResultDTO.NOT_FOUND.equals(item.status))
                 return ResponseEntity.notFound().build();
+            if (!VariantUpdateResultDTO.UPDATED.equals(item.status))
+                return ResponseEntity.badRequest().build();
 
-            // persist changes
-            existing.setMetadata(md);
-            Product saved = productService.save(existing);
-            return ResponseEntity.ok(saved);
+            return ResponseEntity.ok(productService.getById(id));
         } catch (Exception e) {
             try {
                 log.error("Failed to update variant stock", e);
@@ -2096,233 +1684,77 @@ public class ProductController {
         }
     }
 
-    // Helper to upload multiple files and return their URLs with content-based
-    // deduplication
+    // Helper to upload multiple files and return their URLs (in upload order) with
+    // content-based deduplication; uploads run concurrently in ImageUploadService
     private List<String> imagesWithUpload(MultipartFile[] images) {
-        List<String> urls = new java.util.ArrayList<>();
-        Set<String> contentHashes = new HashSet<>(); // Track content to prevent duplicates
-
-        for (MultipartFile img : images) {
-            try {
-                if (img == null || img.isEmpty())
-                    continue;
-
-                // Calculate content hash to check for duplicates
-                String contentHash = calculateImageHash(img);
-                if (contentHashes.contains(contentHash)) {
-                    log.info("Skipping duplicate image based on content hash: {}", contentHash);
-                    continue; // Skip if we already processed this image content
-                }
-                contentHashes.add(contentHash);
-
-                String finalUrl = null;
-
-                // Try S3 first (primary storage for production) if available
-                if (s3ImageService != null) {
-                    try {
-                        finalUrl = s3ImageService.uploadProductImage(img);
-                        log.info("Successfully uploaded image to S3: {}", finalUrl);
-                    } catch (Exception s3e) {
-                        log.warn("S3 upload failed: {}", s3e.getMessage());
-                    }
-                }
-
-                // Fallback to Cloudinary if S3 is not available or failed
-                if (finalUrl == null) {
-                    try {
-                        com.eduprajna.service.CloudinaryStorageService.UploadResult res = cloudinaryStorageService
-                                .upload(img);
-                        if (res != null && res.getUrl() != null) {
-                            finalUrl = res.getUrl();
-                            log.info("Successfully uploaded image to Cloudinary as fallback: {}", finalUrl);
-                        }
-                    } catch (Exception ce) {
-                        log.warn("Cloudinary upload also failed, trying local storage: {}", ce.getMessage());
-
-                        // Final fallback to local storage
-                        try {
-                            finalUrl = storageService.store(img);
-                            log.info("Stored image locally as final fallback: {}", finalUrl);
-                        } catch (Exception le) {
-                            log.error(
-                                    "All storage methods failed for image: S3, Cloudinary, and local storage all failed");
-                            continue; // Skip this image if all methods fail
-                        }
-                    }
-                }
-
-                // Only add ONE URL per unique image
-                if (finalUrl != null) {
-                    urls.add(finalUrl);
-                }
-
-            } catch (Exception ex) {
-                log.warn("Failed to process image: {}", ex.getMessage());
-            }
-        }
-        return urls;
-    }
-
-    // Calculate content hash for image deduplication
-    private String calculateImageHash(MultipartFile file) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("MD5");
-            byte[] hashBytes = md.digest(file.getBytes());
-            StringBuilder hashBuilder = new StringBuilder();
-            for (byte b : hashBytes) {
-                hashBuilder.append(String.format("%02x", b));
-            }
-            return hashBuilder.toString();
-        } catch (Exception e) {
-            // Fallback to filename + size if hashing fails
-            return file.getOriginalFilename() + "_" + file.getSize();
-        }
-    }
-
-    // Remove duplicate image URLs using sophisticated pattern matching
-    private List<String> removeDuplicateImageUrls(List<String> imageUrls) {
-        if (imageUrls == null || imageUrls.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        Set<String> uniqueImages = new HashSet<>();
-        List<String> result = new ArrayList<>();
-
-        for (String url : imageUrls) {
-            if (url == null || url.trim().isEmpty())
-                continue;
-
-            String normalizedUrl = normalizeImageUrl(url);
-
-            // Only add if we haven't seen this normalized URL before
-            if (uniqueImages.add(normalizedUrl)) {
-                result.add(url); // Keep original URL format
-                log.debug("Added unique image: {} (normalized: {})", url, normalizedUrl);
-            } else {
-                log.debug("Skipped duplicate image: {} (normalized: {})", url, normalizedUrl);
-            }
-        }
-
-        log.info("Deduplication: {} original URLs -> {} unique URLs", imageUrls.size(), result.size());
-        return result;
-    }
-
-    // Normalize image URLs to detect duplicates with different formats
-    private String normalizeImageUrl(String url) {
-        if (url == null)
-            return "";
-
-        String normalized = url.trim().toLowerCase();
-
-        // Extract filename from both local and cloud URLs
-        String filename = null;
-
-        if (normalized.contains("/admin/products/images/")) {
-            // Local URL: /admin/products/images/1768898387861_image.jpg
-            filename = normalized.substring(normalized.lastIndexOf('/') + 1);
-        } else if (normalized.contains("cloudinary.com")) {
-            // Cloudinary URL: extract filename from path
-            filename = normalized.substring(normalized.lastIndexOf('/') + 1);
-        } else if (normalized.contains("amazonaws.com")) {
-            // S3 URL: extract filename from path
-            filename = normalized.substring(normalized.lastIndexOf('/') + 1);
-        } else {
-            // Use full URL as fallback
-            filename = normalized;
-        }
-
-        // Remove query parameters and fragments
-        if (filename != null && filename.contains("?")) {
-            filename = filename.substring(0, filename.indexOf("?"));
-        }
-
-        return filename != null ? filename : normalized;
+        return imageUploadService.uploadAll(Arrays.asList(images));
     }
 
+    // One local transaction: stored images are queued for deletion with the row and removed
+    // in the background (ImageCleanupService)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        // Load product to get image URL before deleting DB row
-        try {
-            Product existing = productService.getById(id);
-            if (existing != null) {
-                boolean deletedSomething = false;
-                // Try Cloudinary public id first
-                if (existing.getImagePublicId() != null && !existing.getImagePublicId().isEmpty()) {
-                    try {
-                        cloudinaryStorageService.delete(existing.getImagePublicId());
-                        deletedSomething = true;
-                    } catch (Exception e) {
-                        try {
-                            log.warn("Cloudinary deletion failed: {}", e.getMessage());
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-
-                // If not deleted via Cloudinary, try to delete by URL or local filename
-                if (!deletedSomething && existing.getImageUrl() != null) {
-                    try {
-                        // If imageUrl looks like an absolute URL, ask Cloudinary to delete by URL
-                        // (service handles it)
-                        if (existing.getImageUrl().startsWith("http://")
-                                || existing.getImageUrl().startsWith("https://")) {
-                            try {
-                                cloudinaryStorageService.delete(existing.getImageUrl());
-                                deletedSomething = true;
-                            } catch (Exception e) {
-                            }
-                        } else {
-                            // Treat as local path: extract filename and delete from local storage
-                            String filename = storageService.extractFilenameFromUrl(existing.getImageUrl());
-                            if (filename != null)
-                                storageService.delete(filename);
-                        }
-                    } catch (Exception ex) {
-                        try {
-                            log.warn("Failed to delete stored image: {}", ex.getMessage());
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-            }
-        } catch (Exception ignored) {
-            // Ignore errors during image deletion; proceed to delete DB row
-        }
         productService.delete(id);
         return ResponseEntity.noContent().build();
     }
 
-    // Serve uploaded images via API so frontend can display them
+    // Serve uploaded images via API so frontend can display them. ?w= selects a resized
+    // rendition (thumb 160, card 480, detail 1080 px wide) instead of the original
     @GetMapping("/images/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) throws IOException {
-        long start = System.currentTimeMillis();
-        Resource resource = null;
-        long readDuration = 0;
-        MediaType contentType = null;
+    public ResponseEntity<Resource> getImage(@PathVariable String filename,
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request, ServletWebRequest webRequest) throws IOException {
+        if (width != null && width > 0) {
+            java.util.Optional<ImageDerivativeService.Derivative> derivative = imageDerivativeService
+                    .rendition(filename, width);
+            if (derivative.isPresent()) {
+                return serveImageFile(new FileSystemResource(derivative.get().path()),
+                        derivative.get().mediaType(), "derivative-cache", request, webRequest);
+            }
+        }
+        Resource resource;
         try {
             resource = storageService.loadAsResource(filename);
-            readDuration = System.currentTimeMillis() - start;
-            contentType = storageService.probeMediaType(filename);
         } catch (IOException ioe) {
-            try {
-                log.warn("Requested image not found: {}", filename);
-            } catch (Exception ignored) {
-            }
+            log.warn("Requested image not found: {}", filename);
             return ResponseEntity.notFound().build();
         }
+        return serveImageFile(resource, storageService.probeMediaType(filename), "local-storage", request,
+                webRequest);
+    }
 
-        // Log small diagnostic info to help debug cold-start vs file-read slowness
-        try {
-            log.info("Image request served: {} (readDuration={} ms)", filename, readDuration);
-        } catch (Exception ignored) {
+    // Files at least this large go out through the connector's sendfile
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    // Conditional GET against a strong ETag (size and mtime; stored images are never rewritten
+    // under the same name) and Last-Modified. Whole-file GETs of larger files are handed to
+    // Tomcat's sendfile so the kernel copies them to the socket; Range requests and the rest
+    // are written by Spring from the file resource, which answers Range with 206.
+    private ResponseEntity<Resource> serveImageFile(Resource resource, MediaType contentType, String servedBy,
+            HttpServletRequest request, ServletWebRequest webRequest) throws IOException {
+        File file = resource.getFile();
+        long length = file.length();
+        long lastModified = file.lastModified();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        // Sets ETag and Last-Modified on the response; true once a 304 has been prepared
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
         }
 
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
                 .header(HttpHeaders.CACHE_CONTROL, "max-age=86400, public")
-                .header("X-Served-By", "local-storage")
-                .header("X-Read-Duration-ms", String.valueOf(readDuration))
-                .contentType(contentType)
-                .body(resource);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header("X-Served-By", servedBy)
+                .contentType(contentType);
+        if ("GET".equals(request.getMethod()) && request.getHeader(HttpHeaders.RANGE) == null
+                && length >= SENDFILE_MIN_BYTES
+                && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.getAbsolutePath());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", length);
+            return ok.contentLength(length).build();
+        }
+        return ok.body(resource);
     }
 
     // List all stored image filenames (or absolute URLs)
@@ -2338,59 +1770,16 @@ public class ProductController {
     }
 
     // Admin utility: remove non-image files from upload folder (useful for dev
-    // cleanup)
+    // cleanup). Runs as a maintenance job; follow it at /api/admin/maintenance/jobs/{id}
     @PostMapping("/images/cleanup")
-    public ResponseEntity<List<String>> cleanupUploads() {
-        List<String> deleted = storageService.sanitizeUploads();
-        return ResponseEntity.ok(deleted);
+    public ResponseEntity<MaintenanceJob> cleanupUploads() {
+        return ResponseEntity.accepted().body(maintenanceJobService.start(UploadSanitizeTask.TYPE, null));
     }
 
-    // Admin utility: Fix duplicate images in existing products
+    // Admin utility: Fix duplicate images in existing products, as a maintenance job
     @PostMapping("/fix-duplicate-images")
-    public ResponseEntity<Map<String, Object>> fixDuplicateImages() {
-        List<Product> allProducts = productService.getAll();
-        int fixedCount = 0;
-        int totalDuplicatesRemoved = 0;
-
-        for (Product product : allProducts) {
-            try {
-                Map<String, Object> metadata = product.getMetadata();
-                if (metadata != null && metadata.get("images") instanceof List) {
-                    @SuppressWarnings("unchecked")
-                    List<String> images = (List<String>) metadata.get("images");
-
-                    if (images.size() > 1) {
-                        int originalSize = images.size();
-                        List<String> uniqueImages = removeDuplicateImageUrls(images);
-
-                        if (uniqueImages.size() < originalSize) {
-                            // Update product with deduplicated images
-                            metadata.put("images", uniqueImages);
-                            product.setMetadata(metadata);
-                            product.setImageUrl(uniqueImages.get(0));
-
-                            productService.save(product);
-
-                            fixedCount++;
-                            totalDuplicatesRemoved += (originalSize - uniqueImages.size());
-
-                            log.info("Fixed product {} - reduced from {} to {} images",
-                                    product.getId(), originalSize, uniqueImages.size());
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fix duplicates for product {}: {}", product.getId(), e.getMessage());
-            }
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("message", "Duplicate image cleanup completed");
-        result.put("productsFixed", fixedCount);
-        result.put("duplicatesRemoved", totalDuplicatesRemoved);
-        result.put("totalProducts", allProducts.size());
-
-        return ResponseEntity.ok(result);
+    public ResponseEntity<MaintenanceJob> fixDuplicateImages(@RequestParam(required = false) Integer chunkSize) {
+        return ResponseEntity.accepted().body(maintenanceJobService.start(DuplicateImagesTask.TYPE, chunkSize));
     }
 
     // Filter out null/empty fields to prevent storing unnecessary defaults and null
@@ -0,0 +1,173 @@
+package com.eduprajna.Controller;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduprajna.config.CorsConfig;
+import com.eduprajna.dto.CatalogChangesDTO;
+import com.eduprajna.dto.ProductCardDTO;
+import com.eduprajna.dto.ProductFacetsDTO;
+import com.eduprajna.dto.SuggestionDTO;
+import com.eduprajna.service.BestSellerService;
+import com.eduprajna.service.CatalogAliases;
+import com.eduprajna.service.CatalogChangeService;
+import com.eduprajna.service.CatalogSnapshot;
+import com.eduprajna.service.CatalogSnapshotService;
+import com.eduprajna.service.ProductSearchService;
+import com.eduprajna.service.ProductSuggestService;
+import com.eduprajna.service.RelatedProductService;
+
+@RestController
+@RequestMapping("/api/products")
+// Allow local dev, Vercel preview and production frontend domains
+@CrossOrigin(origins = {CorsConfig.LOCALHOST_3000, CorsConfig.LOCALHOST_5173, CorsConfig.LOCALHOST_IP_3000, CorsConfig.LOCALHOST_IP_5173, CorsConfig.VERCEL_OLD, CorsConfig.VERCEL_NEW, CorsConfig.PROD_DOMAIN_1, CorsConfig.PROD_DOMAIN_2}, allowCredentials = "true")
+public class ProductSearchController {
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestService productSuggestService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogChangeService catalogChangeService;
+    private final RelatedProductService relatedProductService;
+    private final BestSellerService bestSellerService;
+
+    public ProductSearchController(ProductSearchService productSearchService,
+            ProductSuggestService productSuggestService, CatalogSnapshotService catalogSnapshotService,
+            CatalogChangeService catalogChangeService, RelatedProductService relatedProductService,
+            BestSellerService bestSellerService) {
+        this.productSearchService = productSearchService;
+        this.productSuggestService = productSuggestService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.catalogChangeService = catalogChangeService;
+        this.relatedProductService = relatedProductService;
+        this.bestSellerService = bestSellerService;
+    }
+
+    // Customer search: in-stock products only, ranked by relevance
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam("q") String q,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (q == null || q.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Query parameter 'q' is required"));
+        }
+        if (!productSearchService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Search index is still loading"));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS))
+                .body(productSearchService.search(q.trim(), type, true,
+                        limit != null ? limit : ProductSearchService.DEFAULT_LIMIT));
+    }
+
+    // Typeahead: top completions for a prefix across product names, brands and categories
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        List<SuggestionDTO> suggestions = productSuggestService.suggest(q,
+                limit != null ? limit : ProductSuggestService.TOP_K);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS))
+                .body(suggestions);
+    }
+
+    // Facet sidebar: in-stock counts per filter value for the current selection.
+    // Facet selections are passed as comma-separated or repeated params, e.g. ?brands=A,B&lifeStages=Adult
+    @GetMapping("/facets")
+    public ResponseEntity<?> facets(
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "petType", required = false) String petType,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "sub", required = false) String sub,
+            @RequestParam MultiValueMap<String, String> params) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Catalog is still loading"));
+        }
+
+        Map<String, Set<String>> selected = new LinkedHashMap<>();
+        for (String facet : CatalogSnapshot.facetNames()) {
+            List<String> raw = params.get(facet);
+            if (raw == null) continue;
+            Set<String> values = new LinkedHashSet<>();
+            for (String r : raw) {
+                for (String v : r.split(",")) {
+                    if (!v.isBlank()) values.add(v.trim());
+                }
+            }
+            if (!values.isEmpty()) selected.put(facet, values);
+        }
+
+        String effectiveType = CatalogAliases.normalize(type != null && !type.isBlank() ? type : petType);
+        ProductFacetsDTO body = snapshot.facetCounts(effectiveType, CatalogAliases.normalize(category),
+                CatalogAliases.normalize(sub), selected);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS))
+                .body(body);
+    }
+
+    // Delta sync: products changed or deleted since the client's cursor (since=0 for the whole
+    // catalog), paged in version order; keep calling with "next" while "more" is true
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            CatalogChangesDTO body = catalogChangeService.changesSince(since,
+                    limit != null ? limit : CatalogChangeService.DEFAULT_LIMIT);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // "Frequently bought together": in-stock products most often ordered with this one
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductCardDTO>> related(
+            @PathVariable Long id,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = Math.max(1, Math.min(limit != null ? limit : RelatedProductService.DEFAULT_LIMIT, 50));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(300, TimeUnit.SECONDS))
+                .body(relatedProductService.related(id, size));
+    }
+
+    // Best sellers by units sold over window=7d|30d|all (default 30d), optionally per type and/or
+    // category; ranked ahead of time, so the request does no aggregation
+    @GetMapping("/best-sellers")
+    public ResponseEntity<?> bestSellers(
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "window", required = false) String window,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        BestSellerService.Window w;
+        try {
+            w = BestSellerService.Window.fromParam(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        int size = Math.max(1, Math.min(limit != null ? limit : BestSellerService.DEFAULT_LIMIT, 50));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS))
+                .body(bestSellerService.bestSellers(type, category, w, size));
+    }
+}
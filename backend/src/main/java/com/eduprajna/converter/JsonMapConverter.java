@@ -9,6 +9,12 @@ import jakarta.persistence.Converter;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Stores a {@code Map<String, Object>} attribute as a JSON string.
+ *
+ * Loaded values are {@link LazyJsonMap}s: the JSON is only parsed when the map is first
+ * read, and a map that was never modified is written back as the original string.
+ */
 @Converter
 public class JsonMapConverter implements AttributeConverter<Map<String, Object>, String> {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
@@ -16,6 +22,9 @@ public class JsonMapConverter implements AttributeConverter<Map<String, Object>,
 
     @Override
     public String convertToDatabaseColumn(Map<String, Object> attribute) {
+        if (attribute instanceof LazyJsonMap lazy && lazy.isClean()) {
+            return lazy.rawJson();
+        }
         if (attribute == null || attribute.isEmpty()) {
             return null;
         }
@@ -31,11 +40,16 @@ public class JsonMapConverter implements AttributeConverter<Map<String, Object>,
         if (dbData == null || dbData.isBlank()) {
             return new HashMap<>();
         }
+        return new LazyJsonMap(dbData);
+    }
+
+    // Unreadable JSON becomes an empty map, as before; the raw column is kept until the map is modified
+    static Map<String, Object> parse(String json) {
         try {
-            return OBJECT_MAPPER.readValue(dbData, TYPE_REFERENCE);
+            Map<String, Object> map = OBJECT_MAPPER.readValue(json, TYPE_REFERENCE);
+            return map != null ? map : new HashMap<>();
         } catch (Exception e) {
             return new HashMap<>();
         }
     }
 }
-
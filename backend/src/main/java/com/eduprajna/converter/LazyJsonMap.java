@@ -0,0 +1,197 @@
+package com.eduprajna.converter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map view over a JSON object column that keeps the raw JSON and parses it on first access.
+ *
+ * Entities loaded only for their plain columns never pay for building the map tree, and
+ * Hibernate's load-time snapshot of the attribute stays a string copy. The map also tracks
+ * whether it may have changed: until it is written to, or a nested map/list or an entry view
+ * is handed out (callers can mutate those in place), {@link #isClean()} holds and
+ * {@link JsonMapConverter} writes the original JSON back instead of reserializing.
+ *
+ * Parsing is safe to trigger from several threads (catalog snapshot products are shared);
+ * mutation is not, same as the HashMap this replaces.
+ */
+public final class LazyJsonMap extends AbstractMap<String, Object> {
+
+    private final String json;
+    private volatile Map<String, Object> delegate;
+    private boolean dirty;
+
+    LazyJsonMap(String json) {
+        this.json = json;
+    }
+
+    /** The JSON this map was loaded from. */
+    public String rawJson() {
+        return json;
+    }
+
+    public boolean isParsed() {
+        return delegate != null;
+    }
+
+    /** True while the content is known to still match {@link #rawJson()}. */
+    public boolean isClean() {
+        return !dirty;
+    }
+
+    private Map<String, Object> map() {
+        Map<String, Object> m = delegate;
+        if (m == null) {
+            synchronized (this) {
+                m = delegate;
+                if (m == null) {
+                    m = JsonMapConverter.parse(json);
+                    delegate = m;
+                }
+            }
+        }
+        return m;
+    }
+
+    // Nested containers are live and mutable, so handing one out means we can no longer vouch for the JSON
+    private Object track(Object value) {
+        if (value instanceof Map || value instanceof List) dirty = true;
+        return value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return track(map().get(key));
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        Map<String, Object> m = map();
+        return m.containsKey(key) ? track(m.get(key)) : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map().isEmpty();
+    }
+
+    // Live view; keys are immutable strings, so only removing through it can change the JSON
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<String> keys = map().keySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return keys.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        dirty = true;
+                        keys.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyJsonMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public boolean remove(Object key) {
+                dirty = true;
+                return map().keySet().remove(key);
+            }
+
+            @Override
+            public void clear() {
+                LazyJsonMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        dirty = true;
+        return map().values();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        dirty = true;
+        return map().entrySet();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        dirty = true;
+        return map().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        dirty = true;
+        return map().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> m) {
+        dirty = true;
+        map().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        dirty = true;
+        map().clear();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        // Two untouched copies of the same column compare without parsing (Hibernate dirty checks)
+        if (o instanceof LazyJsonMap other && isClean() && other.isClean() && json.equals(other.json)) {
+            return true;
+        }
+        return o instanceof Map<?, ?> other && map().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return map().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate != null ? delegate.toString() : json;
+    }
+}
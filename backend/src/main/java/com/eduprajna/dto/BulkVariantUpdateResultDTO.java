@@ -0,0 +1,26 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+
+public class BulkVariantUpdateResultDTO {
+    public int requested;
+    public int updated;
+    public int failed;
+    public int products; // distinct products touched by valid items
+    public int transactions;
+    public long elapsedMs;
+    public List<VariantUpdateResultDTO> items; // one per request item, in request order
+
+    public BulkVariantUpdateResultDTO() {}
+
+    public BulkVariantUpdateResultDTO(int requested, int updated, int failed, int products, int transactions,
+            long elapsedMs, List<VariantUpdateResultDTO> items) {
+        this.requested = requested;
+        this.updated = updated;
+        this.failed = failed;
+        this.products = products;
+        this.transactions = transactions;
+        this.elapsedMs = elapsedMs;
+        this.items = items;
+    }
+}
@@ -0,0 +1,32 @@
+package com.eduprajna.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One change on the admin catalog event stream (GET /api/admin/products/events); the SSE
+// event name repeats the type
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogChangeDTO {
+    public static final String UPSERTED = "upserted";
+    public static final String DELETED = "deleted";
+    public static final String STOCK = "stock";
+    public static final String RESYNC = "resync"; // events were dropped; re-fetch the list
+
+    public String type;
+    public Long productId;
+    public String variantId;    // STOCK only; null for the product-level quantity
+    public Integer stock;       // STOCK, and the product-level quantity for UPSERTED
+    public Boolean active;      // UPSERTED only
+    public ProductCardDTO product; // UPSERTED only
+
+    public CatalogChangeDTO() {}
+
+    public CatalogChangeDTO(String type, Long productId, String variantId, Integer stock, Boolean active,
+            ProductCardDTO product) {
+        this.type = type;
+        this.productId = productId;
+        this.variantId = variantId;
+        this.stock = stock;
+        this.active = active;
+        this.product = product;
+    }
+}
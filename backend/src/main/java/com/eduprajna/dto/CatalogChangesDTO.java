@@ -0,0 +1,27 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+
+// A page of GET /api/products/changes. Pass "next" as ?since= on the following call; while
+// "more" is true there are further changes up to "version". With "resync" the client's
+// watermark is not from this catalog and it should start again from since=0.
+public class CatalogChangesDTO {
+    public long version;       // committed catalog version this page is consistent with
+    public String next;        // cursor for the next call
+    public boolean more;
+    public boolean resync;
+    public List<ProductDeltaDTO> products;
+    public List<Long> deleted; // ids of products removed since the cursor
+
+    public CatalogChangesDTO() {}
+
+    public CatalogChangesDTO(long version, String next, boolean more, boolean resync, List<ProductDeltaDTO> products,
+            List<Long> deleted) {
+        this.version = version;
+        this.next = next;
+        this.more = more;
+        this.resync = resync;
+        this.products = products;
+        this.deleted = deleted;
+    }
+}
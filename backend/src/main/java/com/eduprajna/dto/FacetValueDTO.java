@@ -0,0 +1,15 @@
+package com.eduprajna.dto;
+
+public class FacetValueDTO {
+    public String value;
+    public Integer count;
+    public Boolean selected;
+
+    public FacetValueDTO() {}
+
+    public FacetValueDTO(String value, Integer count, Boolean selected) {
+        this.value = value;
+        this.count = count;
+        this.selected = selected;
+    }
+}
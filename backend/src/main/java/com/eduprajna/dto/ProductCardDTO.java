@@ -0,0 +1,27 @@
+package com.eduprajna.dto;
+
+// Listing-page view of a product; selected directly by ProductRepository.findCards
+public class ProductCardDTO {
+    public Long id;
+    public String name;
+    public Double price;
+    public Double originalPrice;
+    public String imageUrl;
+    public String brand;
+    public Double rating;      // average of active review ratings, null when unrated
+    public boolean inStock;
+
+    public ProductCardDTO() {}
+
+    public ProductCardDTO(Long id, String name, Double price, Double originalPrice, String imageUrl, String brand,
+            Double rating, Boolean inStock) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.imageUrl = imageUrl;
+        this.brand = brand;
+        this.rating = rating;
+        this.inStock = Boolean.TRUE.equals(inStock);
+    }
+}
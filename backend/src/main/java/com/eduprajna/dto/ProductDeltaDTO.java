@@ -0,0 +1,41 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One changed product in a delta sync page (GET /api/products/changes): the fields a
+// listing needs to refresh price and stock; inactive products come with active=false
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductDeltaDTO {
+    public Long id;
+    public Long version;
+    public boolean active;
+    public String name;
+    public String brand;
+    public String type;
+    public String category;
+    public String imageUrl;
+    public Double price;
+    public Double originalPrice;
+    public Double rating;
+    public boolean inStock;
+    public Integer stockQuantity;
+    public List<Variant> variants; // null when the product has none
+
+    public static class Variant {
+        public String id;
+        public Double price;
+        public Integer stock;
+
+        public Variant() {}
+
+        public Variant(String id, Double price, Integer stock) {
+            this.id = id;
+            this.price = price;
+            this.stock = stock;
+        }
+    }
+
+    public ProductDeltaDTO() {}
+}
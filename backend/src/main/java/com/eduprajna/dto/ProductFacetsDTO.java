@@ -0,0 +1,16 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductFacetsDTO {
+    public Integer total; // in-stock products matching every selected filter
+    public Map<String, List<FacetValueDTO>> facets;
+
+    public ProductFacetsDTO() {}
+
+    public ProductFacetsDTO(Integer total, Map<String, List<FacetValueDTO>> facets) {
+        this.total = total;
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,42 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+
+public class ProductImportResultDTO {
+    public String format;
+    public long rowsRead;
+    public long imported;
+    public long failed;
+    public int batches;
+    public long elapsedMs;
+    public double rowsPerSecond;
+    public List<RowError> errors; // the first ProductImportService.MAX_REPORTED_ERRORS failures
+    public boolean errorsTruncated;
+
+    public ProductImportResultDTO() {}
+
+    public ProductImportResultDTO(String format, long rowsRead, long imported, long failed, int batches,
+            long elapsedMs, double rowsPerSecond, List<RowError> errors, boolean errorsTruncated) {
+        this.format = format;
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.failed = failed;
+        this.batches = batches;
+        this.elapsedMs = elapsedMs;
+        this.rowsPerSecond = rowsPerSecond;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public static class RowError {
+        public long line; // line of the row in the uploaded file
+        public String message;
+
+        public RowError() {}
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+
+import com.eduprajna.entity.Product;
+
+public class ProductPageDTO {
+    public List<Product> items;
+    public String nextCursor; // null when there are no more pages
+    public boolean hasMore;
+    public String sort;
+    public int limit;
+
+    public ProductPageDTO() {}
+
+    public ProductPageDTO(List<Product> items, String nextCursor, boolean hasMore, String sort, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.sort = sort;
+        this.limit = limit;
+    }
+}
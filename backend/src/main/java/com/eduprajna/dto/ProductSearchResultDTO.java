@@ -0,0 +1,19 @@
+package com.eduprajna.dto;
+
+import java.util.List;
+
+import com.eduprajna.entity.Product;
+
+public class ProductSearchResultDTO {
+    public String query;
+    public int total; // all matches, before the limit
+    public List<Product> items;
+
+    public ProductSearchResultDTO() {}
+
+    public ProductSearchResultDTO(String query, int total, List<Product> items) {
+        this.query = query;
+        this.total = total;
+        this.items = items;
+    }
+}
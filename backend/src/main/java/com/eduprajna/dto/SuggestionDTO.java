@@ -0,0 +1,17 @@
+package com.eduprajna.dto;
+
+public class SuggestionDTO {
+    public String text;
+    public String kind;      // product, brand, category, subcategory, type
+    public Long productId;   // only for kind = product
+    public double score;     // popularity used for ranking
+
+    public SuggestionDTO() {}
+
+    public SuggestionDTO(String text, String kind, Long productId, double score) {
+        this.text = text;
+        this.kind = kind;
+        this.productId = productId;
+        this.score = score;
+    }
+}
@@ -0,0 +1,27 @@
+package com.eduprajna.dto;
+
+// One item of PATCH /api/admin/products/variants
+public class VariantUpdateDTO {
+    public static final String MODE_SET = "set";
+    public static final String MODE_DELTA = "delta";
+
+    public Long productId;
+    public String variantId;
+    public Integer stock; // new stock, or the change in stock for mode "delta"; null leaves it
+    public Double price; // new price, or the change in price for mode "delta"; null leaves it
+    public String mode; // "set" (default) or "delta"
+
+    public VariantUpdateDTO() {}
+
+    public VariantUpdateDTO(Long productId, String variantId, Integer stock, Double price, String mode) {
+        this.productId = productId;
+        this.variantId = variantId;
+        this.stock = stock;
+        this.price = price;
+        this.mode = mode;
+    }
+
+    public boolean isDelta() {
+        return MODE_DELTA.equalsIgnoreCase(mode);
+    }
+}
@@ -0,0 +1,34 @@
+package com.eduprajna.dto;
+
+public class VariantUpdateResultDTO {
+    public static final String UPDATED = "UPDATED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+    public static final String FAILED = "FAILED";
+
+    public int index; // position of the item in the request
+    public Long productId;
+    public String variantId;
+    public String status;
+    public Integer stock; // values after the update
+    public Double price;
+    public String message;
+
+    public VariantUpdateResultDTO() {}
+
+    public VariantUpdateResultDTO(int index, Long productId, String variantId, String status, Integer stock,
+            Double price, String message) {
+        this.index = index;
+        this.productId = productId;
+        this.variantId = variantId;
+        this.status = status;
+        this.stock = stock;
+        this.price = price;
+        this.message = message;
+    }
+
+    public static VariantUpdateResultDTO error(VariantUpdateDTO item, String status, String message) {
+        if (item == null) return new VariantUpdateResultDTO(0, null, null, status, null, null, message);
+        return new VariantUpdateResultDTO(0, item.productId, item.variantId, status, null, null, message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.eduprajna.entity;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * One catalog change version (CatalogChangeService). A stamping transaction inserts a row and
+ * uses its AUTO_INCREMENT id as the version of every product it changed; rows are only ever
+ * inserted (and pruned once old), so versions are drawn without a shared lock.
+ */
+@Entity
+@Table(name = "catalog_change")
+public class CatalogChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    public CatalogChange() {}
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+}
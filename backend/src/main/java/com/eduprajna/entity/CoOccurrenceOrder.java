@@ -0,0 +1,28 @@
+package com.eduprajna.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * An order already added to the co-occurrence matrix, so the rebuild job and the per-order
+ * update never count it twice.
+ */
+@Entity
+@Table(name = "co_occurrence_order")
+public class CoOccurrenceOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    public CoOccurrenceOrder() {}
+
+    public CoOccurrenceOrder(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+}
@@ -0,0 +1,90 @@
+package com.eduprajna.entity;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One stored product image, keyed by the SHA-256 of its content. Uploads of content that is
+ * already indexed reuse the stored URL instead of uploading again (ImageUploadService).
+ * refCount is the number of products whose images include the URL, kept by
+ * ImageBlobService on product saves and deletes. A blob at zero is reclaimed (row removed,
+ * stored object deleted) by ImageBlobService's sweep once reclaimableAt has passed.
+ */
+@Entity
+@Table(name = "image_blob",
+    uniqueConstraints = @UniqueConstraint(name = "uk_image_blob_hash", columnNames = "content_hash"),
+    indexes = {
+        @Index(name = "idx_image_blob_url", columnList = "url"),
+        @Index(name = "idx_image_blob_reclaim", columnList = "ref_count, reclaimable_at")
+    }
+)
+public class ImageBlob {
+    public static final String S3 = "S3";
+    public static final String CLOUDINARY = "CLOUDINARY";
+    public static final String LOCAL = "LOCAL";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash; // hex SHA-256
+
+    @Column(nullable = false, length = 512)
+    private String url;
+
+    @Column(nullable = false, length = 20)
+    private String storage; // S3, CLOUDINARY or LOCAL
+
+    @Column(name = "public_id", length = 255)
+    private String publicId; // Cloudinary public_id
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    @Column(name = "reclaimable_at")
+    private OffsetDateTime reclaimableAt; // not reclaimed before this, even when unreferenced
+
+    public ImageBlob() {}
+
+    public ImageBlob(String contentHash, String url, String storage, String publicId, Long sizeBytes) {
+        this.contentHash = contentHash;
+        this.url = url;
+        this.storage = storage;
+        this.publicId = publicId;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getStorage() { return storage; }
+    public void setStorage(String storage) { this.storage = storage; }
+    public String getPublicId() { return publicId; }
+    public void setPublicId(String publicId) { this.publicId = publicId; }
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+    public Integer getRefCount() { return refCount; }
+    public void setRefCount(Integer refCount) { this.refCount = refCount; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public OffsetDateTime getReclaimableAt() { return reclaimableAt; }
+    public void setReclaimableAt(OffsetDateTime reclaimableAt) { this.reclaimableAt = reclaimableAt; }
+}
@@ -0,0 +1,116 @@
+package com.eduprajna.entity;
+
+import java.time.OffsetDateTime;
+
+import org.hibernate.annotations.DynamicUpdate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A catalog-wide maintenance run (MaintenanceJobService) and its checkpoint. phase and
+ * cursor name the last chunk that committed, so an interrupted job resumes right after it.
+ * Updates write only the changed columns, so a chunk's checkpoint does not overwrite a
+ * cancellation committed while the chunk ran.
+ */
+@Entity
+@DynamicUpdate
+@Table(name = "maintenance_job",
+    indexes = @Index(name = "idx_maintenance_job_status", columnList = "status")
+)
+public class MaintenanceJob {
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String type; // MaintenanceTask.type()
+
+    @Column(nullable = false, length = 20)
+    private String status = QUEUED;
+
+    @Column(length = 50)
+    private String phase;
+
+    @Column(name = "cursor_key", length = 255)
+    private String cursor; // last id (or file name) processed in the phase; null at its start
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false)
+    private Long processed = 0L;
+
+    @Column(nullable = false)
+    private Long changed = 0L;
+
+    private Long total; // estimate taken when the job was queued; null when unknown
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    public MaintenanceJob() {}
+
+    public MaintenanceJob(String type, String phase, int chunkSize, Long total) {
+        this.type = type;
+        this.phase = phase;
+        this.chunkSize = chunkSize;
+        this.total = total;
+    }
+
+    public boolean isActive() {
+        return QUEUED.equals(status) || RUNNING.equals(status);
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getPhase() { return phase; }
+    public void setPhase(String phase) { this.phase = phase; }
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+    public Integer getChunkSize() { return chunkSize; }
+    public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+    public Long getProcessed() { return processed; }
+    public void setProcessed(Long processed) { this.processed = processed; }
+    public Long getChanged() { return changed; }
+    public void setChanged(Long changed) { this.changed = changed; }
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public OffsetDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(OffsetDateTime startedAt) { this.startedAt = startedAt; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public OffsetDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(OffsetDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -1,29 +1,54 @@
 package com.eduprajna.entity;
 
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import com.eduprajna.converter.JsonMapConverter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
 
 @Entity
-@Table(name = "product")
+@Table(name = "product",
+    indexes = {
+        // Keyset pagination: (is_active, sort column, id) so every page is an index range scan
+        @Index(name = "idx_product_active_price", columnList = "isActive, price, id"),
+        @Index(name = "idx_product_active_name", columnList = "isActive, name, id"),
+        @Index(name = "idx_product_active_rating", columnList = "isActive, average_rating, id"),
+        // Filters on the case-folded key columns (see updateFilterKeys)
+        @Index(name = "idx_product_filter_keys", columnList = "isActive, type_key, category_key, subcategory_key"),
+        @Index(name = "idx_product_category_keys", columnList = "isActive, category_key, subcategory_key"),
+        // Delta sync: rows changed since a client's version, in version order
+        @Index(name = "idx_product_change_version", columnList = "change_version, id")
+    }
+)
 public class Product {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -199,6 +224,96 @@ public class Product {
     
     @Column(name = "price_ranges", columnDefinition = "TEXT")
     private String priceRanges; // JSON array of price ranges ["INR 10 - INR 300"]
+
+    // Average of active review ratings, maintained by ProductReviewService (used for rating sort)
+    @Column(name = "average_rating")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double averageRating;
+
+    // Review aggregates over active reviews: rating sum, count and per-star counts. Changed only
+    // by the atomic increments in ProductReviewService (and the review-aggregates recount), never
+    // from the entity, so a concurrent product save cannot lose a review. Null until counted
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long ratingSum;
+
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer ratingCount;
+
+    @Column(name = "rating_1", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer rating1;
+
+    @Column(name = "rating_2", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer rating2;
+
+    @Column(name = "rating_3", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer rating3;
+
+    @Column(name = "rating_4", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer rating4;
+
+    @Column(name = "rating_5", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer rating5;
+
+    // Catalog-wide version of the last committed change to this row, with its time. Stamped by
+    // CatalogChangeService just before commit; never written from the entity, so a stale
+    // managed copy cannot roll it back
+    @Column(name = "change_version", insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long changeVersion;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private OffsetDateTime updatedAt;
+
+    // ProductMetadataEnricher output version stored in metadata; older rows are re-materialized
+    @Column(name = "read_model_version")
+    @JsonIgnore
+    private Integer readModelVersion;
+
+    // Canonical listing audiences (dog, cat, pharmacy, outlet, own type), computed on save by
+    // ProductAudienceClassifier; replace rather than modify, the collection is lazy
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "product_audience", joinColumns = @JoinColumn(name = "product_id"),
+            indexes = @Index(name = "idx_product_audience", columnList = "audience, product_id"))
+    @Column(name = "audience", length = 50, nullable = false)
+    @JsonIgnore
+    private Set<String> audiences = new HashSet<>();
+
+    // Trimmed, lower-cased copies of type/category/subcategory, kept by updateFilterKeys() so
+    // repository filters compare plain indexed columns instead of LOWER(column)
+    @Column(name = "type_key", length = 50)
+    @JsonIgnore
+    private String typeKey;
+
+    @Column(name = "category_key", length = 100)
+    @JsonIgnore
+    private String categoryKey;
+
+    @Column(name = "subcategory_key", length = 100)
+    @JsonIgnore
+    private String subcategoryKey;
+
+    @PrePersist
+    @PreUpdate
+    public void updateFilterKeys() {
+        this.typeKey = filterKey(type);
+        this.categoryKey = filterKey(category);
+        this.subcategoryKey = filterKey(subcategory);
+    }
+
+    /** Key column value for a filter value: trimmed and lower-cased, null when blank. */
+    public static String filterKey(String value) {
+        if (value == null) return null;
+        String key = value.trim().toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
     
     public String getFoodType() {
         return foodType;
@@ -831,4 +946,56 @@ public class Product {
     public void setPriceRanges(String priceRanges) {
         this.priceRanges = priceRanges;
     }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+    
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public Integer getRatingCount() {
+        return ratingCount;
+    }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Integer getReadModelVersion() {
+        return readModelVersion;
+    }
+
+    public void setReadModelVersion(Integer readModelVersion) {
+        this.readModelVersion = readModelVersion;
+    }
+
+    public String getTypeKey() {
+        return typeKey;
+    }
+
+    public String getCategoryKey() {
+        return categoryKey;
+    }
+
+    public String getSubcategoryKey() {
+        return subcategoryKey;
+    }
+
+    public Set<String> getAudiences() {
+        return audiences;
+    }
+
+    public void setAudiences(Set<String> audiences) {
+        this.audiences = audiences;
+    }
 }
\ No newline at end of file
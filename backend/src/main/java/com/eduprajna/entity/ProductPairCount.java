@@ -0,0 +1,79 @@
+package com.eduprajna.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One non-zero cell of the product co-occurrence matrix: the number of orders that contained
+ * both products. Stored in both directions, so a product's row is a single index range
+ * (RelatedProductService).
+ */
+@Entity
+@IdClass(ProductPairCount.Key.class)
+@Table(name = "product_co_occurrence",
+    indexes = @Index(name = "idx_product_co_occurrence_rank", columnList = "product_id, orders")
+)
+public class ProductPairCount {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "other_id")
+    private Long otherId;
+
+    @Column(nullable = false)
+    private Integer orders = 0;
+
+    public ProductPairCount() {}
+
+    public ProductPairCount(Long productId, Long otherId, Integer orders) {
+        this.productId = productId;
+        this.otherId = otherId;
+        this.orders = orders;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public Long getOtherId() { return otherId; }
+    public void setOtherId(Long otherId) { this.otherId = otherId; }
+    public Integer getOrders() { return orders; }
+    public void setOrders(Integer orders) { this.orders = orders; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long productId;
+        private Long otherId;
+
+        public Key() {}
+
+        public Key(Long productId, Long otherId) {
+            this.productId = productId;
+            this.otherId = otherId;
+        }
+
+        public Long getProductId() { return productId; }
+        public Long getOtherId() { return otherId; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(productId, k.productId) && Objects.equals(otherId, k.otherId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, otherId);
+        }
+    }
+}
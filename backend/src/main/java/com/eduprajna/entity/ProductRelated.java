@@ -0,0 +1,41 @@
+package com.eduprajna.entity;
+
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A product's top co-purchased products, strongest first, as "id:orders" pairs separated by
+ * commas; read whole into RelatedProductService's cache.
+ */
+@Entity
+@Table(name = "product_related")
+public class ProductRelated {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false, length = 1000)
+    private String related;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt = OffsetDateTime.now();
+
+    public ProductRelated() {}
+
+    public ProductRelated(Long productId, String related) {
+        this.productId = productId;
+        this.related = related;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public String getRelated() { return related; }
+    public void setRelated(String related) { this.related = related; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
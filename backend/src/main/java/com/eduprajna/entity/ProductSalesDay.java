@@ -0,0 +1,79 @@
+package com.eduprajna.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Units of one product sold on one day. Only the days of the longest rolling window are kept
+ * (BestSellerService); older rows are pruned once a day.
+ */
+@Entity
+@IdClass(ProductSalesDay.Key.class)
+@Table(name = "product_sales_day",
+    indexes = @Index(name = "idx_product_sales_day_day", columnList = "sales_day")
+)
+public class ProductSalesDay {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "sales_day")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Long units = 0L;
+
+    public ProductSalesDay() {}
+
+    public ProductSalesDay(Long productId, LocalDate day, Long units) {
+        this.productId = productId;
+        this.day = day;
+        this.units = units;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    public Long getUnits() { return units; }
+    public void setUnits(Long units) { this.units = units; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long productId;
+        private LocalDate day;
+
+        public Key() {}
+
+        public Key(Long productId, LocalDate day) {
+            this.productId = productId;
+            this.day = day;
+        }
+
+        public Long getProductId() { return productId; }
+        public LocalDate getDay() { return day; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(productId, k.productId) && Objects.equals(day, k.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, day);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.eduprajna.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One purchasable variant (size/weight) of a product, with its own price and stock.
+ * Admins still author variants in Product.metadata["variants"]; ProductVariantService
+ * copies them here on every product save. Stock is read and decremented on this row, and
+ * overlaid back onto the metadata when products are loaded through ProductService.
+ */
+@Entity
+@Table(name = "product_variant",
+    uniqueConstraints = @UniqueConstraint(name = "uk_product_variant", columnNames = { "product_id", "variant_id" })
+)
+public class ProductVariant {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    // Read-only view of the FK so rows can be grouped without initializing the product proxy
+    @Column(name = "product_id", insertable = false, updatable = false)
+    private Long productId;
+
+    @Column(name = "variant_id", nullable = false, length = 100)
+    private String variantId; // matches metadata variants[].id and CartItem.variantId
+
+    @Column(length = 150)
+    private String label;
+
+    private Double price;
+    private Double originalPrice;
+
+    @Column(nullable = false)
+    private Integer stock = 0;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+    public Long getProductId() { return productId; }
+    public String getVariantId() { return variantId; }
+    public void setVariantId(String variantId) { this.variantId = variantId; }
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+    public Double getOriginalPrice() { return originalPrice; }
+    public void setOriginalPrice(Double originalPrice) { this.originalPrice = originalPrice; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
@@ -0,0 +1,29 @@
+package com.eduprajna.event;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.eduprajna.service.CatalogSnapshot;
+
+/**
+ * Published on the catalog-snapshot thread right after a new snapshot is swapped in, so
+ * derived in-memory indexes can follow it without going back to the database.
+ * Listeners run in publication order; they must not block for long.
+ */
+public class CatalogSnapshotPublishedEvent {
+
+    private final CatalogSnapshot snapshot;
+    private final Set<Long> changedIds; // null after a full reload
+
+    public CatalogSnapshotPublishedEvent(CatalogSnapshot snapshot, Set<Long> changedIds) {
+        this.snapshot = snapshot;
+        this.changedIds = changedIds == null ? null : Collections.unmodifiableSet(changedIds);
+    }
+
+    public CatalogSnapshot getSnapshot() { return snapshot; }
+
+    /** Ids that were upserted or removed; look each one up in the snapshot to tell which. */
+    public Set<Long> getChangedIds() { return changedIds; }
+
+    public boolean isFullReload() { return changedIds == null; }
+}
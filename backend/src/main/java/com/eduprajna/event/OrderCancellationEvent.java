@@ -0,0 +1,35 @@
+package com.eduprajna.event;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import com.eduprajna.entity.Order;
+
+/**
+ * Published when an order's status moves to "cancelled", or back out of it.
+ * Listeners use @TransactionalEventListener so they only observe committed state.
+ */
+public class OrderCancellationEvent {
+
+    private final Long orderId;
+    private final OffsetDateTime placedAt;
+    private final boolean cancelled;        // false: a cancelled order was reinstated
+    private final Map<Long, Integer> units; // product id -> quantity ordered
+
+    public OrderCancellationEvent(Long orderId, OffsetDateTime placedAt, boolean cancelled, Map<Long, Integer> units) {
+        this.orderId = orderId;
+        this.placedAt = placedAt;
+        this.cancelled = cancelled;
+        this.units = units;
+    }
+
+    public static OrderCancellationEvent of(Order order, boolean cancelled) {
+        return new OrderCancellationEvent(order.getId(), order.getCreatedAt(), cancelled,
+                OrderPlacedEvent.of(order).getUnits());
+    }
+
+    public Long getOrderId() { return orderId; }
+    public OffsetDateTime getPlacedAt() { return placedAt; }
+    public boolean isCancelled() { return cancelled; }
+    public Map<Long, Integer> getUnits() { return units; }
+}
@@ -0,0 +1,41 @@
+package com.eduprajna.event;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.eduprajna.entity.Order;
+import com.eduprajna.entity.OrderItem;
+
+/**
+ * Published when an order and its items are written.
+ * Listeners use @TransactionalEventListener so they only observe committed state.
+ */
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+    private final Map<Long, Integer> units; // product id -> quantity ordered
+
+    public OrderPlacedEvent(Long orderId) {
+        this(orderId, Map.of());
+    }
+
+    public OrderPlacedEvent(Long orderId, Map<Long, Integer> units) {
+        this.orderId = orderId;
+        this.units = Collections.unmodifiableMap(units);
+    }
+
+    public static OrderPlacedEvent of(Order order) {
+        Map<Long, Integer> units = new LinkedHashMap<>();
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                if (item.getProduct() == null || item.getProduct().getId() == null || item.getQuantity() == null) continue;
+                units.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return new OrderPlacedEvent(order.getId(), units);
+    }
+
+    public Long getOrderId() { return orderId; }
+    public Map<Long, Integer> getUnits() { return units; }
+}
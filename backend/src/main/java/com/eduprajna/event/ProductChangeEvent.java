@@ -0,0 +1,34 @@
+package com.eduprajna.event;
+
+import com.eduprajna.entity.Product;
+
+/**
+ * Published whenever a product row is written or removed.
+ * Listeners use @TransactionalEventListener so they only observe committed state.
+ */
+public class ProductChangeEvent {
+
+    public enum Kind { UPSERTED, DELETED }
+
+    private final Kind kind;
+    private final Long productId;
+    private final Product product; // null for DELETED
+
+    private ProductChangeEvent(Kind kind, Long productId, Product product) {
+        this.kind = kind;
+        this.productId = productId;
+        this.product = product;
+    }
+
+    public static ProductChangeEvent upserted(Product product) {
+        return new ProductChangeEvent(Kind.UPSERTED, product.getId(), product);
+    }
+
+    public static ProductChangeEvent deleted(Long productId) {
+        return new ProductChangeEvent(Kind.DELETED, productId, null);
+    }
+
+    public Kind getKind() { return kind; }
+    public Long getProductId() { return productId; }
+    public Product getProduct() { return product; }
+}
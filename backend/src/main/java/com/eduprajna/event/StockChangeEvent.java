@@ -0,0 +1,23 @@
+package com.eduprajna.event;
+
+/**
+ * Published when stock changes without the product row being rewritten: an order's decrement
+ * or a bulk variant update. variantId is null for the product-level stock quantity.
+ * Listeners use @TransactionalEventListener so they only observe committed state.
+ */
+public class StockChangeEvent {
+
+    private final Long productId;
+    private final String variantId;
+    private final Integer stock;
+
+    public StockChangeEvent(Long productId, String variantId, Integer stock) {
+        this.productId = productId;
+        this.variantId = variantId;
+        this.stock = stock;
+    }
+
+    public Long getProductId() { return productId; }
+    public String getVariantId() { return variantId; }
+    public Integer getStock() { return stock; }
+}
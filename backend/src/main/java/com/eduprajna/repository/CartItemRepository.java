@@ -3,8 +3,11 @@ package com.eduprajna.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.eduprajna.entity.CartItem;
@@ -23,6 +26,8 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Transactional
     void deleteByProduct(Product product);
-}
-
 
+    // Keyset walk by id, for chunked maintenance jobs
+    @Query("SELECT i FROM CartItem i WHERE i.id > :afterId ORDER BY i.id")
+    List<CartItem> findAfterId(@Param("afterId") Long afterId, Pageable page);
+}
@@ -0,0 +1,34 @@
+package com.eduprajna.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.CatalogChange;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    @Query("SELECT c FROM CatalogChange c WHERE c.version > :after ORDER BY c.version")
+    List<CatalogChange> findAfter(@Param("after") long after, Pageable page);
+
+    @Query("SELECT MAX(c.version) FROM CatalogChange c WHERE c.createdAt < :before")
+    Long findMaxVersionBefore(@Param("before") OffsetDateTime before);
+
+    @Query("SELECT MIN(c.version) FROM CatalogChange c")
+    Long findMinVersion();
+
+    // Continues the version sequence of an existing catalog (the next insert is above it)
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change (version, created_at) VALUES (:version, :now)", nativeQuery = true)
+    int insertVersion(@Param("version") long version, @Param("now") OffsetDateTime now);
+
+    // Old rows below the watermark are only needed to detect gaps, which they no longer have
+    @Modifying
+    @Query("DELETE FROM CatalogChange c WHERE c.version < :below AND c.createdAt < :before")
+    int prune(@Param("below") long below, @Param("before") OffsetDateTime before);
+}
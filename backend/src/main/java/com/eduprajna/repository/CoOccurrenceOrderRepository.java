@@ -0,0 +1,16 @@
+package com.eduprajna.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.CoOccurrenceOrder;
+
+public interface CoOccurrenceOrderRepository extends JpaRepository<CoOccurrenceOrder, Long> {
+
+    @Query("SELECT o.orderId FROM CoOccurrenceOrder o WHERE o.orderId IN :orderIds")
+    List<Long> findCounted(@Param("orderIds") Collection<Long> orderIds);
+}
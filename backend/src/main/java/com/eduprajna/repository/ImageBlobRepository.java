@@ -0,0 +1,55 @@
+package com.eduprajna.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.ImageBlob;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, Long> {
+
+    List<ImageBlob> findByContentHashIn(Collection<String> contentHashes);
+
+    boolean existsByUrl(String url);
+
+    // Atomic reference count change for every blob stored at one of the URLs, clamped at zero;
+    // URLs that are not indexed (external or pre-index images) are not matched
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = CASE WHEN b.refCount + :delta > 0 THEN b.refCount + :delta ELSE 0 END " +
+           "WHERE b.url IN :urls")
+    int adjustRefCount(@Param("urls") Collection<String> urls, @Param("delta") int delta);
+
+    // Reference count decrement that also restarts the grace period before reclaiming
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = CASE WHEN b.refCount > 1 THEN b.refCount - 1 ELSE 0 END, " +
+           "b.reclaimableAt = :reclaimableAt WHERE b.url IN :urls")
+    int release(@Param("urls") Collection<String> urls, @Param("reclaimableAt") OffsetDateTime reclaimableAt);
+
+    // Keeps the blobs with these content hashes from being reclaimed before :until
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.reclaimableAt = :until " +
+           "WHERE b.contentHash IN :hashes AND (b.reclaimableAt IS NULL OR b.reclaimableAt < :until)")
+    int pin(@Param("hashes") Collection<String> hashes, @Param("until") OffsetDateTime until);
+
+    // Read with a lock so rows another transaction just removed are not seen from an old snapshot
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    List<ImageBlob> findByUrlIn(Collection<String> urls);
+
+    // Unreferenced blobs past their grace period, locked for reclaiming; rows another
+    // transaction holds (e.g. a product save taking a reference) are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM ImageBlob b WHERE b.refCount = 0 AND b.reclaimableAt <= :now ORDER BY b.reclaimableAt")
+    List<ImageBlob> findReclaimableForUpdate(@Param("now") OffsetDateTime now, Pageable page);
+}
@@ -0,0 +1,34 @@
+package com.eduprajna.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.ImageDeletion;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+
+    // Due rows locked for claiming; rows another instance has locked are skipped
+    // (lock timeout -2 is Hibernate's SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM ImageDeletion d WHERE d.status = 'PENDING' AND d.nextAttemptAt <= :now " +
+           "ORDER BY d.nextAttemptAt")
+    List<ImageDeletion> findDueForUpdate(@Param("now") OffsetDateTime now, Pageable page);
+
+    long countByStatus(String status);
+
+    // Locking read, so deletions committed after this transaction's snapshot are seen
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    List<ImageDeletion> findByUrlIn(Collection<String> urls);
+}
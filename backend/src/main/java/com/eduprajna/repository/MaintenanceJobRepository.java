@@ -0,0 +1,17 @@
+package com.eduprajna.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.eduprajna.entity.MaintenanceJob;
+
+public interface MaintenanceJobRepository extends JpaRepository<MaintenanceJob, Long> {
+
+    List<MaintenanceJob> findByStatusInOrderById(Collection<String> statuses);
+
+    List<MaintenanceJob> findByTypeAndStatusIn(String type, Collection<String> statuses);
+
+    List<MaintenanceJob> findTop50ByOrderByIdDesc();
+}
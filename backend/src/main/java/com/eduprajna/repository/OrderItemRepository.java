@@ -1,9 +1,14 @@
 package com.eduprajna.repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,4 +44,23 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Modifying
     @Transactional
     void deleteByProduct(Product product);
+
+    // Keyset walk by id, for chunked maintenance jobs
+    @Query("SELECT i FROM OrderItem i WHERE i.id > :afterId ORDER BY i.id")
+    List<OrderItem> findAfterId(@Param("afterId") Long afterId, Pageable page);
+
+    // (order id, product id) pairs of the given orders, cancelled orders left out
+    @Query("SELECT i.order.id, i.product.id FROM OrderItem i WHERE i.order.id IN :orderIds " +
+           "AND i.order.status <> 'cancelled'")
+    List<Object[]> findOrderProductIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Units sold per product in orders up to maxOrderId, cancelled orders left out
+    @Query("SELECT i.product.id, SUM(i.quantity) FROM OrderItem i WHERE i.order.id <= :maxOrderId " +
+           "AND i.order.status <> 'cancelled' GROUP BY i.product.id")
+    List<Object[]> sumUnitsByProduct(@Param("maxOrderId") Long maxOrderId);
+
+    // (product id, order time, quantity) of items ordered since a time, up to maxOrderId
+    @Query("SELECT i.product.id, i.order.createdAt, i.quantity FROM OrderItem i WHERE i.order.id <= :maxOrderId " +
+           "AND i.order.createdAt >= :since AND i.order.status <> 'cancelled'")
+    List<Object[]> findUnitsSince(@Param("maxOrderId") Long maxOrderId, @Param("since") OffsetDateTime since);
 }
@@ -2,6 +2,7 @@ package com.eduprajna.repository;
 
 import com.eduprajna.entity.Order;
 import com.eduprajna.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -83,6 +84,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     @Query("SELECT o FROM Order o JOIN o.items oi WHERE o.user = :user AND o.status = :status AND oi.product = :product ORDER BY o.createdAt DESC")
     java.util.Optional<Order> findFirstByUserAndStatusAndItemsProductOrderByCreatedAtDesc(@Param("user") User user, @Param("status") String status, @Param("product") com.eduprajna.entity.Product product);
-}
 
+    // Keyset walk over order ids, for chunked maintenance jobs
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable page);
 
+    @Query("SELECT MAX(o.id) FROM Order o")
+    Long findMaxId();
+}
@@ -0,0 +1,25 @@
+package com.eduprajna.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.ProductPairCount;
+
+public interface ProductPairCountRepository extends JpaRepository<ProductPairCount, ProductPairCount.Key> {
+
+    // Existing cells among a set of products, to increment in place
+    @Query("SELECT c FROM ProductPairCount c WHERE c.productId IN :ids AND c.otherId IN :ids")
+    List<ProductPairCount> findAmong(@Param("ids") Collection<Long> ids);
+
+    // A product's strongest neighbours: one range of idx_product_co_occurrence_rank
+    @Query("SELECT c FROM ProductPairCount c WHERE c.productId = :productId ORDER BY c.orders DESC, c.otherId")
+    List<ProductPairCount> findStrongest(@Param("productId") Long productId, Pageable page);
+
+    @Query("SELECT DISTINCT c.productId FROM ProductPairCount c WHERE c.productId > :afterId ORDER BY c.productId")
+    List<Long> findProductIdsAfter(@Param("afterId") Long afterId, Pageable page);
+}
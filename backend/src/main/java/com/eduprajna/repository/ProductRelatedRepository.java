@@ -0,0 +1,16 @@
+package com.eduprajna.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.eduprajna.entity.ProductRelated;
+
+public interface ProductRelatedRepository extends JpaRepository<ProductRelated, Long> {
+
+    // Rows of products that no longer co-occur with anything (after a rebuild)
+    @Modifying
+    @Query("DELETE FROM ProductRelated r WHERE NOT EXISTS " +
+           "(SELECT c.productId FROM ProductPairCount c WHERE c.productId = r.productId)")
+    int deleteOrphans();
+}
@@ -1,60 +1,253 @@
 package com.eduprajna.repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.eduprajna.dto.ProductCardDTO;
 import com.eduprajna.entity.Product;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
-    // Find products by category (case insensitive, partial match)
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND LOWER(p.category) LIKE LOWER(CONCAT('%', :category, '%'))")
-    List<Product> findByCategory(@Param("category") String category);
+    // Filters compare the lower-cased key columns (Product.filterKey) so they can use
+    // idx_product_filter_keys / idx_product_category_keys. Partial ("contains") matches are
+    // resolved to the matching key values first (find*KeysContaining, a scan over the few
+    // distinct keys in the index) and then looked up with IN.
+
+    @Query("SELECT DISTINCT p.categoryKey FROM Product p WHERE p.isActive = true AND " +
+           "p.categoryKey LIKE CONCAT('%', :term, '%')")
+    List<String> findCategoryKeysContaining(@Param("term") String term);
+
+    @Query("SELECT DISTINCT p.subcategoryKey FROM Product p WHERE p.isActive = true AND " +
+           "p.subcategoryKey LIKE CONCAT('%', :term, '%')")
+    List<String> findSubcategoryKeysContaining(@Param("term") String term);
+
+    // Find products by category (partial match, resolved to category keys)
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.categoryKey IN :categories")
+    List<Product> findByCategory(@Param("categories") Collection<String> categories);
     
-    // Find products by subcategory (case insensitive, partial match)
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND LOWER(p.subcategory) LIKE LOWER(CONCAT('%', :subcategory, '%'))")
-    List<Product> findBySubcategory(@Param("subcategory") String subcategory);
+    // Find products by subcategory (partial match, resolved to subcategory keys)
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.subcategoryKey IN :subcategories")
+    List<Product> findBySubcategory(@Param("subcategories") Collection<String> subcategories);
     
-    // Find products by both category and subcategory (partial match)
+    // Find products by both category and subcategory (partial match, resolved to keys)
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-           "LOWER(p.category) LIKE LOWER(CONCAT('%', :category, '%')) AND " +
-           "LOWER(p.subcategory) LIKE LOWER(CONCAT('%', :subcategory, '%'))")
-    List<Product> findByCategoryAndSubcategory(@Param("category") String category, @Param("subcategory") String subcategory);
+           "p.categoryKey IN :categories AND p.subcategoryKey IN :subcategories")
+    List<Product> findByCategoryAndSubcategory(@Param("categories") Collection<String> categories,
+            @Param("subcategories") Collection<String> subcategories);
     
-    // Find products by exact category match (case insensitive)
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND LOWER(p.category) = LOWER(:category)")
+    // Find products by exact category match (category key)
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.categoryKey = :category")
     List<Product> findByExactCategory(@Param("category") String category);
     
-    // Find products by exact subcategory match (case insensitive)
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND LOWER(p.subcategory) = LOWER(:subcategory)")
+    // Find products by exact subcategory match (subcategory key)
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.subcategoryKey = :subcategory")
     List<Product> findByExactSubcategory(@Param("subcategory") String subcategory);
     
-    // Find products by exact category and subcategory match (case insensitive)
+    // Find products by exact category and subcategory match (keys)
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-           "LOWER(p.category) = LOWER(:category) AND " +
-           "LOWER(p.subcategory) = LOWER(:subcategory)")
+           "p.categoryKey = :category AND p.subcategoryKey = :subcategory")
     List<Product> findByExactCategoryAndSubcategory(@Param("category") String category, @Param("subcategory") String subcategory);
     
     // Find only active products
     @Query("SELECT p FROM Product p WHERE p.isActive = true")
     List<Product> findAllActive();
+
+    // Keyset walk over active products by id, for chunked maintenance jobs
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id")
+    List<Product> findActiveAfterId(@Param("afterId") Long afterId, Pageable page);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    long countActive();
+
+    // Delta sync (CatalogChangeService): rows changed after the (version, id) cursor and no
+    // later than the committed watermark, in version order; inactive rows included
+    @Query("SELECT p FROM Product p WHERE (p.changeVersion > :since OR (p.changeVersion = :since AND p.id > :afterId)) " +
+           "AND p.changeVersion <= :upTo ORDER BY p.changeVersion, p.id")
+    List<Product> findChangedSince(@Param("since") long since, @Param("afterId") long afterId,
+            @Param("upTo") long upTo, Pageable page);
+
+    // First half of a change stamp: sets updated_at and takes the rows' locks before the
+    // version is drawn, so a product's versions follow the order its changes commit in
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.id IN :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.changeVersion = :version WHERE p.id IN :ids")
+    int stampVersion(@Param("ids") Collection<Long> ids, @Param("version") long version);
+
+    boolean existsByChangeVersionIsNull();
+
+    @Query("SELECT MAX(p.changeVersion) FROM Product p")
+    Optional<Long> findMaxChangeVersion();
+
+    // Rows written before versioning, or by paths that published no change event
+    @Modifying
+    @Query("UPDATE Product p SET p.changeVersion = :version, p.updatedAt = :now WHERE p.changeVersion IS NULL")
+    int stampUnversioned(@Param("version") long version, @Param("now") OffsetDateTime now);
+
+    // Review aggregates (ProductReviewService): one atomic increment per review created (+1) or
+    // deactivated (-1); rows not counted yet start from zero
+    @Modifying
+    @Query("UPDATE Product p SET p.ratingCount = COALESCE(p.ratingCount, 0) + :delta, " +
+           "p.ratingSum = COALESCE(p.ratingSum, 0) + :delta * :rating, " +
+           "p.rating1 = COALESCE(p.rating1, 0) + CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+           "p.rating2 = COALESCE(p.rating2, 0) + CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+           "p.rating3 = COALESCE(p.rating3, 0) + CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+           "p.rating4 = COALESCE(p.rating4, 0) + CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+           "p.rating5 = COALESCE(p.rating5, 0) + CASE WHEN :rating = 5 THEN :delta ELSE 0 END " +
+           "WHERE p.id = :id")
+    int addRating(@Param("id") Long id, @Param("rating") int rating, @Param("delta") int delta);
+
+    // (sum, count, 1-star ... 5-star) of a product; empty when the product does not exist
+    @Query("SELECT p.ratingSum, p.ratingCount, p.rating1, p.rating2, p.rating3, p.rating4, p.rating5 " +
+           "FROM Product p WHERE p.id = :id")
+    List<Object[]> findRatingAggregate(@Param("id") Long id);
+
+    // (id, sum, count, 1-star ... 5-star) of the given products
+    @Query("SELECT p.id, p.ratingSum, p.ratingCount, p.rating1, p.rating2, p.rating3, p.rating4, p.rating5 " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findRatingAggregates(@Param("ids") Collection<Long> ids);
+
+    // Review aggregates recounted from the active reviews (review-aggregates maintenance job);
+    // average_rating and the metadata copies are refreshed by the job from the new counts
+    @Modifying
+    @Query("UPDATE Product p SET " +
+           "p.ratingCount = (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p AND r.isActive = true), " +
+           "p.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM ProductReview r WHERE r.product = p AND r.isActive = true), " +
+           "p.rating1 = (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p AND r.isActive = true AND r.rating = 1), " +
+           "p.rating2 = (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p AND r.isActive = true AND r.rating = 2), " +
+           "p.rating3 = (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p AND r.isActive = true AND r.rating = 3), " +
+           "p.rating4 = (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p AND r.isActive = true AND r.rating = 4), " +
+           "p.rating5 = (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p AND r.isActive = true AND r.rating = 5) " +
+           "WHERE p.id IN :ids")
+    int recountRatings(@Param("ids") Collection<Long> ids);
+
+    // Keyset walk over all product ids (active or not), for chunked maintenance jobs
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    // Rows whose stored metadata predates the current ProductMetadataEnricher output
+    @Query("SELECT p.id FROM Product p WHERE p.readModelVersion IS NULL OR p.readModelVersion < :version")
+    List<Long> findIdsWithReadModelBefore(@Param("version") int version);
     
-    // Type-based filtering methods
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND LOWER(p.type) = LOWER(:type)")
+    // Type filter as one lookup on the product_audience index (see ProductAudienceClassifier)
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+           "LOWER(:audience) MEMBER OF p.audiences AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories)")
+    List<Product> findByAudience(@Param("audience") String audience,
+            @Param("anyCategory") boolean anyCategory, @Param("categories") Collection<String> categories,
+            @Param("anySubcategory") boolean anySubcategory, @Param("subcategories") Collection<String> subcategories);
+
+    // Strict type match on the type key (listings filter by audience instead)
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.typeKey = :type")
     List<Product> findByType(@Param("type") String type);
     
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-           "LOWER(p.type) = LOWER(:type) AND " +
-           "LOWER(p.category) LIKE LOWER(CONCAT('%', :category, '%'))")
-    List<Product> findByTypeAndCategory(@Param("type") String type, @Param("category") String category);
+           "p.typeKey = :type AND p.categoryKey IN :categories")
+    List<Product> findByTypeAndCategory(@Param("type") String type, @Param("categories") Collection<String> categories);
     
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-           "LOWER(p.type) = LOWER(:type) AND " +
-           "LOWER(p.category) LIKE LOWER(CONCAT('%', :category, '%')) AND " +
-           "LOWER(p.subcategory) LIKE LOWER(CONCAT('%', :subcategory, '%'))")
-    List<Product> findByTypeAndCategoryAndSubcategory(@Param("type") String type, @Param("category") String category, @Param("subcategory") String subcategory);
+           "p.typeKey = :type AND p.categoryKey IN :categories AND p.subcategoryKey IN :subcategories")
+    List<Product> findByTypeAndCategoryAndSubcategory(@Param("type") String type,
+            @Param("categories") Collection<String> categories, @Param("subcategories") Collection<String> subcategories);
+
+    // Keyset (cursor) pagination. Each query walks one of the (isActive, sort column, id) indexes
+    // starting right after the last row of the previous page, so every page costs the same.
+    // Pass lastId = null for the first page and a Pageable of (0, pageSize) to bound the read.
+    // Nulls sort first ascending and last descending, as MySQL orders them.
+
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+           "(:inStockOnly = false OR p.inStock = true) AND " +
+           "(:type IS NULL OR LOWER(:type) MEMBER OF p.audiences) AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories) AND " +
+           "(:lastId IS NULL OR " +
+           "(:lastPrice IS NULL AND ((p.price IS NULL AND p.id > :lastId) OR p.price IS NOT NULL)) OR " +
+           "(:lastPrice IS NOT NULL AND (p.price > :lastPrice OR (p.price = :lastPrice AND p.id > :lastId)))) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findPageByPriceAsc(@Param("type") String type, @Param("anyCategory") boolean anyCategory,
+            @Param("categories") Collection<String> categories, @Param("anySubcategory") boolean anySubcategory,
+            @Param("subcategories") Collection<String> subcategories, @Param("inStockOnly") boolean inStockOnly,
+            @Param("lastPrice") Double lastPrice, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+           "(:inStockOnly = false OR p.inStock = true) AND " +
+           "(:type IS NULL OR LOWER(:type) MEMBER OF p.audiences) AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories) AND " +
+           "(:lastId IS NULL OR " +
+           "(:lastPrice IS NULL AND p.price IS NULL AND p.id < :lastId) OR " +
+           "(:lastPrice IS NOT NULL AND (p.price < :lastPrice OR (p.price = :lastPrice AND p.id < :lastId) OR p.price IS NULL))) " +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<Product> findPageByPriceDesc(@Param("type") String type, @Param("anyCategory") boolean anyCategory,
+            @Param("categories") Collection<String> categories, @Param("anySubcategory") boolean anySubcategory,
+            @Param("subcategories") Collection<String> subcategories, @Param("inStockOnly") boolean inStockOnly,
+            @Param("lastPrice") Double lastPrice, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+           "(:inStockOnly = false OR p.inStock = true) AND " +
+           "(:type IS NULL OR LOWER(:type) MEMBER OF p.audiences) AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories) AND " +
+           "(:lastId IS NULL OR " +
+           "(:lastRating IS NULL AND p.averageRating IS NULL AND p.id < :lastId) OR " +
+           "(:lastRating IS NOT NULL AND (p.averageRating < :lastRating OR (p.averageRating = :lastRating AND p.id < :lastId) OR p.averageRating IS NULL))) " +
+           "ORDER BY p.averageRating DESC, p.id DESC")
+    List<Product> findPageByRating(@Param("type") String type, @Param("anyCategory") boolean anyCategory,
+            @Param("categories") Collection<String> categories, @Param("anySubcategory") boolean anySubcategory,
+            @Param("subcategories") Collection<String> subcategories, @Param("inStockOnly") boolean inStockOnly,
+            @Param("lastRating") Double lastRating, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+           "(:inStockOnly = false OR p.inStock = true) AND " +
+           "(:type IS NULL OR LOWER(:type) MEMBER OF p.audiences) AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories) AND " +
+           "(:lastId IS NULL OR p.name > :lastName OR (p.name = :lastName AND p.id > :lastId)) " +
+           "ORDER BY p.name ASC, p.id ASC")
+    List<Product> findPageByName(@Param("type") String type, @Param("anyCategory") boolean anyCategory,
+            @Param("categories") Collection<String> categories, @Param("anySubcategory") boolean anySubcategory,
+            @Param("subcategories") Collection<String> subcategories, @Param("inStockOnly") boolean inStockOnly,
+            @Param("lastName") String lastName, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+           "(:inStockOnly = false OR p.inStock = true) AND " +
+           "(:type IS NULL OR LOWER(:type) MEMBER OF p.audiences) AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories) AND " +
+           "(:lastId IS NULL OR p.id < :lastId) " +
+           "ORDER BY p.id DESC")
+    List<Product> findPageByNewest(@Param("type") String type, @Param("anyCategory") boolean anyCategory,
+            @Param("categories") Collection<String> categories, @Param("anySubcategory") boolean anySubcategory,
+            @Param("subcategories") Collection<String> subcategories, @Param("inStockOnly") boolean inStockOnly,
+            @Param("lastId") Long lastId, Pageable pageable);
+
+    // Listing cards: only the card columns are selected, no entity or metadata is hydrated.
+    // In stock follows the customer listing rule: any variant row with stock, or main stock
+    // for products without variant rows.
+    @Query("SELECT new com.eduprajna.dto.ProductCardDTO(p.id, p.name, p.price, p.originalPrice, p.imageUrl, " +
+           "p.brand, p.averageRating, " +
+           "CASE WHEN p.inStock = true AND (" +
+           "EXISTS (SELECT v.id FROM ProductVariant v WHERE v.productId = p.id AND v.stock > 0) OR " +
+           "(p.stockQuantity > 0 AND NOT EXISTS (SELECT v2.id FROM ProductVariant v2 WHERE v2.productId = p.id))) " +
+           "THEN true ELSE false END) " +
+           "FROM Product p WHERE p.isActive = true AND " +
+           "(:type IS NULL OR LOWER(:type) MEMBER OF p.audiences) AND " +
+           "(:anyCategory = true OR p.categoryKey IN :categories) AND " +
+           "(:anySubcategory = true OR p.subcategoryKey IN :subcategories) " +
+           "ORDER BY p.id ASC")
+    List<ProductCardDTO> findCards(@Param("type") String type, @Param("anyCategory") boolean anyCategory,
+            @Param("categories") Collection<String> categories, @Param("anySubcategory") boolean anySubcategory,
+            @Param("subcategories") Collection<String> subcategories);
 }
 // CategoryRepository.java, UserRepository.java, OrderRepository.java, OrderItemRepository.java
\ No newline at end of file
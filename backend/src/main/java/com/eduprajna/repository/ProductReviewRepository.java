@@ -1,11 +1,13 @@
 package com.eduprajna.repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -56,4 +58,13 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
            "AND oi.product = :product " +
            "AND oi.order.status = 'delivered'")
     boolean canUserReviewProduct(@Param("user") User user, @Param("product") Product product);
-}
\ No newline at end of file
+
+    // Deactivate only if still active, so concurrent requests deactivate (and uncount) it once
+    @Modifying
+    @Query("UPDATE ProductReview pr SET pr.isActive = false, pr.updatedAt = :now WHERE pr.id = :id AND pr.isActive = true")
+    int deactivate(@Param("id") Long id, @Param("now") OffsetDateTime now);
+
+    // Active reviews whose product's aggregates were never counted (reviews from before them)
+    @Query("SELECT COUNT(pr) > 0 FROM ProductReview pr WHERE pr.isActive = true AND pr.product.ratingCount IS NULL")
+    boolean existsUncountedReview();
+}
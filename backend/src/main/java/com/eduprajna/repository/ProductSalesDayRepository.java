@@ -0,0 +1,21 @@
+package com.eduprajna.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.ProductSalesDay;
+
+public interface ProductSalesDayRepository extends JpaRepository<ProductSalesDay, ProductSalesDay.Key> {
+
+    List<ProductSalesDay> findByDayGreaterThanEqual(LocalDate from);
+
+    // Days that have left the longest rolling window
+    @Modifying
+    @Query("DELETE FROM ProductSalesDay d WHERE d.day < :before")
+    int deleteBefore(@Param("before") LocalDate before);
+}
@@ -0,0 +1,8 @@
+package com.eduprajna.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.eduprajna.entity.ProductSales;
+
+public interface ProductSalesRepository extends JpaRepository<ProductSales, Long> {
+}
@@ -0,0 +1,20 @@
+package com.eduprajna.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eduprajna.entity.ProductTombstone;
+
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    @Query("SELECT t.productId FROM ProductTombstone t WHERE t.changeVersion > :since AND t.changeVersion <= :upTo " +
+           "ORDER BY t.changeVersion, t.productId")
+    List<Long> findDeletedIds(@Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("SELECT MAX(t.changeVersion) FROM ProductTombstone t")
+    Optional<Long> findMaxChangeVersion();
+}
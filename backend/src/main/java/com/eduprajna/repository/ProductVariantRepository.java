@@ -0,0 +1,51 @@
+package com.eduprajna.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduprajna.entity.ProductVariant;
+
+import jakarta.persistence.LockModeType;
+
+public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
+
+    // Single-row lookup on the (product_id, variant_id) unique index
+    @Query("SELECT v FROM ProductVariant v WHERE v.productId = :productId AND v.variantId = :variantId")
+    Optional<ProductVariant> findOne(@Param("productId") Long productId, @Param("variantId") String variantId);
+
+    @Query("SELECT v FROM ProductVariant v WHERE v.productId = :productId")
+    List<ProductVariant> findByProductId(@Param("productId") Long productId);
+
+    @Query("SELECT v FROM ProductVariant v WHERE v.productId IN :productIds")
+    List<ProductVariant> findByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Rows of several products locked for a read-modify-write (bulk updates); concurrent
+    // decrements on these rows wait for the transaction instead of being overwritten
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ProductVariant v WHERE v.productId IN :productIds")
+    List<ProductVariant> findByProductIdInForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    // Stock column only, read from the database rather than a possibly stale managed row
+    @Query("SELECT v.stock FROM ProductVariant v WHERE v.productId = :productId AND v.variantId = :variantId")
+    Integer findStock(@Param("productId") Long productId, @Param("variantId") String variantId);
+
+    // Atomic, single-row decrement clamped at zero; returns 0 when there is no such variant row
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductVariant v SET v.stock = CASE WHEN v.stock > :qty THEN v.stock - :qty ELSE 0 END " +
+           "WHERE v.productId = :productId AND v.variantId = :variantId")
+    int decrementStock(@Param("productId") Long productId, @Param("variantId") String variantId, @Param("qty") int qty);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductVariant v WHERE v.productId = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
+}
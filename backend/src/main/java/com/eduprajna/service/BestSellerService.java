@@ -0,0 +1,456 @@
+package com.eduprajna.service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.dto.ProductCardDTO;
+import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductSales;
+import com.eduprajna.entity.ProductSalesDay;
+import com.eduprajna.event.OrderCancellationEvent;
+import com.eduprajna.event.OrderPlacedEvent;
+import com.eduprajna.repository.OrderItemRepository;
+import com.eduprajna.repository.OrderRepository;
+import com.eduprajna.repository.ProductSalesDayRepository;
+import com.eduprajna.repository.ProductSalesRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Best sellers by units sold, per type and category, over the last 7 or 30 days or all time.
+ *
+ * Placed orders add their units to in-memory LongAdder counters bucketed by day, so
+ * concurrent checkouts never contend on a row or a lock. Cancelled orders do not count:
+ * cancelling one takes its units back off the day it was placed (reinstating it adds them
+ * again), matching the seed, which skips orders cancelled by then. A background flush moves the
+ * counters into product_sales / product_sales_day and rebuilds the rankings: a bounded
+ * min-heap per window and type/category keeps its top K products, stored as ready-made id
+ * lists. A best-seller request is a map lookup plus catalog snapshot reads; nothing is
+ * aggregated per request. On first start the tables are seeded once from the order history.
+ */
+@Service
+public class BestSellerService {
+    private final Logger log = LoggerFactory.getLogger(BestSellerService.class);
+
+    public static final int DEFAULT_LIMIT = 12;
+    private static final int WINDOW_DAYS = 30; // the longest rolling window; older days are pruned
+
+    public enum Window {
+        DAYS_7("7d", 7),
+        DAYS_30("30d", 30),
+        ALL("all", 0);
+
+        private final String param;
+        private final int days;
+
+        Window(String param, int days) {
+            this.param = param;
+            this.days = days;
+        }
+
+        public String getParam() {
+            return param;
+        }
+
+        /**
+         * Resolve the ?window= request parameter; blank means {@link #DAYS_30}.
+         *
+         * @throws IllegalArgumentException for an unknown window
+         */
+        public static Window fromParam(String value) {
+            if (value == null || value.isBlank()) return DAYS_30;
+            String v = value.trim().toLowerCase();
+            for (Window w : values()) {
+                if (w.param.equals(v)) return w;
+            }
+            throw new IllegalArgumentException("Unsupported window: " + value + " (expected 7d, 30d or all)");
+        }
+    }
+
+    // Units counted on one day, not yet flushed
+    private static final class Bucket {
+        final LocalDate day;
+        final ConcurrentHashMap<Long, LongAdder> units = new ConcurrentHashMap<>();
+        int drainsSinceRetired; // worker thread only
+
+        Bucket(LocalDate day) {
+            this.day = day;
+        }
+    }
+
+    private final ProductSalesRepository productSalesRepository;
+    private final ProductSalesDayRepository productSalesDayRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final long flushMs;
+    private final int topK;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private volatile Bucket current;
+    private final ConcurrentLinkedQueue<Bucket> retired = new ConcurrentLinkedQueue<>();
+    // Unit changes for earlier days from cancelled or reinstated orders, not yet flushed
+    private final ConcurrentLinkedQueue<Map.Entry<ProductSalesDay.Key, Long>> corrections = new ConcurrentLinkedQueue<>();
+    private volatile long seededThrough; // orders up to this id are counted by the seed
+    // "<window>/<scope>" -> product ids, best first (see scope())
+    private volatile Map<String, long[]> rankings = Map.of();
+
+    // Flushed counts, touched only on the worker thread
+    private final Map<Long, Long> totals = new HashMap<>();
+    private final TreeMap<LocalDate, Map<Long, Long>> daily = new TreeMap<>();
+    private final Map<ProductSalesDay.Key, Long> unflushed = new HashMap<>();
+    private LocalDate prunedOn;
+    private LocalDate rankedOn;
+    private long rankedSnapshot = -1;
+    private boolean dirty = true;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "best-sellers");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BestSellerService(ProductSalesRepository productSalesRepository,
+            ProductSalesDayRepository productSalesDayRepository, OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository, CatalogSnapshotService catalogSnapshotService,
+            PlatformTransactionManager transactionManager, EntityManager entityManager,
+            @Value("${catalog.best-sellers.flush-ms:30000}") long flushMs,
+            @Value("${catalog.best-sellers.top-k:50}") int topK) {
+        this.productSalesRepository = productSalesRepository;
+        this.productSalesDayRepository = productSalesDayRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.flushMs = Math.max(1000, flushMs);
+        this.topK = Math.max(1, topK);
+        this.current = new Bucket(LocalDate.now(zone));
+    }
+
+    /**
+     * In-stock best sellers over {@code window}, optionally only those listed under a type
+     * (Dog, Cat, ...) and/or category; empty until the first ranking.
+     */
+    public List<ProductCardDTO> bestSellers(String type, String category, Window window, int limit) {
+        String typeKey = ProductAudienceClassifier.key(CatalogAliases.normalize(type));
+        String categoryKey = ProductAudienceClassifier.key(CatalogAliases.normalize(category));
+        long[] ids = rankings.get(window.getParam() + "/" + scope(typeKey, categoryKey));
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (ids == null || snapshot == null) return List.of();
+        List<ProductCardDTO> cards = new ArrayList<>(Math.min(limit, ids.length));
+        for (long id : ids) {
+            if (cards.size() >= limit) break;
+            Product p = snapshot.getById(id);
+            if (p == null || !snapshot.isInStock(id)) continue;
+            cards.add(new ProductCardDTO(p.getId(), p.getName(), p.getPrice(), p.getOriginalPrice(),
+                    p.getImageUrl(), p.getBrand(), p.getAverageRating(), p.getInStock()));
+        }
+        return cards;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.getUnits().isEmpty()) return;
+        if (event.getOrderId() != null && event.getOrderId() <= seededThrough) return;
+        Bucket bucket = bucket(LocalDate.now(zone));
+        event.getUnits().forEach((productId, quantity) -> {
+            if (quantity != null && quantity > 0) {
+                bucket.units.computeIfAbsent(productId, k -> new LongAdder()).add(quantity);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCancellation(OrderCancellationEvent event) {
+        if (event.getUnits().isEmpty() || event.getPlacedAt() == null) return;
+        LocalDate day = event.getPlacedAt().atZoneSameInstant(zone).toLocalDate();
+        long sign = event.isCancelled() ? -1 : 1;
+        event.getUnits().forEach((productId, quantity) -> {
+            if (quantity != null && quantity > 0) {
+                corrections.add(Map.entry(new ProductSalesDay.Key(productId, day), sign * quantity));
+            }
+        });
+    }
+
+    // Today's bucket; the previous day's is retired and drained by the next flushes
+    private Bucket bucket(LocalDate day) {
+        Bucket b = current;
+        if (b.day.equals(day)) return b;
+        synchronized (retired) {
+            b = current;
+            if (!b.day.equals(day)) {
+                retired.add(b);
+                b = new Bucket(day);
+                current = b;
+            }
+            return b;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            // First start: count the existing orders once; later orders come through onOrderPlaced
+            if (productSalesRepository.count() == 0) {
+                Long maxOrderId = orderRepository.findMaxId();
+                if (maxOrderId != null) {
+                    seededThrough = maxOrderId;
+                    worker.execute(() -> seed(maxOrderId));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("BestSellerService: Could not check sales counters: {}", e.getMessage());
+        }
+        worker.execute(this::load);
+        worker.scheduleWithFixedDelay(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void seed(long maxOrderId) {
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate from = LocalDate.now(zone).minusDays(WINDOW_DAYS - 1);
+            Integer seeded = transactionTemplate.execute(status -> {
+                List<Object[]> sums = orderItemRepository.sumUnitsByProduct(maxOrderId);
+                for (Object[] row : sums) {
+                    entityManager.persist(new ProductSales((Long) row[0], ((Number) row[1]).longValue()));
+                }
+                Map<ProductSalesDay.Key, Long> days = new HashMap<>();
+                for (Object[] row : orderItemRepository.findUnitsSince(maxOrderId, from.atStartOfDay(zone).toOffsetDateTime())) {
+                    LocalDate day = ((OffsetDateTime) row[1]).atZoneSameInstant(zone).toLocalDate();
+                    days.merge(new ProductSalesDay.Key((Long) row[0], day), ((Number) row[2]).longValue(), Long::sum);
+                }
+                days.forEach((k, units) -> entityManager.persist(new ProductSalesDay(k.getProductId(), k.getDay(), units)));
+                return sums.size();
+            });
+            log.info("BestSellerService: Seeded sales of {} product(s) from orders up to {} in {} ms", seeded,
+                    maxOrderId, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("BestSellerService: Could not seed sales counters: {}", e.getMessage());
+        }
+    }
+
+    private void load() {
+        try {
+            totals.clear();
+            daily.clear();
+            for (ProductSales row : productSalesRepository.findAll()) totals.put(row.getProductId(), row.getUnits());
+            for (ProductSalesDay row : productSalesDayRepository.findByDayGreaterThanEqual(
+                    LocalDate.now(zone).minusDays(WINDOW_DAYS - 1))) {
+                daily.computeIfAbsent(row.getDay(), k -> new HashMap<>()).put(row.getProductId(), row.getUnits());
+            }
+            dirty = true;
+            rankIfNeeded(LocalDate.now(zone));
+            log.info("BestSellerService: Loaded sales of {} product(s)", totals.size());
+        } catch (Exception e) {
+            log.warn("BestSellerService: Could not load sales counters: {}", e.getMessage());
+        }
+    }
+
+    // Worker thread: counters to the tables and the in-memory counts, then re-rank
+    private void flush() {
+        try {
+            LocalDate today = LocalDate.now(zone);
+            bucket(today);
+            drain(current);
+            // A retired bucket is drained once more a flush later, for adds that raced its retirement
+            for (Iterator<Bucket> it = retired.iterator(); it.hasNext();) {
+                Bucket b = it.next();
+                drain(b);
+                if (++b.drainsSinceRetired >= 2) it.remove();
+            }
+            for (Map.Entry<ProductSalesDay.Key, Long> c; (c = corrections.poll()) != null;) {
+                unflushed.merge(c.getKey(), c.getValue(), Long::sum);
+            }
+            unflushed.values().removeIf(units -> units == 0);
+
+            if (!unflushed.isEmpty()) {
+                // Days out of the window only change the all-time totals
+                LocalDate from = today.minusDays(WINDOW_DAYS - 1);
+                transactionTemplate.executeWithoutResult(status -> write(unflushed, from));
+                unflushed.forEach((k, units) -> {
+                    totals.merge(k.getProductId(), units, (a, b) -> Math.max(0, a + b));
+                    if (!k.getDay().isBefore(from)) {
+                        daily.computeIfAbsent(k.getDay(), d -> new HashMap<>())
+                                .merge(k.getProductId(), units, (a, b) -> Math.max(0, a + b));
+                    }
+                });
+                unflushed.clear();
+                dirty = true;
+            }
+
+            if (!today.equals(prunedOn)) {
+                LocalDate from = today.minusDays(WINDOW_DAYS - 1);
+                transactionTemplate.executeWithoutResult(status -> productSalesDayRepository.deleteBefore(from));
+                daily.headMap(from).clear();
+                prunedOn = today;
+            }
+            rankIfNeeded(today);
+        } catch (Exception e) {
+            // Drained counts stay in unflushed and are written by the next flush
+            log.warn("BestSellerService: Could not flush sales counters: {}", e.getMessage());
+        }
+    }
+
+    private void drain(Bucket bucket) {
+        bucket.units.forEach((productId, adder) -> {
+            long units = adder.sumThenReset();
+            if (units != 0) unflushed.merge(new ProductSalesDay.Key(productId, bucket.day), units, Long::sum);
+        });
+    }
+
+    // Apply unit deltas (negative for cancellations); counts never drop below zero
+    private void write(Map<ProductSalesDay.Key, Long> deltas, LocalDate from) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<Long, Long> byProduct = new HashMap<>();
+        deltas.forEach((k, units) -> byProduct.merge(k.getProductId(), units, Long::sum));
+        for (ProductSales row : productSalesRepository.findAllById(byProduct.keySet())) {
+            row.setUnits(Math.max(0, row.getUnits() + byProduct.remove(row.getProductId())));
+            row.setUpdatedAt(now);
+        }
+        byProduct.forEach((productId, units) -> {
+            if (units > 0) entityManager.persist(new ProductSales(productId, units));
+        });
+
+        Map<ProductSalesDay.Key, Long> days = new HashMap<>(deltas);
+        days.keySet().removeIf(k -> k.getDay().isBefore(from));
+        for (ProductSalesDay row : productSalesDayRepository.findAllById(days.keySet())) {
+            row.setUnits(Math.max(0, row.getUnits() + days.remove(new ProductSalesDay.Key(row.getProductId(), row.getDay()))));
+        }
+        days.forEach((k, units) -> {
+            if (units > 0) entityManager.persist(new ProductSalesDay(k.getProductId(), k.getDay(), units));
+        });
+    }
+
+    // Rankings follow new sales, a new day (windows move) and catalog changes (type, category, deletion)
+    private void rankIfNeeded(LocalDate today) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot == null) return;
+        if (!dirty && today.equals(rankedOn) && snapshot.getVersion() == rankedSnapshot) return;
+
+        LocalDate from7 = today.minusDays(Window.DAYS_7.days - 1);
+        LocalDate from30 = today.minusDays(Window.DAYS_30.days - 1);
+        Map<Long, long[]> recent = new HashMap<>(); // product -> {7d, 30d}
+        for (Map.Entry<LocalDate, Map<Long, Long>> day : daily.tailMap(from30, true).entrySet()) {
+            boolean in7 = !day.getKey().isBefore(from7);
+            day.getValue().forEach((productId, units) -> {
+                long[] w = recent.computeIfAbsent(productId, k -> new long[2]);
+                w[1] += units;
+                if (in7) w[0] += units;
+            });
+        }
+
+        Map<String, TopK> heaps = new HashMap<>();
+        for (Map.Entry<Long, Long> e : totals.entrySet()) {
+            Product p = snapshot.getById(e.getKey());
+            if (p == null || e.getValue() <= 0) continue; // inactive, deleted or all cancelled
+            long id = e.getKey();
+            long[] w = recent.get(id);
+            for (String scope : scopes(p)) {
+                offer(heaps, Window.ALL, scope, id, e.getValue());
+                if (w != null && w[0] > 0) offer(heaps, Window.DAYS_7, scope, id, w[0]);
+                if (w != null && w[1] > 0) offer(heaps, Window.DAYS_30, scope, id, w[1]);
+            }
+        }
+        Map<String, long[]> ranked = new HashMap<>(heaps.size() * 2);
+        heaps.forEach((key, heap) -> ranked.put(key, heap.ranked()));
+        rankings = ranked;
+
+        dirty = false;
+        rankedOn = today;
+        rankedSnapshot = snapshot.getVersion();
+    }
+
+    private void offer(Map<String, TopK> heaps, Window window, String scope, long productId, long units) {
+        heaps.computeIfAbsent(window.getParam() + "/" + scope, k -> new TopK(topK)).offer(productId, units);
+    }
+
+    // Every ranking a product belongs to: all, its category, each of its types, and type + category
+    private static List<String> scopes(Product p) {
+        String category = ProductAudienceClassifier.key(p.getCategory());
+        List<String> scopes = new ArrayList<>();
+        scopes.add(scope(null, null));
+        if (category != null) scopes.add(scope(null, category));
+        for (String audience : ProductAudienceClassifier.classify(p)) {
+            scopes.add(scope(audience, null));
+            if (category != null) scopes.add(scope(audience, category));
+        }
+        return scopes;
+    }
+
+    private static String scope(String typeKey, String categoryKey) {
+        return (typeKey != null ? "t:" + typeKey : "") + "|" + (categoryKey != null ? "c:" + categoryKey : "");
+    }
+
+    // Bounded min-heap keeping the k best {product id, units} offered; ties go to the lower id
+    static final class TopK {
+        private static final Comparator<long[]> WEAKEST_FIRST =
+                Comparator.<long[]>comparingLong(e -> e[1]).thenComparingLong(e -> -e[0]);
+
+        private final int k;
+        private final PriorityQueue<long[]> heap;
+
+        TopK(int k) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(k + 1, WEAKEST_FIRST);
+        }
+
+        void offer(long productId, long units) {
+            long[] entry = {productId, units};
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (WEAKEST_FIRST.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        long[] ranked() {
+            long[][] entries = heap.toArray(new long[0][]);
+            Arrays.sort(entries, WEAKEST_FIRST.reversed());
+            long[] ids = new long[entries.length];
+            for (int i = 0; i < entries.length; i++) ids[i] = entries[i][0];
+            return ids;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Write what was counted since the last flush
+        try {
+            worker.submit(this::flush).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("BestSellerService: Final flush failed: {}", e.getMessage());
+        }
+        worker.shutdownNow();
+    }
+}
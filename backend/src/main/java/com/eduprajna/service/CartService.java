@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import com.eduprajna.entity.CartItem;
 import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductVariant;
 import com.eduprajna.entity.User;
 import com.eduprajna.repository.CartItemRepository;
 import com.eduprajna.repository.ProductRepository;
@@ -15,10 +16,13 @@ import com.eduprajna.repository.ProductRepository;
 public class CartService {
     private final CartItemRepository cartRepo;
     private final ProductRepository productRepo;
+    private final ProductVariantService productVariantService;
 
-    public CartService(CartItemRepository cartRepo, ProductRepository productRepo) {
+    public CartService(CartItemRepository cartRepo, ProductRepository productRepo,
+            ProductVariantService productVariantService) {
         this.cartRepo = cartRepo;
         this.productRepo = productRepo;
+        this.productVariantService = productVariantService;
     }
 
     public List<CartItem> getCart(User user) {
@@ -32,8 +36,16 @@ public class CartService {
     public CartItem addToCart(User user, Long productId, int quantity, String variantId) {
         Product product = productRepo.findById(productId).orElseThrow();
         
+        // Variant row gives stock and price with one indexed read; metadata is the fallback
+        // for variants that have no row yet
+        ProductVariant variantRow = productVariantService.find(productId, variantId).orElse(null);
+        
         // Check variant-specific stock if variant is provided
-        if (variantId != null && !variantId.isEmpty() && product.hasVariants()) {
+        if (variantRow != null) {
+            if (variantRow.getStock() == null || variantRow.getStock() <= 0) {
+                throw new IllegalStateException("Product variant is out of stock");
+            }
+        } else if (variantId != null && !variantId.isEmpty() && product.hasVariants()) {
             if (!product.isVariantInStock(variantId)) {
                 throw new IllegalStateException("Product variant is out of stock");
             }
@@ -71,8 +83,8 @@ public class CartService {
             String vLabel = deriveVariantLabel(product, variantId);
             ci.setVariantLabel(vLabel);
             // Determine snapshot price: variant price if available else product price
-            Double price = null;
-            if (variantId != null && !variantId.isEmpty() && product.hasVariants()) {
+            Double price = variantRow != null ? variantRow.getPrice() : null;
+            if (price == null && variantId != null && !variantId.isEmpty() && product.hasVariants()) {
                 try {
                     java.util.List<java.util.Map<String, Object>> vars = product.getVariantsInternal();
                     if (vars != null) {
@@ -101,7 +113,9 @@ public class CartService {
                 item.setVariantLabel(deriveVariantLabel(product, variantId));
             } catch (Exception ignored) {}
             // Also update snapshot price to the newly selected variant price
-            if (product.hasVariants()) {
+            if (variantRow != null && variantRow.getPrice() != null) {
+                item.setPriceAtAdd(variantRow.getPrice());
+            } else if (product.hasVariants()) {
                 try {
                     java.util.List<java.util.Map<String, Object>> vars = product.getVariantsInternal();
                     for (java.util.Map<String, Object> v : vars) {
@@ -124,7 +138,9 @@ public class CartService {
         
         // Check stock limit against variant or main product
         Integer stockLimit;
-        if (variantId != null && !variantId.isEmpty() && product.hasVariants()) {
+        if (variantRow != null) {
+            stockLimit = variantRow.getStock();
+        } else if (variantId != null && !variantId.isEmpty() && product.hasVariants()) {
             stockLimit = product.getVariantStock(variantId);
         } else {
             stockLimit = product.getStockQuantity();
@@ -206,7 +222,8 @@ public class CartService {
         Integer stockQty = null;
         if ((variantId != null && !variantId.isEmpty()) || (item.getVariantId() != null && !item.getVariantId().isEmpty())) {
             String vId = (variantId != null && !variantId.isEmpty()) ? variantId : item.getVariantId();
-            if (product.hasVariants()) {
+            stockQty = productVariantService.find(productId, vId).map(ProductVariant::getStock).orElse(null);
+            if (stockQty == null && product.hasVariants()) {
                 stockQty = product.getVariantStock(vId);
             }
         }
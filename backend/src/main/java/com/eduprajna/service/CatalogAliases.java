@@ -0,0 +1,83 @@
+package com.eduprajna.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Alias table for catalog filter values: maps the spellings the storefront sends
+ * ("dogs", "dry-food", "vet") to the canonical type, category or subcategory name.
+ * Used to normalize listing parameters and as synonyms for typeahead suggestions.
+ */
+public final class CatalogAliases {
+
+    public static final Set<String> TYPES = Set.of("Dog", "Cat", "Pharmacy", "Outlet");
+
+    private static final Map<String, String> ALIASES = new LinkedHashMap<>();
+
+    static {
+        // Type normalization
+        alias("Dog", "dog", "dogs", "canine");
+        alias("Cat", "cat", "cats", "feline");
+        alias("Pharmacy", "pharmacy", "medicine", "medical");
+        alias("Outlet", "outlet", "clearance");
+
+        // Category normalization
+        alias("Dog Food", "dog-food", "dogfood", "food");
+        alias("Cat Food", "cat-food", "catfood");
+        alias("Dog Treats", "dog-treats", "dogtreats", "treats");
+        alias("Cat Treats", "cat-treats", "cattreats");
+        alias("Dog Toys", "dog-toys", "dogtoys", "toys");
+        alias("Cat Toys", "cat-toys", "cattoys");
+        alias("Dog Grooming", "dog-grooming", "doggrooming", "grooming");
+        alias("Cat Grooming", "cat-grooming", "catgrooming");
+
+        // Subcategory normalization
+        alias("Dry Food", "dry", "dry-food");
+        alias("Wet Food", "wet", "wet-food");
+        alias("Grain Free", "grain-free", "grainfree");
+        alias("Puppy Food", "puppy", "puppy-food");
+        alias("Kitten Food", "kitten", "kitten-food");
+        alias("Hypoallergenic", "hypoallergenic", "hypo");
+        alias("Veterinary Food", "veterinary", "vet", "veterinary-food");
+        alias("Chicken Free", "chicken-free", "chickenfree");
+    }
+
+    private CatalogAliases() {
+    }
+
+    private static void alias(String canonical, String... aliases) {
+        for (String a : aliases) ALIASES.put(a, canonical);
+    }
+
+    /** Alias (lower case) to canonical value. */
+    public static Map<String, String> aliases() {
+        return Collections.unmodifiableMap(ALIASES);
+    }
+
+    /**
+     * Canonical value for a known alias, otherwise the value in title case.
+     * Returns null for blank input.
+     */
+    public static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String canonical = ALIASES.get(value.toLowerCase().trim());
+        return canonical != null ? canonical : toTitleCase(value);
+    }
+
+    // Helper method to convert string to title case
+    private static String toTitleCase(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+
+        return Arrays.stream(input.split("\\s+"))
+                .map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
+                .collect(Collectors.joining(" "));
+    }
+}
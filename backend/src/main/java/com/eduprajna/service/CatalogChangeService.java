@@ -0,0 +1,305 @@
+package com.eduprajna.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.dto.CatalogChangesDTO;
+import com.eduprajna.dto.ProductDeltaDTO;
+import com.eduprajna.entity.CatalogChange;
+import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductTombstone;
+import com.eduprajna.event.ProductChangeEvent;
+import com.eduprajna.event.StockChangeEvent;
+import com.eduprajna.repository.CatalogChangeRepository;
+import com.eduprajna.repository.ProductRepository;
+import com.eduprajna.repository.ProductTombstoneRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Versioned product changes for delta sync (GET /api/products/changes).
+ *
+ * Product writes already publish ProductChangeEvent / StockChangeEvent inside their
+ * transaction. The ids are collected per transaction and, just before commit, stamped with one
+ * new catalog version (deleted ids get a tombstone instead). Versions are the AUTO_INCREMENT
+ * ids of an insert-only log (catalog_change), so writers share no lock; only the changed
+ * product rows are locked, as the write itself does.
+ *
+ * Versions can commit out of order, so readers only serve up to a watermark: the highest
+ * version below which every version has committed. A missing version is an in-flight
+ * transaction, or one that rolled back once a later version is older than
+ * {@link #GAP_GRACE} (versions are drawn right before commit). The watermark is computed
+ * before the page is read, so the page's snapshot holds every change up to it.
+ */
+@Service
+public class CatalogChangeService {
+    private final Logger log = LoggerFactory.getLogger(CatalogChangeService.class);
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 2000;
+    private static final int STAMP_BATCH = 1000;
+    static final Duration GAP_GRACE = Duration.ofMinutes(1);
+    private static final int WATERMARK_PAGE = 1000;
+    private static final Duration LOG_RETENTION = Duration.ofDays(1);
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductVariantService productVariantService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+    private final ScheduledExecutorService pruner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "catalog-change-prune");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Highest version up to which every version is known to have committed; -1 until read
+    private long watermark = -1;
+
+    public CatalogChangeService(CatalogChangeRepository catalogChangeRepository,
+            ProductRepository productRepository, ProductTombstoneRepository productTombstoneRepository,
+            ProductVariantService productVariantService, PlatformTransactionManager transactionManager) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productVariantService = productVariantService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    // Changed ids of one transaction
+    private static final class Pending {
+        final Set<Long> upserted = new LinkedHashSet<>();
+        final Set<Long> deleted = new LinkedHashSet<>();
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() == null) return;
+        record(event.getProductId(), event.getKind() == ProductChangeEvent.Kind.DELETED);
+    }
+
+    @EventListener
+    public void onStockChange(StockChangeEvent event) {
+        if (event.getProductId() == null) return;
+        record(event.getProductId(), false);
+    }
+
+    private void record(Long productId, boolean deleted) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            Pending single = new Pending();
+            (deleted ? single.deleted : single.upserted).add(productId);
+            transactionTemplate.executeWithoutResult(status -> stamp(single));
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    stamp(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogChangeService.this);
+                }
+            });
+            pending = created;
+        }
+        (deleted ? pending.deleted : pending.upserted).add(productId);
+    }
+
+    private void stamp(Pending pending) {
+        pending.upserted.removeAll(pending.deleted);
+        if (pending.upserted.isEmpty() && pending.deleted.isEmpty()) return;
+        OffsetDateTime now = OffsetDateTime.now();
+        List<List<Long>> batches = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(pending.upserted);
+        for (int i = 0; i < ids.size(); i += STAMP_BATCH) {
+            batches.add(ids.subList(i, Math.min(i + STAMP_BATCH, ids.size())));
+        }
+        // Product rows first, then the version (stock changes may not have locked the rows yet)
+        for (List<Long> batch : batches) productRepository.touch(batch, now);
+        long version = nextVersion();
+        for (List<Long> batch : batches) productRepository.stampVersion(batch, version);
+        if (!pending.deleted.isEmpty()) {
+            List<ProductTombstone> tombstones = new ArrayList<>();
+            for (Long id : pending.deleted) tombstones.add(new ProductTombstone(id, version, now));
+            productTombstoneRepository.saveAll(tombstones);
+        }
+        log.debug("CatalogChangeService: v{}: {} changed, {} deleted", version, ids.size(), pending.deleted.size());
+    }
+
+    private long nextVersion() {
+        return catalogChangeRepository.save(new CatalogChange()).getVersion();
+    }
+
+    /**
+     * Continue the version sequence of catalogs versioned before the log existed, stamp rows
+     * that have no version (existing catalogs, direct inserts) and start pruning the log.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (catalogChangeRepository.count() > 0) return;
+                long last = Math.max(productRepository.findMaxChangeVersion().orElse(0L),
+                        productTombstoneRepository.findMaxChangeVersion().orElse(0L));
+                if (last > 0) catalogChangeRepository.insertVersion(last, OffsetDateTime.now().minus(GAP_GRACE));
+            });
+            Integer stamped = transactionTemplate.execute(status -> productRepository.existsByChangeVersionIsNull()
+                    ? productRepository.stampUnversioned(nextVersion(), OffsetDateTime.now()) : 0);
+            if (stamped != null && stamped > 0) {
+                log.info("CatalogChangeService: Stamped {} unversioned product(s)", stamped);
+            }
+        } catch (Exception e) {
+            log.warn("CatalogChangeService: Could not initialize change versions: {}", e.getMessage());
+        }
+        pruner.scheduleWithFixedDelay(this::prune, 0, 6, TimeUnit.HOURS);
+    }
+
+    // Drops day-old log rows below the watermark; the newest row is always kept
+    void prune() {
+        try {
+            long below = watermark();
+            Integer pruned = transactionTemplate.execute(status ->
+                    catalogChangeRepository.prune(below, OffsetDateTime.now().minus(LOG_RETENTION)));
+            if (pruned != null && pruned > 0) log.debug("CatalogChangeService: Pruned {} change log rows", pruned);
+        } catch (Exception e) {
+            log.warn("CatalogChangeService: Pruning the change log failed: {}", e.getMessage());
+        }
+    }
+
+    /** Highest version up to which every version has committed (or rolled back). */
+    synchronized long watermark() {
+        OffsetDateTime gapDeadline = OffsetDateTime.now().minus(GAP_GRACE);
+        if (watermark < 0) {
+            // Anything older than the grace period has settled; a fresh log starts below its first row
+            Long settled = catalogChangeRepository.findMaxVersionBefore(gapDeadline);
+            Long first = catalogChangeRepository.findMinVersion();
+            watermark = settled != null ? settled : first != null ? first - 1 : 0L;
+        }
+        List<CatalogChange> next;
+        do {
+            next = catalogChangeRepository.findAfter(watermark, PageRequest.of(0, WATERMARK_PAGE));
+            for (CatalogChange c : next) {
+                if (c.getVersion() != watermark + 1 && !c.getCreatedAt().isBefore(gapDeadline)) return watermark;
+                watermark = c.getVersion();
+            }
+        } while (next.size() == WATERMARK_PAGE);
+        return watermark;
+    }
+
+    /**
+     * Products changed and deleted after {@code since} ("0" for the whole catalog, else the
+     * "next" cursor of the previous page), up to {@code limit} products per page.
+     */
+    public CatalogChangesDTO changesSince(String since, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long sinceVersion;
+        long afterId;
+        try {
+            String cursor = since == null || since.isBlank() ? "0" : since.trim();
+            int colon = cursor.indexOf(':');
+            sinceVersion = Long.parseLong(colon < 0 ? cursor : cursor.substring(0, colon));
+            // a plain version cursor covers all of that version's rows
+            afterId = colon >= 0 ? Long.parseLong(cursor.substring(colon + 1)) : Long.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid since cursor: " + since);
+        }
+        // Before the read transaction starts, so its snapshot includes everything up to it
+        long watermark = watermark();
+        if (sinceVersion < 0 || sinceVersion > watermark) {
+            return new CatalogChangesDTO(watermark, "0", false, true, List.of(), List.of());
+        }
+        return readTemplate.execute(status -> page(sinceVersion, afterId, watermark, size));
+    }
+
+    private CatalogChangesDTO page(long sinceVersion, long afterId, long watermark, int size) {
+        List<Product> page = productRepository.findChangedSince(sinceVersion, afterId, watermark,
+                PageRequest.of(0, size + 1));
+        boolean more = page.size() > size;
+        if (more) page = page.subList(0, size);
+        productVariantService.applyStock(page);
+
+        // Tombstones up to where this page ends; a split version's tombstones go with its first page
+        long upTo = watermark;
+        String next = Long.toString(watermark);
+        if (more) {
+            Product last = page.get(page.size() - 1);
+            upTo = last.getChangeVersion();
+            next = upTo + ":" + last.getId();
+        }
+        List<Long> deleted = productTombstoneRepository.findDeletedIds(sinceVersion, upTo);
+
+        List<ProductDeltaDTO> products = new ArrayList<>(page.size());
+        for (Product p : page) products.add(toDelta(p));
+        return new CatalogChangesDTO(watermark, next, more, false, products, deleted);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pruner.shutdownNow();
+    }
+
+    private static ProductDeltaDTO toDelta(Product p) {
+        ProductDeltaDTO d = new ProductDeltaDTO();
+        d.id = p.getId();
+        d.version = p.getChangeVersion();
+        d.active = !Boolean.FALSE.equals(p.getIsActive());
+        d.name = p.getName();
+        d.brand = p.getBrand();
+        d.type = p.getType();
+        d.category = p.getCategory();
+        d.imageUrl = p.getImageUrl();
+        d.price = p.getPrice();
+        d.originalPrice = p.getOriginalPrice();
+        d.rating = p.getAverageRating();
+        d.inStock = Boolean.TRUE.equals(p.getInStock());
+        d.stockQuantity = p.getStockQuantity();
+        List<Map<String, Object>> variants = p.getVariantsInternal();
+        if (!variants.isEmpty()) {
+            d.variants = new ArrayList<>(variants.size());
+            for (Map<String, Object> v : variants) {
+                if (v.get("id") == null) continue;
+                d.variants.add(new ProductDeltaDTO.Variant(v.get("id").toString(), number(v.get("price")),
+                        v.get("stock") instanceof Number n ? n.intValue() : null));
+            }
+        }
+        return d;
+    }
+
+    private static Double number(Object value) {
+        if (value instanceof Number n) return n.doubleValue();
+        if (value == null) return null;
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.eduprajna.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.eduprajna.dto.CatalogChangeDTO;
+import com.eduprajna.dto.ProductCardDTO;
+import com.eduprajna.entity.Product;
+import com.eduprajna.event.ProductChangeEvent;
+import com.eduprajna.event.StockChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes committed catalog changes (product upserted or deleted, stock changed) to admin
+ * clients as Server-Sent Events, so they can patch their product list instead of polling it.
+ *
+ * Each change is serialized once and offered to every subscriber's bounded queue; publishing
+ * never waits on a client. A subscriber's queue is drained by one virtual thread at a time,
+ * so a slow client only delays itself. When a queue overflows it is cleared and the client
+ * gets a "resync" event telling it to re-fetch. The last events are kept for replay, so a
+ * client that reconnects with Last-Event-ID picks up where it left off.
+ */
+@Service
+public class CatalogEventBroadcaster {
+    private final Logger log = LoggerFactory.getLogger(CatalogEventBroadcaster.class);
+
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final Frame HEARTBEAT = new Frame(0, null, null);
+
+    private record Frame(long id, String name, String json) {}
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int replaySize;
+    private final long timeoutMs;
+    private final Frame resync;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<Frame> recent = new ArrayDeque<>(); // guarded by itself, as is sequence
+    private long sequence;
+    // Event ids are "<epoch>-<sequence>"; an id from before a restart gets a resync
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "catalog-events-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CatalogEventBroadcaster(ObjectMapper objectMapper,
+            @Value("${catalog.events.buffer-size:256}") int bufferSize,
+            @Value("${catalog.events.replay-size:1024}") int replaySize,
+            @Value("${catalog.events.timeout-ms:1800000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.replaySize = Math.max(0, replaySize);
+        this.timeoutMs = timeoutMs;
+        this.resync = new Frame(0, CatalogChangeDTO.RESYNC,
+                toJson(new CatalogChangeDTO(CatalogChangeDTO.RESYNC, null, null, null, null, null)));
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Open a stream. With {@code lastEventId} (the EventSource reconnect header) the missed
+     * events are replayed first, or a resync is sent when they are no longer kept.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscriber.offer(HEARTBEAT); // first bytes, so the client sees the stream open
+        synchronized (recent) {
+            for (Frame frame : missedSince(lastEventId)) subscriber.offer(frame);
+            subscribers.add(subscriber);
+        }
+        log.debug("CatalogEventBroadcaster: Subscriber added ({} open)", subscribers.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() == null) return;
+        Product p = event.getProduct();
+        if (event.getKind() == ProductChangeEvent.Kind.DELETED || p == null) {
+            publish(new CatalogChangeDTO(CatalogChangeDTO.DELETED, event.getProductId(), null, null, null, null));
+            return;
+        }
+        ProductCardDTO card = new ProductCardDTO(p.getId(), p.getName(), p.getPrice(), p.getOriginalPrice(),
+                p.getImageUrl(), p.getBrand(), p.getAverageRating(), p.getInStock());
+        publish(new CatalogChangeDTO(CatalogChangeDTO.UPSERTED, p.getId(), null, p.getStockQuantity(),
+                !Boolean.FALSE.equals(p.getIsActive()), card));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChange(StockChangeEvent event) {
+        if (event.getProductId() == null) return;
+        publish(new CatalogChangeDTO(CatalogChangeDTO.STOCK, event.getProductId(), event.getVariantId(),
+                event.getStock(), null, null));
+    }
+
+    private void publish(CatalogChangeDTO change) {
+        String json = toJson(change);
+        if (json == null) return;
+        synchronized (recent) {
+            Frame frame = new Frame(++sequence, change.type, json);
+            if (replaySize > 0) {
+                if (recent.size() == replaySize) recent.removeFirst();
+                recent.addLast(frame);
+            }
+            for (Subscriber s : subscribers) s.offer(frame);
+        }
+    }
+
+    // Caller holds the recent lock
+    private List<Frame> missedSince(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return List.of();
+        String id = lastEventId.trim();
+        int dash = id.lastIndexOf('-');
+        long last;
+        try {
+            if (dash < 0 || !epoch.equals(id.substring(0, dash))) return List.of(resync);
+            last = Long.parseLong(id.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return List.of(resync);
+        }
+        if (last >= sequence) return List.of();
+        if (recent.isEmpty() || recent.peekFirst().id() > last + 1 || sequence - last > bufferSize) {
+            return List.of(resync);
+        }
+        List<Frame> missed = new ArrayList<>();
+        for (Frame frame : recent) {
+            if (frame.id() > last) missed.add(frame);
+        }
+        return missed;
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber s : subscribers) s.queue.offer(HEARTBEAT); // dropped when the queue is full
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    private String toJson(CatalogChangeDTO change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.warn("CatalogEventBroadcaster: Could not serialize {} event for {}: {}", change.type,
+                    change.productId, e.getMessage());
+            return null;
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean overflowed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Never blocks: on overflow the backlog is dropped in favour of a resync
+        void offer(Frame frame) {
+            if (!queue.offer(frame)) {
+                queue.clear();
+                overflowed.set(true);
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) senders.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    if (overflowed.getAndSet(false)) send(resync);
+                    Frame frame = queue.poll();
+                    if (frame == null) break;
+                    send(frame);
+                }
+            } catch (Exception e) {
+                // Client went away; the container completes the emitter
+                subscribers.remove(this);
+                queue.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty() || overflowed.get()) schedule();
+        }
+
+        private void send(Frame frame) throws IOException {
+            if (frame == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+                return;
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(frame.name()).data(frame.json());
+            if (frame.id() > 0) event.id(epoch + "-" + frame.id());
+            emitter.send(event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+}
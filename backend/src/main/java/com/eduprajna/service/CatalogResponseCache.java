@@ -0,0 +1,122 @@
+package com.eduprajna.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.eduprajna.event.CatalogSnapshotPublishedEvent;
+import com.eduprajna.event.ProductChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pre-serialized catalog responses and the version counters behind their ETags.
+ *
+ * Listings served from the {@link CatalogSnapshot} are serialized once per snapshot and
+ * query key, kept as JSON and gzip bytes, and tagged with the snapshot version; a newly
+ * published snapshot drops them all. Responses read straight from the database cannot use
+ * the snapshot version (it trails commits), so they are tagged with a write counter that is
+ * bumped as soon as a product write commits. Both tags carry a per-process epoch so a restart
+ * never revalidates a tag from the previous run.
+ */
+@Service
+public class CatalogResponseCache {
+    private final Logger log = LoggerFactory.getLogger(CatalogResponseCache.class);
+
+    // Distinct (type, category, sub) keys are few; this only guards against junk parameters
+    static final int MAX_ENTRIES = 512;
+
+    private final ObjectMapper objectMapper;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong writes = new AtomicLong();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CatalogResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static final class Entry {
+        private final long snapshotVersion;
+        private final String etag;
+        private final String gzipEtag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Entry(long snapshotVersion, String etag, String gzipEtag, byte[] json, byte[] gzip) {
+            this.snapshotVersion = snapshotVersion;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getEtag() { return etag; }
+        // Strong validators differ per content-coding, so the gzip bytes have their own tag
+        public String getGzipEtag() { return gzipEtag; }
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+    }
+
+    /**
+     * The cached response for {@code key} in this snapshot, serializing {@code body} on a miss.
+     */
+    public Entry get(CatalogSnapshot snapshot, String key, Supplier<Object> body) {
+        Entry cached = entries.get(key);
+        if (cached != null && cached.snapshotVersion == snapshot.getVersion()) return cached;
+
+        Entry fresh = serialize(snapshot.getVersion(), key, body.get());
+        if (entries.size() < MAX_ENTRIES || entries.containsKey(key)) {
+            // Never replace an entry built from a newer snapshot with an older one
+            entries.merge(key, fresh, (old, neu) -> old.snapshotVersion > neu.snapshotVersion ? old : neu);
+        }
+        return fresh;
+    }
+
+    /**
+     * Strong ETag for a database-backed response. Read it before loading the data: a write that
+     * commits in between then changes the tag, so stale data is never tagged as current.
+     */
+    public String writeEtag(String key) {
+        return quote(epoch + "-w" + writes.get() + "-" + Integer.toHexString(key.hashCode()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        writes.incrementAndGet();
+    }
+
+    @EventListener
+    public void onSnapshotPublished(CatalogSnapshotPublishedEvent event) {
+        long version = event.getSnapshot().getVersion();
+        entries.values().removeIf(e -> e.snapshotVersion < version);
+    }
+
+    private Entry serialize(long version, String key, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(json);
+            }
+            String tag = epoch + "-s" + version + "-" + Integer.toHexString(key.hashCode());
+            log.debug("Cached catalog response '{}' for snapshot v{}: {} bytes, {} gzipped", key, version,
+                    json.length, out.size());
+            return new Entry(version, quote(tag), quote(tag + "-gz"), json, out.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        }
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
@@ -0,0 +1,347 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.eduprajna.dto.FacetValueDTO;
+import com.eduprajna.dto.ProductFacetsDTO;
+import com.eduprajna.entity.Product;
+
+/**
+ * Immutable, in-memory view of the active catalog.
+ *
+ * Products are kept in id order and addressed by their position (ordinal). Every
+ * filterable attribute has a posting list (a BitSet of ordinals) so the customer
+ * listing can be answered by intersecting bitsets instead of running LIKE queries,
+ * and facet counts are bitset cardinalities.
+ * A snapshot is never modified after construction; writers build a new one and
+ * swap it in (see {@link CatalogSnapshotService}).
+ */
+public final class CatalogSnapshot {
+
+    // Facet name (also the request parameter) -> column holding its values
+    private static final Map<String, Function<Product, String>> FACET_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        FACET_COLUMNS.put("brands", Product::getBrands);
+        FACET_COLUMNS.put("lifeStages", Product::getLifeStages);
+        FACET_COLUMNS.put("breedSizes", Product::getBreedSizes);
+        FACET_COLUMNS.put("specialDiets", Product::getSpecialDiets);
+        FACET_COLUMNS.put("proteinSources", Product::getProteinSources);
+        FACET_COLUMNS.put("productWeights", Product::getProductWeights);
+        FACET_COLUMNS.put("priceRanges", Product::getPriceRanges);
+        FACET_COLUMNS.put("foodType", Product::getFoodType);
+    }
+
+    private static final class FacetValue {
+        final String display; // first spelling seen
+        final BitSet products = new BitSet();
+
+        FacetValue(String display) {
+            this.display = display;
+        }
+    }
+
+    private final long version;
+    private final List<Product> products;
+    private final Map<Long, Integer> ordinalById;
+    private final BitSet inStock;
+    private final Map<String, BitSet> byCategory;
+    private final Map<String, BitSet> bySubcategory;
+    private final Map<String, BitSet> byBrand;
+    private final Map<String, BitSet> byPetType;
+    // Canonical audiences, as stored in product_audience (see ProductAudienceClassifier)
+    private final Map<String, BitSet> byAudience;
+    // facet -> lower-cased value -> posting list
+    private final Map<String, Map<String, FacetValue>> facets;
+
+    private CatalogSnapshot(long version, List<Product> products) {
+        this.version = version;
+        this.products = Collections.unmodifiableList(products);
+        this.ordinalById = new HashMap<>(products.size() * 2);
+        this.inStock = new BitSet(products.size());
+        this.byCategory = new HashMap<>();
+        this.bySubcategory = new HashMap<>();
+        this.byBrand = new HashMap<>();
+        this.byPetType = new HashMap<>();
+        this.byAudience = new HashMap<>();
+        this.facets = new LinkedHashMap<>();
+        for (String facet : FACET_COLUMNS.keySet()) facets.put(facet, new HashMap<>());
+
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            ordinalById.put(p.getId(), i);
+            if (hasAvailableStock(p)) inStock.set(i);
+            post(byCategory, p.getCategory(), i);
+            post(bySubcategory, p.getSubcategory(), i);
+            post(byBrand, p.getBrand(), i);
+            post(byPetType, p.getPetType(), i);
+            for (Map.Entry<String, Function<Product, String>> f : FACET_COLUMNS.entrySet()) {
+                Map<String, FacetValue> values = facets.get(f.getKey());
+                for (String v : parseFilterValues(f.getValue().apply(p))) {
+                    values.computeIfAbsent(v.toLowerCase(Locale.ROOT), k -> new FacetValue(v)).products.set(i);
+                }
+            }
+            for (String audience : ProductAudienceClassifier.classify(p)) {
+                post(byAudience, audience, i);
+            }
+        }
+    }
+
+    public static CatalogSnapshot empty() {
+        return new CatalogSnapshot(0L, new ArrayList<>());
+    }
+
+    public static CatalogSnapshot of(Collection<Product> products, long version) {
+        List<Product> sorted = new ArrayList<>();
+        for (Product p : products) {
+            if (p != null && p.getId() != null && Boolean.TRUE.equals(p.getIsActive())) sorted.add(p);
+        }
+        sorted.sort(Comparator.comparing(Product::getId));
+        return new CatalogSnapshot(version, sorted);
+    }
+
+    /**
+     * Build the next snapshot by applying upserts and deletions to this one.
+     * Inactive products in {@code upserts} are treated as removals.
+     */
+    public CatalogSnapshot apply(Collection<Product> upserts, Collection<Long> deletedIds, long newVersion) {
+        Map<Long, Product> next = new HashMap<>(products.size() * 2);
+        for (Product p : products) next.put(p.getId(), p);
+        for (Long id : deletedIds) next.remove(id);
+        for (Product p : upserts) {
+            if (p == null || p.getId() == null) continue;
+            if (Boolean.TRUE.equals(p.getIsActive())) next.put(p.getId(), p);
+            else next.remove(p.getId());
+        }
+        return of(next.values(), newVersion);
+    }
+
+    public long getVersion() { return version; }
+
+    public int size() { return products.size(); }
+
+    public List<Product> getProducts() { return products; }
+
+    public Product getById(Long id) {
+        Integer ord = id == null ? null : ordinalById.get(id);
+        return ord == null ? null : products.get(ord);
+    }
+
+    public boolean isInStock(Long id) {
+        Integer ord = id == null ? null : ordinalById.get(id);
+        return ord != null && inStock.get(ord);
+    }
+
+    /** True if the product is listed under the type filter value (Dog, Cat, ...). */
+    public boolean hasAudience(Long id, String type) {
+        Integer ord = id == null ? null : ordinalById.get(id);
+        BitSet members = byAudience.get(ProductAudienceClassifier.key(type));
+        return ord != null && members != null && members.get(ord);
+    }
+
+    /**
+     * Same semantics as the DB-backed customer listing: type-first filtering on product
+     * audiences, or category/subcategory with exact-then-partial matching.
+     * Only products with available stock are returned.
+     */
+    public List<Product> findCustomerProducts(String type, String category, String sub) {
+        return materialize(customerMatches(type, category, sub));
+    }
+
+    /** Facet names accepted by {@link #facetCounts}. */
+    public static Set<String> facetNames() {
+        return FACET_COLUMNS.keySet();
+    }
+
+    /**
+     * In-stock product counts per facet value for the customer listing filtered by
+     * type/category/sub and the selected facet values.
+     *
+     * Values selected within one facet are OR-ed, facets are AND-ed. Each facet is
+     * counted against the other facets' selections only, so the sidebar still shows how
+     * many products the alternatives in that facet would add.
+     */
+    public ProductFacetsDTO facetCounts(String type, String category, String sub, Map<String, Set<String>> selected) {
+        BitSet base = customerMatches(type, category, sub);
+
+        Map<String, BitSet> selections = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> e : selected.entrySet()) {
+            Map<String, FacetValue> values = facets.get(e.getKey());
+            if (values == null || e.getValue().isEmpty()) continue;
+            BitSet union = new BitSet(products.size());
+            for (String v : e.getValue()) {
+                FacetValue fv = values.get(v.toLowerCase(Locale.ROOT).trim());
+                if (fv != null) union.or(fv.products);
+            }
+            selections.put(e.getKey(), union);
+        }
+
+        BitSet all = (BitSet) base.clone();
+        selections.values().forEach(all::and);
+
+        Map<String, List<FacetValueDTO>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, FacetValue>> f : facets.entrySet()) {
+            BitSet scope = (BitSet) base.clone();
+            for (Map.Entry<String, BitSet> sel : selections.entrySet()) {
+                if (!sel.getKey().equals(f.getKey())) scope.and(sel.getValue());
+            }
+            Set<String> chosen = selected.getOrDefault(f.getKey(), Set.of());
+            List<FacetValueDTO> counts = new ArrayList<>();
+            for (FacetValue fv : f.getValue().values()) {
+                BitSet hit = (BitSet) fv.products.clone();
+                hit.and(scope);
+                int count = hit.cardinality();
+                boolean isSelected = containsIgnoreCase(chosen, fv.display);
+                if (count > 0 || isSelected) counts.add(new FacetValueDTO(fv.display, count, isSelected));
+            }
+            counts.sort(Comparator.comparing((FacetValueDTO v) -> -v.count)
+                    .thenComparing(v -> v.value, String.CASE_INSENSITIVE_ORDER));
+            out.put(f.getKey(), counts);
+        }
+        return new ProductFacetsDTO(all.cardinality(), out);
+    }
+
+    private BitSet customerMatches(String type, String category, String sub) {
+        BitSet result;
+        if (notBlank(type)) {
+            result = matchType(type, category, sub);
+        } else {
+            result = matchCategory(category, sub);
+        }
+        result.and(inStock);
+        return result;
+    }
+
+    private BitSet matchType(String type, String category, String sub) {
+        BitSet result = copy(byAudience.get(ProductAudienceClassifier.key(type)));
+        if (notBlank(category)) {
+            result.and(contains(byCategory, category));
+            if (notBlank(sub)) {
+                result.and(contains(bySubcategory, sub));
+            }
+        }
+        return result;
+    }
+
+    private BitSet matchCategory(String category, String sub) {
+        boolean hasCat = notBlank(category);
+        boolean hasSub = notBlank(sub);
+        if (hasCat && hasSub) {
+            BitSet exact = copy(byCategory.get(key(category)));
+            exact.and(copy(bySubcategory.get(key(sub))));
+            if (!exact.isEmpty()) return exact;
+            BitSet partial = contains(byCategory, category);
+            partial.and(contains(bySubcategory, sub));
+            return partial;
+        } else if (hasCat) {
+            BitSet exact = copy(byCategory.get(key(category)));
+            return !exact.isEmpty() ? exact : contains(byCategory, category);
+        } else if (hasSub) {
+            BitSet exact = copy(bySubcategory.get(key(sub)));
+            return !exact.isEmpty() ? exact : contains(bySubcategory, sub);
+        }
+        BitSet all = new BitSet(products.size());
+        all.set(0, products.size());
+        return all;
+    }
+
+    private List<Product> materialize(BitSet ordinals) {
+        List<Product> out = new ArrayList<>(ordinals.cardinality());
+        for (int i = ordinals.nextSetBit(0); i >= 0; i = ordinals.nextSetBit(i + 1)) {
+            out.add(products.get(i));
+        }
+        return out;
+    }
+
+    // Union of posting lists whose key contains the term (LIKE '%term%' equivalent).
+    // Distinct category/subcategory values are few, so this is a scan over keys, not products.
+    private BitSet contains(Map<String, BitSet> index, String term) {
+        String needle = key(term);
+        BitSet out = new BitSet(products.size());
+        if (needle == null) return out;
+        for (Map.Entry<String, BitSet> e : index.entrySet()) {
+            if (e.getKey().contains(needle)) out.or(e.getValue());
+        }
+        return out;
+    }
+
+    /**
+     * Values of a filter column. Columns hold JSON arrays (["Adult", "Puppy"]) written by
+     * ProductController; older rows and foodType hold plain or comma-separated text.
+     */
+    static List<String> parseFilterValues(String raw) {
+        List<String> values = new ArrayList<>();
+        if (raw == null || raw.isBlank()) return values;
+        String content = raw.trim();
+        if (content.startsWith("[") && content.endsWith("]")) {
+            content = content.substring(1, content.length() - 1);
+            for (String item : content.split("\",\\s*\"")) {
+                String cleaned = item.replace("\"", "").trim();
+                if (!cleaned.isEmpty() && !values.contains(cleaned)) values.add(cleaned);
+            }
+            return values;
+        }
+        for (String item : content.split(",")) {
+            String cleaned = item.trim();
+            if (!cleaned.isEmpty() && !values.contains(cleaned)) values.add(cleaned);
+        }
+        return values;
+    }
+
+    private static boolean containsIgnoreCase(Set<String> values, String needle) {
+        for (String v : values) {
+            if (v != null && v.trim().equalsIgnoreCase(needle)) return true;
+        }
+        return false;
+    }
+
+    static boolean hasAvailableStock(Product product) {
+        if (!Boolean.TRUE.equals(product.getIsActive()) || !Boolean.TRUE.equals(product.getInStock())) {
+            return false;
+        }
+        if (product.hasVariants()) {
+            for (Map<String, Object> variant : product.getVariantsInternal()) {
+                Object stockObj = variant.get("stock");
+                if (stockObj instanceof Number && ((Number) stockObj).intValue() > 0) return true;
+                if (stockObj instanceof String) {
+                    try {
+                        if (Integer.parseInt((String) stockObj) > 0) return true;
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+            return false;
+        }
+        return product.getStockQuantity() != null && product.getStockQuantity() > 0;
+    }
+
+    private static void post(Map<String, BitSet> index, String value, int ordinal) {
+        String k = key(value);
+        if (k == null) return;
+        index.computeIfAbsent(k, x -> new BitSet()).set(ordinal);
+    }
+
+    private static BitSet copy(BitSet bits) {
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    private static String key(String value) {
+        if (value == null || value.isBlank()) return null;
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
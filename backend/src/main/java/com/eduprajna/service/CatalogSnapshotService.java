@@ -0,0 +1,144 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.eduprajna.entity.Product;
+import com.eduprajna.event.CatalogSnapshotPublishedEvent;
+import com.eduprajna.event.ProductChangeEvent;
+import com.eduprajna.repository.ProductRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Holds the current {@link CatalogSnapshot} and swaps in a new one after every committed
+ * product write.
+ *
+ * Changes are applied on a single background thread: pending product ids are drained in
+ * one go, re-read from the database (so the snapshot never shares an instance with a
+ * request's persistence context) and folded into a fresh snapshot. Readers always see a
+ * complete, immutable snapshot via {@link #current()}. Each swap is announced with a
+ * {@link CatalogSnapshotPublishedEvent} for indexes derived from the snapshot.
+ */
+@Service
+public class CatalogSnapshotService {
+    private final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ProductRepository productRepository;
+    private final ProductMetadataEnricher enricher;
+    private final ProductVariantService productVariantService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CatalogSnapshotService(ProductRepository productRepository, ProductMetadataEnricher enricher,
+            ProductVariantService productVariantService, ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.enricher = enricher;
+        this.productVariantService = productVariantService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * The latest published snapshot, or null while the initial load has not finished.
+     */
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        worker.execute(this::reload);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() == null) return;
+        pending.add(event.getProductId());
+        worker.execute(this::drainPending);
+    }
+
+    /**
+     * Rebuild the whole snapshot from the database.
+     */
+    public void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Product> active = productRepository.findAllActive();
+            productVariantService.applyStock(active);
+            active.forEach(enricher::materialize);
+            CatalogSnapshot snapshot = CatalogSnapshot.of(active, versions.incrementAndGet());
+            current.set(snapshot);
+            announce(snapshot, null);
+            log.info("Catalog snapshot v{} loaded with {} products in {} ms",
+                    snapshot.getVersion(), snapshot.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Catalog snapshot load failed, listings will use the database: {}", e.getMessage());
+        }
+    }
+
+    private void drainPending() {
+        Set<Long> ids = new HashSet<>();
+        Long id;
+        while ((id = pending.poll()) != null) ids.add(id);
+        if (ids.isEmpty()) return;
+
+        CatalogSnapshot base = current.get();
+        if (base == null) {
+            reload();
+            return;
+        }
+        try {
+            List<Product> upserts = new ArrayList<>(productRepository.findAllById(ids));
+            productVariantService.applyStock(upserts);
+            upserts.forEach(enricher::materialize);
+            Set<Long> deleted = new HashSet<>(ids);
+            upserts.forEach(p -> deleted.remove(p.getId()));
+
+            CatalogSnapshot next = base.apply(upserts, deleted, versions.incrementAndGet());
+            current.set(next);
+            announce(next, ids);
+            log.debug("Catalog snapshot v{} applied {} change(s), {} products", next.getVersion(), ids.size(),
+                    next.size());
+        } catch (Exception e) {
+            log.warn("Incremental catalog snapshot update failed, reloading: {}", e.getMessage());
+            reload();
+        }
+    }
+
+    // A failing listener must not be mistaken for a failed snapshot build
+    private void announce(CatalogSnapshot snapshot, Set<Long> changedIds) {
+        try {
+            eventPublisher.publishEvent(new CatalogSnapshotPublishedEvent(snapshot, changedIds));
+        } catch (Exception e) {
+            log.warn("Catalog snapshot v{} listener failed: {}", snapshot.getVersion(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -64,7 +64,7 @@ public class CloudinaryStorageService {
             return new UploadResult(localPath, null);
         }
         String original = file.getOriginalFilename();
-        String publicId = "products/" + System.currentTimeMillis() + (original != null ? ("_" + original.replaceAll("\\s+","_")) : "");
+        String publicId = "products/" + StorageService.nextUploadStamp() + (original != null ? ("_" + original.replaceAll("\\s+","_")) : "");
         try {
             Map<?,?> result = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
                     "resource_type", "auto",
@@ -99,7 +99,7 @@ public class CloudinaryStorageService {
         }
 
         String original = filename;
-        String publicId = "products/" + System.currentTimeMillis() + (original != null ? ("_" + original.replaceAll("\\s+","_")) : "");
+        String publicId = "products/" + StorageService.nextUploadStamp() + (original != null ? ("_" + original.replaceAll("\\s+","_")) : "");
         try {
             Map<?,?> result = cloudinary.uploader().upload(f, ObjectUtils.asMap(
                     "resource_type", "auto",
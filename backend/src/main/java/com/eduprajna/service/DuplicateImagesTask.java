@@ -0,0 +1,67 @@
+package com.eduprajna.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.eduprajna.entity.Product;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Removes duplicate entries from each active product's image list
+ * (POST /api/admin/products/fix-duplicate-images).
+ */
+@Component
+public class DuplicateImagesTask implements MaintenanceTask {
+    private final Logger log = LoggerFactory.getLogger(DuplicateImagesTask.class);
+
+    public static final String TYPE = "duplicate-images";
+
+    private final ProductService productService;
+    private final EntityManager entityManager;
+
+    public DuplicateImagesTask(ProductService productService, EntityManager entityManager) {
+        this.productService = productService;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Long estimateTotal() {
+        return productService.countActive();
+    }
+
+    @Override
+    public Chunk runChunk(String phase, String cursor, int size) {
+        List<Product> products = productService.getActiveAfterId(MaintenanceTask.idAfter(cursor), size);
+        int fixed = 0;
+        for (Product product : products) {
+            Map<String, Object> metadata = product.getMetadata();
+            if (metadata == null || !(metadata.get("images") instanceof List<?> images) || images.size() < 2) continue;
+
+            List<String> urls = images.stream().map(i -> i == null ? null : i.toString()).toList();
+            List<String> uniqueImages = ProductImageUrls.removeDuplicates(urls);
+            if (uniqueImages.isEmpty() || uniqueImages.size() >= images.size()) continue;
+
+            // Edit a detached copy so save() still reads the stored image set to move references
+            entityManager.detach(product);
+            metadata.put("images", uniqueImages);
+            product.setMetadata(metadata);
+            product.setImageUrl(uniqueImages.get(0));
+            productService.save(product);
+            fixed++;
+            log.info("Fixed product {} - reduced from {} to {} images", product.getId(), images.size(),
+                    uniqueImages.size());
+        }
+        Long lastId = products.isEmpty() ? null : products.get(products.size() - 1).getId();
+        return Chunk.ofIds(lastId, cursor, products.size(), fixed, size);
+    }
+}
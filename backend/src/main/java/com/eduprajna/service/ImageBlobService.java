@@ -0,0 +1,197 @@
+package com.eduprajna.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.entity.ImageBlob;
+import com.eduprajna.entity.Product;
+import com.eduprajna.repository.ImageBlobRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Content-addressed index of stored product images (image_blob).
+ *
+ * Uploads look up their content hash here first and reuse the stored URL, so a picture that
+ * is already in S3, Cloudinary or local storage is never uploaded twice. Product saves and
+ * deletes adjust each indexed URL's reference count by the change in the product's image
+ * set. Blobs are never reclaimed on the spot: uploads (new or reused) and releases pin the
+ * row for {@code images.blobs.grace-minutes}, and a background sweep removes rows that are
+ * unreferenced and past their pin, queueing the stored objects for deletion
+ * ({@link ImageCleanupService}). That covers the gap between an upload and the product save
+ * that takes its reference, and reclaims uploads whose product was never saved. URLs that
+ * are not indexed (external links, images uploaded before the index) are left alone.
+ */
+@Service
+public class ImageBlobService {
+    private final Logger log = LoggerFactory.getLogger(ImageBlobService.class);
+
+    static final int SWEEP_BATCH_SIZE = 100;
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageCleanupService imageCleanupService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+    private final long sweepMinutes;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "image-blob-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ImageBlobService(ImageBlobRepository imageBlobRepository, ImageCleanupService imageCleanupService,
+            PlatformTransactionManager transactionManager,
+            @Value("${images.blobs.grace-minutes:1440}") long graceMinutes,
+            @Value("${images.blobs.sweep-minutes:15}") long sweepMinutes) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageCleanupService = imageCleanupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.sweepMinutes = sweepMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSweeper() {
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stored URLs of the indexed content hashes among {@code contentHashes}, each pinned for
+     * the grace period first so the sweep cannot reclaim it before the product save.
+     */
+    @Transactional
+    public Map<String, String> pinUrls(Collection<String> contentHashes) {
+        Map<String, String> urls = new HashMap<>();
+        if (contentHashes.isEmpty()) return urls;
+        // Pin before reading: a blob reclaimed in between is simply not found and gets uploaded
+        imageBlobRepository.pin(contentHashes, OffsetDateTime.now().plus(grace));
+        for (ImageBlob blob : imageBlobRepository.findByContentHashIn(contentHashes)) {
+            urls.put(blob.getContentHash(), blob.getUrl());
+        }
+        return urls;
+    }
+
+    /**
+     * Index a freshly stored image. It starts unreferenced and pinned for the grace period;
+     * the product save that uses it takes the first reference, and if none does the sweep
+     * reclaims it. Losing a race against a concurrent upload of the same content is harmless:
+     * the other row wins and this object stays unindexed.
+     */
+    public void register(String contentHash, String url, String storage, String publicId, long sizeBytes) {
+        ImageBlob blob = new ImageBlob(contentHash, url, storage, publicId, sizeBytes);
+        blob.setReclaimableAt(OffsetDateTime.now().plus(grace));
+        try {
+            imageBlobRepository.save(blob);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("ImageBlobService: {} is already indexed; keeping {} unindexed", contentHash, url);
+        }
+    }
+
+    public boolean isIndexed(String url) {
+        return url != null && imageBlobRepository.existsByUrl(url);
+    }
+
+    /**
+     * Move references from the images in {@code before} to those in {@code after}. Fails when
+     * an added image was already reclaimed, so the product never points at a deleted object.
+     */
+    @Transactional
+    public void updateReferences(Collection<String> before, Collection<String> after) {
+        Set<String> added = new LinkedHashSet<>(after);
+        added.removeAll(before);
+        Set<String> removed = new LinkedHashSet<>(before);
+        removed.removeAll(after);
+        if (!added.isEmpty()) {
+            imageBlobRepository.adjustRefCount(added, 1);
+            requireStored(added);
+        }
+        if (!removed.isEmpty()) imageBlobRepository.release(removed, OffsetDateTime.now().plus(grace));
+    }
+
+    // Added URLs without an index row are external or pre-index images, unless their deletion
+    // is queued: then the blob was reclaimed after the upload resolved it
+    private void requireStored(Set<String> added) {
+        Set<String> missing = new LinkedHashSet<>(added);
+        for (ImageBlob blob : imageBlobRepository.findByUrlIn(added)) missing.remove(blob.getUrl());
+        if (imageCleanupService.isQueued(missing)) {
+            throw new IllegalArgumentException("An image of this product is no longer stored; upload it again");
+        }
+    }
+
+    /** Reclaim unreferenced blobs past their grace period; runs on the sweeper thread. */
+    void sweep() {
+        try {
+            int total = 0;
+            int reclaimed;
+            do {
+                reclaimed = transactionTemplate.execute(status -> {
+                    List<ImageBlob> due = imageBlobRepository.findReclaimableForUpdate(OffsetDateTime.now(),
+                            PageRequest.of(0, SWEEP_BATCH_SIZE));
+                    imageBlobRepository.deleteAll(due);
+                    for (ImageBlob blob : due) {
+                        imageCleanupService.enqueue(blob.getUrl(), blob.getStorage(), blob.getPublicId());
+                    }
+                    return due.size();
+                });
+                total += reclaimed;
+            } while (reclaimed == SWEEP_BATCH_SIZE);
+            if (total > 0) log.info("ImageBlobService: Reclaimed {} unreferenced images", total);
+        } catch (Exception e) {
+            log.warn("ImageBlobService: Sweeping unreferenced images failed: {}", e.getMessage());
+        }
+    }
+
+    /** Take one reference per product on each product's images (bulk inserts). */
+    @Transactional
+    public void retain(Collection<Product> products) {
+        // URLs grouped by how many of the products use them, one update per distinct count
+        Map<String, Integer> uses = new HashMap<>();
+        for (Product p : products) {
+            for (String url : imageUrls(p)) uses.merge(url, 1, Integer::sum);
+        }
+        Map<Integer, List<String>> byCount = new HashMap<>();
+        uses.forEach((url, n) -> byCount.computeIfAbsent(n, k -> new ArrayList<>()).add(url));
+        byCount.forEach((n, urls) -> imageBlobRepository.adjustRefCount(urls, n));
+    }
+
+    /** Every image URL a product refers to: imageUrl and metadata["images"]. */
+    public static Set<String> imageUrls(Product p) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (p == null) return urls;
+        if (p.getImageUrl() != null && !p.getImageUrl().isBlank()) urls.add(p.getImageUrl());
+        Map<String, Object> metadata = p.getMetadata();
+        if (metadata != null && metadata.get("images") instanceof Collection<?> images) {
+            for (Object image : images) {
+                if (image != null && !image.toString().isBlank()) urls.add(image.toString());
+            }
+        }
+        return urls;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
@@ -0,0 +1,226 @@
+package com.eduprajna.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.entity.ImageBlob;
+import com.eduprajna.entity.ImageDeletion;
+import com.eduprajna.repository.ImageDeletionRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Deletes stored images (S3, Cloudinary, local) off the request path, through the
+ * image_deletion work queue.
+ *
+ * {@link #enqueue} writes a row in the caller's transaction, so a product delete is one local
+ * transaction and the deletion happens if and only if it commits. A single background thread
+ * drains due rows in batches: it claims them (skipping rows another instance holds), deletes
+ * the objects without holding a transaction, then removes the rows that succeeded and
+ * reschedules the rest with exponential backoff. After {@link #MAX_ATTEMPTS} failures a row
+ * is parked as DEAD with its last error. The queue is drained right after each enqueueing
+ * commit and every {@code images.cleanup.poll-seconds}.
+ */
+@Service
+public class ImageCleanupService {
+    private final Logger log = LoggerFactory.getLogger(ImageCleanupService.class);
+
+    static final int BATCH_SIZE = 50;
+    static final int MAX_ATTEMPTS = 8;
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    static final Duration MAX_BACKOFF = Duration.ofHours(6);
+    // Claimed rows are pushed this far out, so a crashed worker's batch is retried later
+    static final Duration CLAIM_LEASE = Duration.ofMinutes(10);
+
+    private final ImageDeletionRepository imageDeletionRepository;
+    private final CloudinaryStorageService cloudinaryStorageService;
+    private final StorageService storageService;
+    private final ObjectProvider<S3ImageService> s3ImageService;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollSeconds;
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "image-cleanup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ImageCleanupService(ImageDeletionRepository imageDeletionRepository,
+            CloudinaryStorageService cloudinaryStorageService, StorageService storageService,
+            ObjectProvider<S3ImageService> s3ImageService, PlatformTransactionManager transactionManager,
+            @Value("${images.cleanup.poll-seconds:60}") long pollSeconds) {
+        this.imageDeletionRepository = imageDeletionRepository;
+        this.cloudinaryStorageService = cloudinaryStorageService;
+        this.storageService = storageService;
+        this.s3ImageService = s3ImageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollSeconds = pollSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorker() {
+        worker.scheduleWithFixedDelay(this::drain, 0, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Queue deletion of a stored object, in the caller's transaction when there is one. */
+    public void enqueue(String url, String storage, String publicId) {
+        imageDeletionRepository.save(new ImageDeletion(url, storage, publicId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    /**
+     * Queue deletion of a product image that is not in the image_blob index, working out where
+     * it is stored from the public id or URL. External links are left alone.
+     */
+    public void enqueueUnindexed(String url, String publicId) {
+        if (publicId != null && !publicId.isBlank()) {
+            enqueue(url != null ? url : publicId, ImageBlob.CLOUDINARY, publicId);
+            return;
+        }
+        String storage = storageOf(url);
+        if (storage != null) enqueue(url, storage, null);
+    }
+
+    /** Whether a deletion of any of the URLs is queued (or parked as DEAD). */
+    public boolean isQueued(Collection<String> urls) {
+        return !urls.isEmpty() && !imageDeletionRepository.findByUrlIn(urls).isEmpty();
+    }
+
+    static String storageOf(String url) {
+        if (url == null || url.isBlank()) return null;
+        if (!url.startsWith("http://") && !url.startsWith("https://")) return ImageBlob.LOCAL;
+        if (url.contains("amazonaws.com")) return ImageBlob.S3;
+        if (url.contains("cloudinary.com")) return ImageBlob.CLOUDINARY;
+        return null;
+    }
+
+    private void wake() {
+        try {
+            worker.execute(this::drain);
+        } catch (Exception e) {
+            // Shutting down; the rows are picked up on the next start
+        }
+    }
+
+    /** Process due deletions until none are left; runs on the worker thread. */
+    void drain() {
+        try {
+            List<ImageDeletion> batch;
+            do {
+                batch = claim();
+                if (batch.isEmpty()) return;
+                List<Long> done = new ArrayList<>();
+                List<ImageDeletion> failed = new ArrayList<>();
+                for (ImageDeletion d : batch) {
+                    try {
+                        deleteStored(d);
+                        done.add(d.getId());
+                    } catch (Exception e) {
+                        d.setLastError(e.getMessage() != null ? truncate(e.getMessage()) : e.getClass().getSimpleName());
+                        failed.add(d);
+                    }
+                }
+                record(done, failed);
+            } while (batch.size() == BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("ImageCleanupService: Draining the deletion queue failed: {}", e.getMessage());
+        }
+    }
+
+    // Lock a batch of due rows, count the attempt and lease them to this worker
+    private List<ImageDeletion> claim() {
+        return transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            List<ImageDeletion> due = imageDeletionRepository.findDueForUpdate(now, PageRequest.of(0, BATCH_SIZE));
+            for (ImageDeletion d : due) {
+                d.setAttempts(d.getAttempts() + 1);
+                d.setNextAttemptAt(now.plus(CLAIM_LEASE));
+            }
+            return due;
+        });
+    }
+
+    private void record(List<Long> done, List<ImageDeletion> failed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!done.isEmpty()) imageDeletionRepository.deleteAllByIdInBatch(done);
+            OffsetDateTime now = OffsetDateTime.now();
+            for (ImageDeletion d : failed) {
+                if (d.getAttempts() >= MAX_ATTEMPTS) {
+                    d.setStatus(ImageDeletion.DEAD);
+                    log.warn("ImageCleanupService: Giving up on deleting {} after {} attempts: {}", d.getUrl(),
+                            d.getAttempts(), d.getLastError());
+                } else {
+                    d.setNextAttemptAt(now.plus(backoff(d.getAttempts())));
+                    log.debug("ImageCleanupService: Deleting {} failed (attempt {}), retrying at {}: {}", d.getUrl(),
+                            d.getAttempts(), d.getNextAttemptAt(), d.getLastError());
+                }
+            }
+            imageDeletionRepository.saveAll(failed);
+        });
+        if (!done.isEmpty()) log.info("ImageCleanupService: Deleted {} stored images", done.size());
+    }
+
+    // 30 s, 1 min, 2 min, ... capped at 6 h
+    static Duration backoff(int attempts) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    // Throws when the object may still exist; an object that is already gone counts as deleted
+    private void deleteStored(ImageDeletion d) {
+        switch (d.getStorage()) {
+            case ImageBlob.S3 -> {
+                S3ImageService s3 = s3ImageService.getIfAvailable();
+                if (s3 == null) throw new IllegalStateException("S3 is not configured");
+                s3.deleteObject(d.getUrl());
+            }
+            case ImageBlob.CLOUDINARY -> {
+                if (!cloudinaryStorageService.delete(d.getPublicId() != null ? d.getPublicId() : d.getUrl())) {
+                    throw new IllegalStateException("Cloudinary did not confirm the deletion");
+                }
+            }
+            default -> {
+                String filename = storageService.extractFilenameFromUrl(d.getUrl());
+                if (filename != null && !storageService.delete(filename)) {
+                    throw new IllegalStateException("Could not delete local file " + filename);
+                }
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
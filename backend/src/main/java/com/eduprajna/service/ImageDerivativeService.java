@@ -0,0 +1,309 @@
+package com.eduprajna.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fixed-width renditions of locally stored product images (GET /images/{filename}?w=).
+ *
+ * A rendition is made on the first request for it and written to a cache directory under
+ * the original's SHA-256 and the rendition width, so re-uploads of the same picture share
+ * files and a replaced image never serves a stale rendition. The directory is bounded by
+ * {@code images.derivatives.max-bytes}; least recently served files are evicted first.
+ * Originals narrower than the rendition, and formats ImageIO cannot decode (SVG, WebP,
+ * AVIF), are served as they are.
+ */
+@Service
+public class ImageDerivativeService {
+    private final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    // Larger originals are served as they are rather than decoded into memory
+    static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+
+    public enum Rendition {
+        THUMB(160), CARD(480), DETAIL(1080);
+
+        public final int width;
+
+        Rendition(int width) {
+            this.width = width;
+        }
+
+        /** The smallest rendition at least {@code w} wide, or the widest one. */
+        public static Rendition forWidth(int w) {
+            for (Rendition r : values()) {
+                if (r.width >= w) return r;
+            }
+            return DETAIL;
+        }
+    }
+
+    /** A cached rendition file and its media type. */
+    public record Derivative(Path path, MediaType mediaType) {}
+
+    // Source file identity, for reusing the content hash while the file is unchanged
+    private record SourceKey(String path, long size, long lastModified) {}
+
+    private final StorageService storageService;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    // Cached files in least-recently-served order, with their sizes; guarded by itself
+    private final LinkedHashMap<String, Long> lru = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+    private final Map<SourceKey, String> sourceHashes = new ConcurrentHashMap<>();
+    // One generator per cache file; concurrent first requests wait for it
+    private final Map<String, Object> generating = new ConcurrentHashMap<>();
+    // "<hash>_<width>" keys whose original is served as is (narrow enough, too large or not
+    // decodable); known from the content alone, so later requests skip reading the file
+    private final Set<String> servedAsOriginal = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(StorageService storageService,
+            @Value("${images.derivatives.dir:./uploads-derivatives}") String cacheDir,
+            @Value("${images.derivatives.max-bytes:268435456}") long maxBytes) throws IOException {
+        this.storageService = storageService;
+        this.cacheDir = Path.of(cacheDir).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        Files.createDirectories(this.cacheDir);
+        loadExisting();
+    }
+
+    /**
+     * The rendition of {@code filename} for a requested width, creating it when missing. Empty
+     * when the original should be served instead (missing, not decodable, or already narrow
+     * enough).
+     */
+    public Optional<Derivative> rendition(String filename, int requestedWidth) {
+        File source = storageService.getFile(filename);
+        if (source == null || !source.isFile()) return Optional.empty();
+        Rendition rendition = Rendition.forWidth(requestedWidth);
+        try {
+            String hash = sourceHash(source);
+            if (servedAsOriginal.contains(hash + "_" + rendition.width)) return Optional.empty();
+            // A rendition is a JPEG unless the source has transparency; try both names
+            for (String ext : new String[] { "jpg", "png" }) {
+                String name = hash + "_" + rendition.width + "." + ext;
+                if (touch(name)) return Optional.of(derivative(name));
+            }
+            String name = generate(source, hash, rendition);
+            return name != null ? Optional.of(derivative(name)) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("ImageDerivativeService: Could not make {} rendition of {}: {}", rendition, filename,
+                    e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String generate(File source, String hash, Rendition rendition) throws IOException {
+        String key = hash + "_" + rendition.width;
+        Object lock = generating.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                // Another request may have produced it while this one waited
+                for (String ext : new String[] { "jpg", "png" }) {
+                    if (touch(key + "." + ext)) return key + "." + ext;
+                }
+                BufferedImage original = read(source, rendition.width);
+                if (original == null) {
+                    servedAsOriginal.add(key);
+                    return null;
+                }
+
+                boolean alpha = original.getColorModel().hasAlpha();
+                BufferedImage scaled = scale(original, rendition.width, alpha);
+                String name = key + (alpha ? ".png" : ".jpg");
+                Path tmp = Files.createTempFile(cacheDir, key, ".tmp");
+                try {
+                    if (alpha) {
+                        ImageIO.write(scaled, "png", tmp.toFile());
+                    } else {
+                        writeJpeg(scaled, tmp);
+                    }
+                    Files.move(tmp, cacheDir.resolve(name), StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                added(name, Files.size(cacheDir.resolve(name)));
+                log.debug("ImageDerivativeService: Wrote {} ({}x{} -> {} wide)", name, original.getWidth(),
+                        original.getHeight(), rendition.width);
+                return name;
+            }
+        } finally {
+            generating.remove(key, lock);
+        }
+    }
+
+    // Decode the source, or null when ImageIO has no reader for it, it is too large, or it is no
+    // wider than the rendition; the size comes from the header, before any pixels are decoded
+    private static BufferedImage read(File source, int renditionWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                if (width <= renditionWidth) return null;
+                if ((long) width * reader.getHeight(0) > MAX_SOURCE_PIXELS) return null;
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halve with bilinear filtering until within 2x of the target, then do the last step; one
+    // bilinear pass over a large downscale skips most source pixels and aliases badly
+    private static BufferedImage scale(BufferedImage src, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int targetHeight = Math.max(1, (int) Math.round((double) src.getHeight() * width / src.getWidth()));
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = w == width ? targetHeight : Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    // Composite onto white rather than black where the source had no pixels
+                    g.setColor(java.awt.Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w > width);
+        return current;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private String sourceHash(File source) throws IOException {
+        SourceKey key = new SourceKey(source.getAbsolutePath(), source.length(), source.lastModified());
+        String cached = sourceHashes.get(key);
+        if (cached != null) return cached;
+        try (InputStream in = Files.newInputStream(source.toPath())) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) md.update(buffer, 0, n);
+            String hash = HexFormat.of().formatHex(md.digest());
+            sourceHashes.put(key, hash);
+            return hash;
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Derivative derivative(String name) {
+        MediaType type = name.endsWith(".png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+        return new Derivative(cacheDir.resolve(name), type);
+    }
+
+    // Mark a cached file as just served; false if it is not cached
+    private boolean touch(String name) {
+        synchronized (lru) {
+            if (lru.get(name) == null) return false;
+        }
+        if (Files.isRegularFile(cacheDir.resolve(name))) return true;
+        // Removed from disk behind our back
+        synchronized (lru) {
+            Long size = lru.remove(name);
+            if (size != null) cachedBytes -= size;
+        }
+        return false;
+    }
+
+    private void added(String name, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (lru) {
+            Long previous = lru.put(name, size);
+            cachedBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> it = lru.entrySet().iterator();
+            while (cachedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(name)) continue;
+                cachedBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String old : evicted) {
+            try {
+                Files.deleteIfExists(cacheDir.resolve(old));
+            } catch (IOException e) {
+                log.warn("ImageDerivativeService: Could not evict {}: {}", old, e.getMessage());
+            }
+        }
+        if (!evicted.isEmpty()) log.debug("ImageDerivativeService: Evicted {} renditions", evicted.size());
+    }
+
+    // Pick up renditions from earlier runs, oldest first so they are evicted first
+    private void loadExisting() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(Files::isRegularFile)
+                    .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .forEach(p -> {
+                        String name = p.getFileName().toString();
+                        if (name.endsWith(".tmp")) {
+                            p.toFile().delete();
+                        } else {
+                            added(name, p.toFile().length());
+                        }
+                    });
+        }
+        log.info("ImageDerivativeService: {} renditions, {} bytes cached in {}", lru.size(), cachedBytes, cacheDir);
+    }
+}
@@ -0,0 +1,201 @@
+package com.eduprajna.service;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.eduprajna.entity.ImageBlob;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Uploads a product's images concurrently, each through the S3, then Cloudinary, then local
+ * disk fallback chain.
+ *
+ * Uploads mostly wait on the network, so they run on virtual threads; a per-call semaphore
+ * keeps at most {@link #MAX_PARALLEL_UPLOADS} of one request's files in flight. Files are
+ * read from their multipart temp files as streams (hashing included) instead of being copied
+ * onto the heap. Content already in {@link ImageBlobService}'s index resolves to its stored
+ * URL without an upload; reused and new blobs are pinned so they outlive the wait for the
+ * product save. Returned URLs keep the order of the files they came from.
+ */
+@Service
+public class ImageUploadService {
+    private final Logger log = LoggerFactory.getLogger(ImageUploadService.class);
+
+    static final int MAX_PARALLEL_UPLOADS = 4;
+    private static final int SHA256_HEX_LENGTH = 64;
+
+    private final CloudinaryStorageService cloudinaryStorageService;
+    private final StorageService storageService;
+    private final ObjectProvider<S3ImageService> s3ImageService; // absent when S3 is not configured
+    private final ImageBlobService imageBlobService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Where an image was stored; publicId is set for Cloudinary only. */
+    public record StoredImage(String url, String storage, String publicId) {}
+
+    public ImageUploadService(CloudinaryStorageService cloudinaryStorageService, StorageService storageService,
+            ObjectProvider<S3ImageService> s3ImageService, ImageBlobService imageBlobService) {
+        this.cloudinaryStorageService = cloudinaryStorageService;
+        this.storageService = storageService;
+        this.s3ImageService = s3ImageService;
+        this.imageBlobService = imageBlobService;
+    }
+
+    /**
+     * Upload the non-empty files, skipping repeated content, and return one URL per file that
+     * could be stored anywhere, in input order.
+     */
+    public List<String> uploadAll(List<MultipartFile> files) {
+        List<MultipartFile> unique = new ArrayList<>();
+        List<String> uniqueHashes = new ArrayList<>();
+        Set<String> contentHashes = new HashSet<>();
+        for (MultipartFile file : files) {
+            if (file == null || file.isEmpty()) continue;
+            String contentHash = contentHash(file);
+            if (!contentHashes.add(contentHash)) {
+                log.info("Skipping duplicate image based on content hash: {}", contentHash);
+                continue;
+            }
+            unique.add(file);
+            uniqueHashes.add(contentHash);
+        }
+        Map<String, String> indexed = imageBlobService.pinUrls(uniqueHashes);
+        if (unique.size() == 1) {
+            String url = indexed.containsKey(uniqueHashes.get(0)) ? reuse(uniqueHashes.get(0), indexed)
+                    : uploadAndIndex(unique.get(0), uniqueHashes.get(0));
+            return url != null ? List.of(url) : List.of();
+        }
+
+        Semaphore permits = new Semaphore(MAX_PARALLEL_UPLOADS);
+        List<Future<String>> uploads = new ArrayList<>(unique.size());
+        for (int i = 0; i < unique.size(); i++) {
+            MultipartFile file = unique.get(i);
+            String contentHash = uniqueHashes.get(i);
+            if (indexed.containsKey(contentHash)) {
+                uploads.add(CompletableFuture.completedFuture(reuse(contentHash, indexed)));
+                continue;
+            }
+            uploads.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return uploadAndIndex(file, contentHash);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<String> urls = new ArrayList<>(unique.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            try {
+                String url = uploads.get(i).get();
+                if (url != null) urls.add(url);
+            } catch (ExecutionException e) {
+                log.warn("Failed to process image: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploads.subList(i, uploads.size()).forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+        return urls;
+    }
+
+    private String reuse(String contentHash, Map<String, String> indexed) {
+        String url = indexed.get(contentHash);
+        log.info("Image content {} is already stored, reusing {}", contentHash, url);
+        return url;
+    }
+
+    private String uploadAndIndex(MultipartFile img, String contentHash) {
+        StoredImage stored = uploadWithFallback(img);
+        if (stored == null) return null;
+        // Unhashable files are keyed by name and size, which is not safe to share
+        if (contentHash.length() == SHA256_HEX_LENGTH) {
+            imageBlobService.register(contentHash, stored.url(), stored.storage(), stored.publicId(), img.getSize());
+        }
+        return stored.url();
+    }
+
+    /** Store one image: S3 if configured, else Cloudinary, else local disk. Null if all fail. */
+    public StoredImage uploadWithFallback(MultipartFile img) {
+        StoredImage stored = null;
+        String finalUrl = null;
+
+        // Try S3 first (primary storage for production) if available
+        S3ImageService s3 = s3ImageService.getIfAvailable();
+        if (s3 != null) {
+            try {
+                finalUrl = s3.uploadProductImage(img);
+                stored = new StoredImage(finalUrl, ImageBlob.S3, null);
+                log.info("Successfully uploaded image to S3: {}", finalUrl);
+            } catch (Exception s3e) {
+                log.warn("S3 upload failed: {}", s3e.getMessage());
+            }
+        }
+
+        // Fallback to Cloudinary if S3 is not available or failed
+        if (finalUrl == null) {
+            try {
+                CloudinaryStorageService.UploadResult res = cloudinaryStorageService.upload(img);
+                if (res != null && res.getUrl() != null) {
+                    finalUrl = res.getUrl();
+                    // Without a public_id the service fell back to local storage itself
+                    stored = new StoredImage(finalUrl, res.getPublicId() != null ? ImageBlob.CLOUDINARY : ImageBlob.LOCAL,
+                            res.getPublicId());
+                    log.info("Successfully uploaded image to Cloudinary as fallback: {}", finalUrl);
+                }
+            } catch (Exception ce) {
+                log.warn("Cloudinary upload also failed, trying local storage: {}", ce.getMessage());
+
+                // Final fallback to local storage
+                try {
+                    finalUrl = storageService.store(img);
+                    stored = new StoredImage(finalUrl, ImageBlob.LOCAL, null);
+                    log.info("Stored image locally as final fallback: {}", finalUrl);
+                } catch (Exception le) {
+                    log.error("All storage methods failed for image: S3, Cloudinary, and local storage all failed");
+                }
+            }
+        }
+        return stored;
+    }
+
+    // SHA-256 of the file content, read as a stream
+    private static String contentHash(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) md.update(buffer, 0, n);
+            return HexFormat.of().formatHex(md.digest());
+        } catch (Exception e) {
+            // Fallback to filename + size if hashing fails
+            return file.getOriginalFilename() + "_" + file.getSize();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,197 @@
+package com.eduprajna.service;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.entity.MaintenanceJob;
+import com.eduprajna.repository.MaintenanceJobRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs catalog-wide maintenance ({@link MaintenanceTask}s) as resumable background jobs.
+ *
+ * Jobs run one at a time on a single background thread, a chunk per transaction: the task's
+ * writes for the chunk and the job's checkpoint (phase, cursor, counters) commit together.
+ * Jobs that were queued or running when the application stopped are resumed on startup; a
+ * failed job keeps its checkpoint and can be resumed. Only one job per type is active at a
+ * time.
+ */
+@Service
+public class MaintenanceJobService {
+    private final Logger log = LoggerFactory.getLogger(MaintenanceJobService.class);
+
+    public static final int MAX_CHUNK_SIZE = 1000;
+    private static final List<String> ACTIVE = List.of(MaintenanceJob.QUEUED, MaintenanceJob.RUNNING);
+
+    private final Map<String, MaintenanceTask> tasks = new LinkedHashMap<>();
+    private final MaintenanceJobRepository maintenanceJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultChunkSize;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-maintenance");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MaintenanceJobService(List<MaintenanceTask> tasks, MaintenanceJobRepository maintenanceJobRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalog.maintenance.chunk-size:200}") int defaultChunkSize) {
+        tasks.forEach(t -> this.tasks.put(t.type(), t));
+        this.maintenanceJobRepository = maintenanceJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public List<String> types() {
+        return List.copyOf(tasks.keySet());
+    }
+
+    /** Queue a job of {@code type}, or return the one of that type that is already active. */
+    public synchronized MaintenanceJob start(String type, Integer chunkSize) {
+        MaintenanceTask task = tasks.get(type);
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown maintenance job type: " + type + " (expected one of " + types() + ")");
+        }
+        List<MaintenanceJob> active = maintenanceJobRepository.findByTypeAndStatusIn(type, ACTIVE);
+        if (!active.isEmpty()) return active.get(0);
+
+        int size = Math.max(1, Math.min(chunkSize != null ? chunkSize : defaultChunkSize, MAX_CHUNK_SIZE));
+        MaintenanceJob job = maintenanceJobRepository.save(
+                new MaintenanceJob(type, task.phases().get(0), size, task.estimateTotal()));
+        submit(job.getId());
+        log.info("MaintenanceJobService: Queued {} job {}", type, job.getId());
+        return job;
+    }
+
+    /** Continue a failed or cancelled job from its checkpoint. */
+    public synchronized MaintenanceJob resume(Long id) {
+        MaintenanceJob job = get(id);
+        if (job.isActive()) return job;
+        if (MaintenanceJob.COMPLETED.equals(job.getStatus())) {
+            throw new IllegalStateException("Job " + id + " has already completed");
+        }
+        if (!maintenanceJobRepository.findByTypeAndStatusIn(job.getType(), ACTIVE).isEmpty()) {
+            throw new IllegalStateException("Another " + job.getType() + " job is active");
+        }
+        job.setStatus(MaintenanceJob.QUEUED);
+        job.setLastError(null);
+        job.setFinishedAt(null);
+        job = maintenanceJobRepository.save(job);
+        submit(id);
+        return job;
+    }
+
+    /** Stop an active job after its current chunk. */
+    public MaintenanceJob cancel(Long id) {
+        MaintenanceJob job = transactionTemplate.execute(status -> {
+            MaintenanceJob j = get(id);
+            if (j.isActive()) {
+                j.setStatus(MaintenanceJob.CANCELLED);
+                j.setFinishedAt(OffsetDateTime.now());
+            }
+            return j;
+        });
+        return job;
+    }
+
+    public MaintenanceJob get(Long id) {
+        return maintenanceJobRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Maintenance job not found: " + id));
+    }
+
+    public List<MaintenanceJob> recent() {
+        return maintenanceJobRepository.findTop50ByOrderByIdDesc();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        try {
+            for (MaintenanceJob job : maintenanceJobRepository.findByStatusInOrderById(ACTIVE)) {
+                log.info("MaintenanceJobService: Resuming {} job {} at {} / {}", job.getType(), job.getId(),
+                        job.getPhase(), job.getCursor());
+                submit(job.getId());
+            }
+        } catch (Exception e) {
+            log.warn("MaintenanceJobService: Could not resume maintenance jobs: {}", e.getMessage());
+        }
+    }
+
+    private void submit(Long id) {
+        worker.execute(() -> run(id));
+    }
+
+    private void run(Long id) {
+        MaintenanceJob job = maintenanceJobRepository.findById(id).orElse(null);
+        if (job == null || !job.isActive()) return;
+        MaintenanceTask task = tasks.get(job.getType());
+        long start = System.currentTimeMillis();
+        try {
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> runChunk(id, task)));
+            }
+        } catch (Exception e) {
+            log.warn("MaintenanceJobService: {} job {} failed: {}", task != null ? task.type() : "?", id, e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> maintenanceJobRepository.findById(id).ifPresent(j -> {
+                j.setStatus(MaintenanceJob.FAILED);
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                j.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                j.setFinishedAt(OffsetDateTime.now());
+            }));
+            return;
+        }
+        MaintenanceJob done = maintenanceJobRepository.findById(id).orElse(job);
+        log.info("MaintenanceJobService: {} job {} {}: {} processed, {} changed in {} ms", done.getType(), id,
+                done.getStatus().toLowerCase(), done.getProcessed(), done.getChanged(),
+                System.currentTimeMillis() - start);
+    }
+
+    // One chunk and its checkpoint; false when the job is finished or no longer active
+    private boolean runChunk(Long id, MaintenanceTask task) {
+        MaintenanceJob job = get(id);
+        if (!job.isActive()) return false;
+        OffsetDateTime now = OffsetDateTime.now();
+        if (MaintenanceJob.QUEUED.equals(job.getStatus())) {
+            job.setStatus(MaintenanceJob.RUNNING);
+            if (job.getStartedAt() == null) job.setStartedAt(now);
+        }
+
+        MaintenanceTask.Chunk chunk = task.runChunk(job.getPhase(), job.getCursor(), job.getChunkSize());
+        job.setProcessed(job.getProcessed() + chunk.processed());
+        job.setChanged(job.getChanged() + chunk.changed());
+        job.setCursor(chunk.cursor());
+        job.setUpdatedAt(now);
+        if (chunk.phaseDone()) {
+            List<String> phases = task.phases();
+            int next = phases.indexOf(job.getPhase()) + 1;
+            if (next < phases.size()) {
+                job.setPhase(phases.get(next));
+                job.setCursor(null);
+            } else {
+                job.setStatus(MaintenanceJob.COMPLETED);
+                job.setFinishedAt(now);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.eduprajna.service;
+
+import java.util.List;
+
+/**
+ * A catalog-wide maintenance operation that {@link MaintenanceJobService} runs in chunks.
+ *
+ * A task walks its phases in order and each phase by ascending key. {@link #runChunk} is
+ * called inside the job's transaction, so a chunk's writes and the job checkpoint commit
+ * together; after a restart the job continues from the last committed cursor.
+ */
+public interface MaintenanceTask {
+
+    /** Job type name, used in the API and stored on the job row. */
+    String type();
+
+    default List<String> phases() {
+        return List.of("main");
+    }
+
+    /** Rows (or files) the task will visit, for progress reporting; null when unknown. */
+    Long estimateTotal();
+
+    /**
+     * Process up to {@code size} items of {@code phase} after {@code cursor} (null for the start
+     * of the phase).
+     */
+    Chunk runChunk(String phase, String cursor, int size);
+
+    /**
+     * Result of one chunk: the cursor to continue from, how many items were visited and
+     * changed, and whether the phase is finished.
+     */
+    record Chunk(String cursor, int processed, int changed, boolean phaseDone) {
+
+        /** Chunk over id-keyed rows; the phase is done when fewer rows than requested came back. */
+        public static Chunk ofIds(Long lastId, String previousCursor, int processed, int changed, int size) {
+            return new Chunk(lastId != null ? lastId.toString() : previousCursor, processed, changed, processed < size);
+        }
+    }
+
+    static long idAfter(String cursor) {
+        return cursor == null ? 0L : Long.parseLong(cursor);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,8 +17,13 @@ import com.eduprajna.entity.CheckoutSelection;
 import com.eduprajna.entity.Order;
 import com.eduprajna.entity.OrderItem;
 import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductVariant;
 import com.eduprajna.entity.ShippingSnapshot;
 import com.eduprajna.entity.User;
+import com.eduprajna.event.OrderCancellationEvent;
+import com.eduprajna.event.OrderPlacedEvent;
+import com.eduprajna.event.ProductChangeEvent;
+import com.eduprajna.event.StockChangeEvent;
 import com.eduprajna.repository.AddressRepository;
 import com.eduprajna.repository.CartItemRepository;
 import com.eduprajna.repository.CheckoutSelectionRepository;
@@ -39,13 +45,16 @@ public class OrderService {
     private final com.eduprajna.roots.coupons.CouponRepository couponRepo;
     private final com.eduprajna.roots.coupons.CouponRedemptionRepository redemptionRepo;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductVariantService productVariantService;
 
     public OrderService(OrderRepository orderRepo, CartItemRepository cartRepo,
             CheckoutSelectionRepository selectionRepo, AddressRepository addressRepo,
             com.eduprajna.repository.ProductRepository productRepo,
             com.eduprajna.roots.coupons.CouponRepository couponRepo,
             com.eduprajna.roots.coupons.CouponRedemptionRepository redemptionRepo,
-            EmailService emailService) {
+            EmailService emailService, ApplicationEventPublisher eventPublisher,
+            ProductVariantService productVariantService) {
         this.orderRepo = orderRepo;
         this.cartRepo = cartRepo;
         this.selectionRepo = selectionRepo;
@@ -54,6 +63,8 @@ public class OrderService {
         this.couponRepo = couponRepo;
         this.redemptionRepo = redemptionRepo;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        this.productVariantService = productVariantService;
     }
 
     /**
@@ -104,7 +115,10 @@ public class OrderService {
                     // Try variant stock if available
                     try {
                         if (variantId != null && !variantId.isEmpty()) {
-                            Integer variantStock = product.getVariantStock(variantId);
+                            // Variant row first (single indexed read), metadata for rows not yet backfilled
+                            Integer variantStock = productVariantService.find(product.getId(), variantId)
+                                    .map(ProductVariant::getStock)
+                                    .orElseGet(() -> product.getVariantStock(variantId));
                             if (variantStock != null) {
                                 isInStock = variantStock >= qty;
                                 stockInfo = "variant stock: " + variantStock;
@@ -262,8 +276,17 @@ public class OrderService {
             int qty = cartItem.getQuantity() != null ? cartItem.getQuantity() : 0;
 
             try {
+                StockChangeEvent stockChange = null;
                 boolean hasVariants = product.hasVariants();
-                if (variantId != null && !variantId.isEmpty() && hasVariants) {
+                if (variantId != null && !variantId.isEmpty()
+                        && productVariantService.decrementStock(product.getId(), variantId, qty)) {
+                    // Single-row update on product_variant; the metadata JSON is left untouched
+                    logger.debug("Decremented variant {} stock by {} for product {}", variantId, qty, product.getId());
+                    eventPublisher.publishEvent(ProductChangeEvent.upserted(product));
+                    eventPublisher.publishEvent(new StockChangeEvent(product.getId(), variantId,
+                            productVariantService.currentStock(product.getId(), variantId)));
+                    return orderItem;
+                } else if (variantId != null && !variantId.isEmpty() && hasVariants) {
                     // Update variant stock
                     List<Map<String, Object>> variants = product.getVariantsInternal();
                     for (Map<String, Object> variant : variants) {
@@ -281,6 +304,7 @@ public class OrderService {
                             }
                             int newStock = Math.max(currentStock - qty, 0);
                             variant.put("stock", newStock);
+                            stockChange = new StockChangeEvent(product.getId(), variantId, newStock);
                             logger.debug("Updated variant {} stock from {} to {}", variantId, currentStock, newStock);
                             break;
                         }
@@ -293,10 +317,13 @@ public class OrderService {
                     int newQty = Math.max(available - qty, 0);
                     product.setStockQuantity(newQty);
                     product.setInStock(newQty > 0);
+                    stockChange = new StockChangeEvent(product.getId(), null, newQty);
                     logger.debug("Updated main product stock from {} to {}", available, newQty);
                 }
 
                 productRepo.save(product);
+                eventPublisher.publishEvent(ProductChangeEvent.upserted(product));
+                if (stockChange != null) eventPublisher.publishEvent(stockChange);
             } catch (Exception e) {
                 logger.error("Error updating stock for product {}: {}", product.getId(), e.getMessage());
                 // Don't fail the entire order for stock update errors
@@ -308,6 +335,7 @@ public class OrderService {
         // 8. Save order
         Order savedOrder = orderRepo.save(order);
         logger.info("Order created with ID: {} for user: {}", savedOrder.getId(), user.getEmail());
+        eventPublisher.publishEvent(OrderPlacedEvent.of(savedOrder));
 
         // 9. Clear cart after successful order creation
         cartRepo.deleteByUser(user);
@@ -469,6 +497,8 @@ public class OrderService {
                 product.setStockQuantity(newQty);
                 product.setInStock(newQty > 0);
                 productRepo.save(product);
+                eventPublisher.publishEvent(ProductChangeEvent.upserted(product));
+                eventPublisher.publishEvent(new StockChangeEvent(product.getId(), null, newQty));
                 return orderItem;
             }).collect(Collectors.toList());
             order.setItems(orderItems);
@@ -484,6 +514,7 @@ public class OrderService {
         // Save order
         Order savedOrder = orderRepo.save(order);
         logger.info("Online payment order created with ID: {} for user: {}", savedOrder.getId(), user.getEmail());
+        eventPublisher.publishEvent(OrderPlacedEvent.of(savedOrder));
 
         // Update user's order count
         user.incrementTotalOrders();
@@ -558,6 +589,12 @@ public class OrderService {
         Order updatedOrder = orderRepo.save(order);
 
         logger.info("Order {} status updated from '{}' to '{}'", orderId, oldStatus, status);
+
+        // Cancelled orders do not count as sales
+        boolean cancelled = "cancelled".equals(status);
+        if (cancelled != "cancelled".equals(oldStatus)) {
+            eventPublisher.publishEvent(OrderCancellationEvent.of(updatedOrder, cancelled));
+        }
         System.out.println("✅ Database updated successfully");
 
         // Send email notification if status actually changed
@@ -0,0 +1,82 @@
+package com.eduprajna.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import com.eduprajna.entity.Product;
+
+/**
+ * Computes the canonical audiences a product is listed under, stored in
+ * {@code product_audience} on save so a type filter is one indexed lookup.
+ *
+ * A product always belongs to its own type. It also belongs to Dog, Cat, Pharmacy or Outlet
+ * when its pet type or metadata type/petType says so, and to Dog, Cat or Pharmacy when its
+ * category names them as a whole word ("Dog Food", "Cat Litter", "Supplements"), so
+ * "Medicated Shampoo" is not a Cat product. Audiences are lower case.
+ */
+public final class ProductAudienceClassifier {
+
+    static final int MAX_LENGTH = 50;
+
+    // Category words that put a product under Dog, Cat or Pharmacy
+    private static final Set<String> DOG_WORDS = Set.of("dog", "dogs", "puppy", "puppies");
+    private static final Set<String> CAT_WORDS = Set.of("cat", "cats", "kitten", "kittens");
+    private static final Set<String> PHARMACY_WORDS = Set.of("pharmacy", "medicine", "medicines",
+            "supplement", "supplements", "prescription", "prescriptions");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^\\p{L}]+");
+
+    private ProductAudienceClassifier() {
+    }
+
+    public static Set<String> classify(Product p) {
+        Set<String> audiences = new TreeSet<>();
+        if (p == null) return audiences;
+
+        addKey(audiences, p.getType());
+        addKnown(audiences, p.getPetType());
+        Map<String, Object> md = p.getMetadata();
+        if (md != null) {
+            Object metaType = md.get("type");
+            Object metaPetType = md.get("petType");
+            if (metaType != null) addKnown(audiences, metaType.toString());
+            if (metaPetType != null) addKnown(audiences, metaPetType.toString());
+        }
+
+        String cat = key(p.getCategory());
+        if (cat != null) {
+            for (String word : NON_LETTERS.split(cat)) {
+                if (DOG_WORDS.contains(word)) audiences.add("dog");
+                if (CAT_WORDS.contains(word)) audiences.add("cat");
+                if (PHARMACY_WORDS.contains(word)) audiences.add("pharmacy");
+            }
+        }
+        return audiences;
+    }
+
+    /** Audience key for a type filter value ("Dog" -> "dog"), null when blank. */
+    public static String key(String value) {
+        if (value == null || value.isBlank()) return null;
+        String k = value.trim().toLowerCase(Locale.ROOT);
+        return k.length() > MAX_LENGTH ? k.substring(0, MAX_LENGTH) : k;
+    }
+
+    private static void addKey(Set<String> audiences, String value) {
+        String k = key(value);
+        if (k != null) audiences.add(k);
+    }
+
+    // Free-text fields only count when they name one of the listing types
+    private static void addKnown(Set<String> audiences, String value) {
+        String k = key(value);
+        if (k == null) return;
+        for (String type : CatalogAliases.TYPES) {
+            if (type.equalsIgnoreCase(k)) {
+                audiences.add(k);
+                return;
+            }
+        }
+    }
+}
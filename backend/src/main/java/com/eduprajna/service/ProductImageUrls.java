@@ -0,0 +1,80 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * URL-level duplicate detection for product image lists, shared by product updates and the
+ * duplicate image maintenance job: the same file stored under local, Cloudinary and S3 URLs
+ * is recognized by its file name.
+ */
+public final class ProductImageUrls {
+    private static final Logger log = LoggerFactory.getLogger(ProductImageUrls.class);
+
+    private ProductImageUrls() {}
+
+    // Remove duplicate image URLs using sophisticated pattern matching
+    public static List<String> removeDuplicates(List<String> imageUrls) {
+        if (imageUrls == null || imageUrls.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<String> uniqueImages = new HashSet<>();
+        List<String> result = new ArrayList<>();
+
+        for (String url : imageUrls) {
+            if (url == null || url.trim().isEmpty())
+                continue;
+
+            String normalizedUrl = normalizeImageUrl(url);
+
+            // Only add if we haven't seen this normalized URL before
+            if (uniqueImages.add(normalizedUrl)) {
+                result.add(url); // Keep original URL format
+                log.debug("Added unique image: {} (normalized: {})", url, normalizedUrl);
+            } else {
+                log.debug("Skipped duplicate image: {} (normalized: {})", url, normalizedUrl);
+            }
+        }
+
+        log.info("Deduplication: {} original URLs -> {} unique URLs", imageUrls.size(), result.size());
+        return result;
+    }
+
+    // Normalize image URLs to detect duplicates with different formats
+    static String normalizeImageUrl(String url) {
+        if (url == null)
+            return "";
+
+        String normalized = url.trim().toLowerCase();
+
+        // Extract filename from both local and cloud URLs
+        String filename = null;
+
+        if (normalized.contains("/admin/products/images/")) {
+            // Local URL: /admin/products/images/1768898387861_image.jpg
+            filename = normalized.substring(normalized.lastIndexOf('/') + 1);
+        } else if (normalized.contains("cloudinary.com")) {
+            // Cloudinary URL: extract filename from path
+            filename = normalized.substring(normalized.lastIndexOf('/') + 1);
+        } else if (normalized.contains("amazonaws.com")) {
+            // S3 URL: extract filename from path
+            filename = normalized.substring(normalized.lastIndexOf('/') + 1);
+        } else {
+            // Use full URL as fallback
+            filename = normalized;
+        }
+
+        // Remove query parameters and fragments
+        if (filename != null && filename.contains("?")) {
+            filename = filename.substring(0, filename.indexOf("?"));
+        }
+
+        return filename != null ? filename : normalized;
+    }
+}
@@ -0,0 +1,284 @@
+package com.eduprajna.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.dto.ProductImportResultDTO;
+import com.eduprajna.entity.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streaming catalog import (POST /api/admin/products/import).
+ *
+ * Rows are read one at a time from CSV (header row; "metadata.&lt;key&gt;" columns go into
+ * metadata) or NDJSON (one product object per line), normalized by the caller, validated and
+ * buffered into chunks. Each chunk is inserted in one transaction and the persistence context
+ * is cleared after it, so memory stays flat however long the upload is. A chunk that fails to
+ * commit is retried row by row so the error lands on the offending rows only.
+ */
+@Service
+public class ProductImportService {
+    private final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final int MAX_BATCH_SIZE = 2000;
+    // Later errors are counted but not listed
+    public static final int MAX_REPORTED_ERRORS = 200;
+    private static final String METADATA_PREFIX = "metadata.";
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(MediaType contentType) {
+            if (contentType != null && contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) return CSV;
+            return NDJSON;
+        }
+    }
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int defaultBatchSize;
+
+    public ProductImportService(ProductService productService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, EntityManager entityManager,
+            @Value("${catalog.import.batch-size:500}") int defaultBatchSize) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.defaultBatchSize = defaultBatchSize;
+    }
+
+    /**
+     * Import every row of {@code in} as a new product. {@code normalizer} runs on each parsed
+     * row before validation (the same field normalization as the admin form).
+     */
+    public ProductImportResultDTO importProducts(InputStream in, Format format, Integer batchSize,
+            Consumer<Product> normalizer) throws IOException {
+        int size = Math.max(1, Math.min(batchSize != null ? batchSize : defaultBatchSize, MAX_BATCH_SIZE));
+        Report report = new Report();
+        long start = System.nanoTime();
+
+        try (RowReader reader = format == Format.CSV ? new CsvRowReader(in) : new NdjsonRowReader(in)) {
+            List<Row> chunk = new ArrayList<>(size);
+            Row row;
+            while ((row = reader.next()) != null) {
+                report.rowsRead++;
+                String error = row.error != null ? row.error : prepare(row.product, normalizer);
+                if (error != null) {
+                    report.fail(row.line, error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == size) {
+                    write(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) write(chunk, report);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMs > 0 ? report.rowsRead * 1000.0 / elapsedMs : report.rowsRead;
+        log.info("ProductImportService: {} import read {} rows, imported {}, failed {} in {} ms ({} rows/s)",
+                format, report.rowsRead, report.imported, report.failed, elapsedMs, Math.round(rowsPerSecond));
+        return new ProductImportResultDTO(format.name(), report.rowsRead, report.imported, report.failed,
+                report.batches, elapsedMs, rowsPerSecond, report.errors, report.failed > report.errors.size());
+    }
+
+    // Normalize and validate one row; returns the error, or null when the row can be inserted
+    private String prepare(Product p, Consumer<Product> normalizer) {
+        if (p == null) return "Empty row";
+        if (p.getId() != null) return "id must be empty: import only creates products";
+        try {
+            // Throws for rows the admin form would reject as well (missing name or brand)
+            normalizer.accept(p);
+        } catch (RuntimeException e) {
+            return rootMessage(e);
+        }
+        if (p.getName() == null || p.getName().isBlank()) return "name is required";
+        if (p.getName().length() > 255) return "name is longer than 255 characters";
+        if (p.getPrice() != null && p.getPrice() < 0) return "price must not be negative";
+        if (p.getOriginalPrice() != null && p.getOriginalPrice() < 0) return "originalPrice must not be negative";
+        if (p.getStockQuantity() != null && p.getStockQuantity() < 0) return "stockQuantity must not be negative";
+        if (p.getIsActive() == null) p.setIsActive(true);
+        return null;
+    }
+
+    private void write(List<Row> chunk, Report report) {
+        report.batches++;
+        try {
+            insert(chunk);
+            report.imported += chunk.size();
+        } catch (RuntimeException e) {
+            log.debug("ProductImportService: Batch of {} rows failed ({}), retrying row by row",
+                    chunk.size(), rootMessage(e));
+            for (Row row : chunk) {
+                try {
+                    insert(List.of(row));
+                    report.imported++;
+                } catch (RuntimeException rowError) {
+                    report.fail(row.line, rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void insert(List<Row> rows) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            // A rolled-back attempt may have assigned an id
+            row.product.setId(null);
+            products.add(row.product);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.saveAllNew(products);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) root = root.getCause();
+        String message = root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+        return message.length() > 300 ? message.substring(0, 300) : message;
+    }
+
+    private static final class Report {
+        long rowsRead;
+        long imported;
+        long failed;
+        int batches;
+        final List<ProductImportResultDTO.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ProductImportResultDTO.RowError(line, message));
+        }
+    }
+
+    // A parsed row: the product, or the reason it could not be parsed
+    private static final class Row {
+        final long line;
+        final Product product;
+        final String error;
+
+        Row(long line, Product product, String error) {
+            this.line = line;
+            this.product = product;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader extends Closeable {
+        /** The next row, or null at the end of the input. */
+        Row next() throws IOException;
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) continue;
+                try {
+                    return new Row(line, objectMapper.readValue(text, Product.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private final class CsvRowReader implements RowReader {
+        private final MappingIterator<Map<String, String>> rows;
+
+        CsvRowReader(InputStream in) throws IOException {
+            this.rows = csvMapper.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!rows.hasNextValue()) return null;
+            long line = rows.getParser().currentLocation().getLineNr();
+            try {
+                return new Row(line, toProduct(rows.nextValue()), null);
+            } catch (IOException | RuntimeException e) {
+                return new Row(line, null, "Invalid row: " + rootMessage(e));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+
+    // CSV cells are strings; Jackson coerces them to the field types. Blank cells are left unset.
+    // Metadata cells holding a JSON array or object (variants, images) are parsed as JSON.
+    private Product toProduct(Map<String, String> cells) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        ObjectNode metadata = objectMapper.createObjectNode();
+        for (Map.Entry<String, String> cell : cells.entrySet()) {
+            String key = cell.getKey() == null ? "" : cell.getKey().trim();
+            String value = cell.getValue() == null ? "" : cell.getValue().trim();
+            if (key.isEmpty() || value.isEmpty()) continue;
+            if (key.startsWith(METADATA_PREFIX)) {
+                metadata.set(key.substring(METADATA_PREFIX.length()), metadataValue(value));
+            } else {
+                node.put(key, value);
+            }
+        }
+        if (!metadata.isEmpty()) node.set("metadata", metadata);
+        return objectMapper.treeToValue(node, Product.class);
+    }
+
+    private JsonNode metadataValue(String value) throws IOException {
+        char first = value.charAt(0);
+        if (first == '[' || first == '{') return objectMapper.readTree(value);
+        return objectMapper.getNodeFactory().textNode(value);
+    }
+}
@@ -0,0 +1,294 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.eduprajna.entity.Product;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Copies column values (features, nutrition, pharmacy, filters, pricing) back into
+ * product metadata in the shape the frontend expects.
+ *
+ * This runs on the write path ({@link ProductService#save}) and the result is stored, so
+ * reads serialize the product as-is. {@link #READ_MODEL_VERSION} is stamped on the row; bump
+ * it when the output shape (or the audience classification saved alongside it) changes and
+ * older rows are re-materialized at startup.
+ */
+@Component
+public class ProductMetadataEnricher {
+    private final Logger log = LoggerFactory.getLogger(ProductMetadataEnricher.class);
+
+    // 2: audiences (ProductAudienceClassifier) are stored with the read model
+    // 3: filter key columns (Product.updateFilterKeys) are filled on the re-save
+    // 4: category audience rules match whole words only
+    public static final int READ_MODEL_VERSION = 4;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<List<Object>> LIST_TYPE = new TypeReference<>() {};
+
+    public static boolean isCurrent(Product p) {
+        Integer version = p.getReadModelVersion();
+        return version != null && version >= READ_MODEL_VERSION;
+    }
+
+    /**
+     * Enrich only if the stored read model is missing or older than this code's; a no-op for
+     * rows written since {@link #READ_MODEL_VERSION} was introduced.
+     */
+    public void materialize(Product p) {
+        if (p != null && !isCurrent(p)) enrich(p);
+    }
+
+    // Enrich product metadata with values from separate columns for frontend
+    // compatibility
+    @SuppressWarnings("unchecked")
+    public void enrich(Product p) {
+        if (p == null)
+            return;
+        try {
+            Map<String, Object> md = p.getMetadata();
+            if (md == null)
+                md = new HashMap<>();
+
+            // Only add essential data that frontend needs for display
+            // Avoid duplicating data that's already in columns
+
+            // Add features as array format for frontend (parse JSON string back to array);
+            // a plain string is a single feature
+            List<String> features = parseStringList(p.getFeatures());
+            if (features == null && p.getFeatures() != null && !p.getFeatures().isBlank()) {
+                features = new ArrayList<>(List.of(p.getFeatures()));
+            }
+            md.put("features", features != null ? features : new ArrayList<>());
+
+            // Add nutrition object for frontend convenience
+            Map<String, String> nutrition = new HashMap<>();
+            if (p.getNutritionProtein() != null && !p.getNutritionProtein().isBlank()) {
+                nutrition.put("protein", p.getNutritionProtein());
+            }
+            if (p.getNutritionFat() != null && !p.getNutritionFat().isBlank()) {
+                nutrition.put("fat", p.getNutritionFat());
+            }
+            if (p.getNutritionFiber() != null && !p.getNutritionFiber().isBlank()) {
+                nutrition.put("fiber", p.getNutritionFiber());
+            }
+            if (p.getNutritionMoisture() != null && !p.getNutritionMoisture().isBlank()) {
+                nutrition.put("moisture", p.getNutritionMoisture());
+            }
+            if (p.getNutritionAsh() != null && !p.getNutritionAsh().isBlank()) {
+                nutrition.put("ash", p.getNutritionAsh());
+            }
+            if (p.getNutritionCalories() != null && !p.getNutritionCalories().isBlank()) {
+                nutrition.put("calories", p.getNutritionCalories());
+            }
+            if (!nutrition.isEmpty()) {
+                md.put("nutrition", nutrition);
+            }
+
+            // Parse flavors and colors from JSON strings to arrays if needed
+            putList(md, "flavors", p.getFlavors());
+            putList(md, "colors", p.getColors());
+
+            // Add pharmacy object for frontend convenience (include all stored pharmacy
+            // columns)
+            Map<String, Object> pharmacy = new HashMap<>();
+            if (p.getPrescriptionRequired() != null) {
+                pharmacy.put("prescriptionRequired", p.getPrescriptionRequired());
+            }
+            if (p.getDosageForm() != null && !p.getDosageForm().isBlank()) {
+                pharmacy.put("dosageForm", p.getDosageForm());
+            }
+            if (p.getStrength() != null && !p.getStrength().isBlank()) {
+                pharmacy.put("strength", p.getStrength());
+            }
+            if (p.getActiveIngredient() != null && !p.getActiveIngredient().isBlank()) {
+                pharmacy.put("activeIngredient", p.getActiveIngredient());
+            }
+            if (p.getManufacturer() != null && !p.getManufacturer().isBlank()) {
+                pharmacy.put("manufacturer", p.getManufacturer());
+            }
+            if (p.getIndications() != null && !p.getIndications().isBlank()) {
+                pharmacy.put("indications", p.getIndications());
+            }
+            if (p.getContraindications() != null && !p.getContraindications().isBlank()) {
+                pharmacy.put("contraindications", p.getContraindications());
+            }
+            if (p.getExpiryDate() != null && !p.getExpiryDate().isBlank()) {
+                pharmacy.put("expiryDate", p.getExpiryDate());
+            }
+            if (!pharmacy.isEmpty()) {
+                md.put("pharmacy", pharmacy);
+            }
+
+            // Ensure a structured `manufacturer` object is available in metadata
+            try {
+                // Prefer explicit manufacturer column value
+                if (p.getManufacturer() != null && !p.getManufacturer().isBlank()) {
+                    Map<String, Object> m = new HashMap<>();
+                    m.put("name", p.getManufacturer());
+                    // add extra fields from columns if available
+                    if (p.getManufacturerAddress() != null) m.put("address", p.getManufacturerAddress());
+                    if (p.getCountryOfOrigin() != null) m.put("countryOfOrigin", p.getCountryOfOrigin());
+                    if (p.getSku() != null) m.put("sku", p.getSku());
+                    if (p.getMarketedBy() != null) m.put("marketedBy", p.getMarketedBy());
+                    md.put("manufacturer", m);
+                } else {
+                    // If pharmacy.manufacturer exists, map it into metadata.manufacturer
+                    Object pharmacyMan = pharmacy.get("manufacturer");
+                    if (pharmacyMan != null) {
+                        if (pharmacyMan instanceof Map) {
+                            md.put("manufacturer", pharmacyMan);
+                        } else {
+                            Map<String, Object> m = new HashMap<>();
+                            m.put("name", pharmacyMan.toString());
+                            md.put("manufacturer", m);
+                        }
+                    } else {
+                        // If metadata already contains a manufacturer (string), convert to object
+                        Object existing = md.get("manufacturer");
+                        if (existing instanceof String) {
+                            Map<String, Object> m = new HashMap<>();
+                            m.put("name", existing.toString());
+                            md.put("manufacturer", m);
+                        }
+                    }
+                }
+            } catch (Exception ignore) {
+            }
+
+            // Export SKU / country / manufacturer address / marketedBy into metadata for frontend
+            try {
+                if (p.getSku() != null && !p.getSku().isBlank()) md.put("sku", p.getSku());
+                if (p.getCountryOfOrigin() != null && !p.getCountryOfOrigin().isBlank()) md.put("countryOfOrigin", p.getCountryOfOrigin());
+                if (p.getManufacturerAddress() != null && !p.getManufacturerAddress().isBlank()) md.put("manufacturerAddress", p.getManufacturerAddress());
+                if (p.getMarketedBy() != null && !p.getMarketedBy().isBlank()) md.put("marketedBy", p.getMarketedBy());
+            } catch (Exception ignore) {}
+
+            // Add filters object for frontend convenience (from extracted columns)
+            Map<String, Object> filters = new HashMap<>();
+            putList(filters, "brands", p.getBrands());
+            putList(filters, "weights", p.getProductWeights());
+            putList(filters, "priceRanges", p.getPriceRanges());
+            // Add other filter fields as needed by frontend
+            putList(filters, "lifeStages", p.getLifeStages());
+            if (!filters.isEmpty()) {
+                md.put("filters", filters);
+            }
+
+            // If top-level price/originalPrice is missing, try to derive from variants
+            try {
+                Object variantsObj2 = md.get("variants");
+                if (variantsObj2 instanceof List) {
+                    List<?> variantsList2 = (List<?>) variantsObj2;
+                    double minPrice = Double.MAX_VALUE;
+                    double minOriginal = Double.MAX_VALUE;
+                    boolean foundPrice = false;
+                    boolean foundOriginal = false;
+
+                    for (Object varObj : variantsList2) {
+                        if (!(varObj instanceof Map)) continue;
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> v = (Map<String, Object>) varObj;
+
+                        Object pv = v.get("price");
+                        if (pv == null) pv = v.get("sellingPrice");
+                        if (pv == null) pv = v.get("mrp");
+                        Double pval = null;
+                        try {
+                            if (pv instanceof Number) pval = ((Number) pv).doubleValue();
+                            else if (pv != null) {
+                                String s = pv.toString().replaceAll("[^0-9\\.\\-]", "");
+                                if (!s.isBlank()) pval = Double.parseDouble(s);
+                            }
+                        } catch (Exception ignore) {
+                        }
+
+                        if (pval != null) {
+                            foundPrice = true;
+                            if (pval < minPrice) minPrice = pval;
+                        }
+
+                        Object opv = v.get("originalPrice");
+                        if (opv == null) opv = v.get("original_price");
+                        if (opv == null) opv = v.get("mrp");
+                        Double oval = null;
+                        try {
+                            if (opv instanceof Number) oval = ((Number) opv).doubleValue();
+                            else if (opv != null) {
+                                String s = opv.toString().replaceAll("[^0-9\\.\\-]", "");
+                                if (!s.isBlank()) oval = Double.parseDouble(s);
+                            }
+                        } catch (Exception ignore) {
+                        }
+
+                        if (oval != null) {
+                            foundOriginal = true;
+                            if (oval < minOriginal) minOriginal = oval;
+                        }
+                    }
+
+                    if (foundPrice && p.getPrice() == null) {
+                        p.setPrice(minPrice == Double.MAX_VALUE ? null : minPrice);
+                    }
+                    if (foundOriginal && p.getOriginalPrice() == null) {
+                        p.setOriginalPrice(minOriginal == Double.MAX_VALUE ? null : minOriginal);
+                    }
+                    // If originalPrice still missing, set it equal to price for display
+                    if (p.getOriginalPrice() == null && p.getPrice() != null) {
+                        p.setOriginalPrice(p.getPrice());
+                    }
+
+                    // Put pricing back into metadata for frontend convenience
+                    try {
+                        if (p.getPrice() != null) md.put("price", p.getPrice());
+                        if (p.getOriginalPrice() != null) md.put("originalPrice", p.getOriginalPrice());
+                    } catch (Exception ignore) {}
+                }
+            } catch (Exception ignore) {}
+
+            p.setMetadata(md);
+            p.setReadModelVersion(READ_MODEL_VERSION);
+
+        } catch (Exception e) {
+            try {
+                log.warn("Failed to enrich product metadata for {}: {}", p.getId(), e.getMessage());
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private static void putList(Map<String, Object> target, String key, String raw) {
+        List<String> values = parseStringList(raw);
+        if (values != null) target.put(key, values);
+    }
+
+    // Columns hold JSON arrays of strings; returns null when the value is not an array
+    static List<String> parseStringList(String raw) {
+        if (raw == null) return null;
+        String s = raw.trim();
+        if (!s.startsWith("[") || !s.endsWith("]")) return null;
+        List<String> out = new ArrayList<>();
+        try {
+            for (Object item : JSON.readValue(s, LIST_TYPE)) {
+                if (item == null) continue;
+                String value = item.toString().trim();
+                if (!value.isEmpty()) out.add(value);
+            }
+        } catch (Exception e) {
+            // Hand-edited, not quite JSON (e.g. [Chicken, "Fish"]): split on commas
+            for (String item : s.substring(1, s.length() - 1).split(",")) {
+                String value = item.replace("\"", "").trim();
+                if (!value.isEmpty()) out.add(value);
+            }
+        }
+        return out;
+    }
+}
@@ -1,14 +1,23 @@
 package com.eduprajna.service;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.eduprajna.dto.ProductReviewDTO;
@@ -18,6 +27,7 @@ import com.eduprajna.entity.Order;
 import com.eduprajna.entity.Product;
 import com.eduprajna.entity.ProductReview;
 import com.eduprajna.entity.User;
+import com.eduprajna.event.ProductChangeEvent;
 import com.eduprajna.repository.OrderRepository;
 import com.eduprajna.repository.ProductRepository;
 import com.eduprajna.repository.ProductReviewRepository;
@@ -26,6 +36,7 @@ import com.eduprajna.repository.UserRepository;
 @Service
 @Transactional
 public class ProductReviewService {
+    private final Logger log = LoggerFactory.getLogger(ProductReviewService.class);
 
     @Autowired
     private ProductReviewRepository reviewRepository;
@@ -39,10 +50,20 @@ public class ProductReviewService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MaintenanceJobService maintenanceJobService;
+
     /**
      * Create a new product review
      */
     public ProductReviewDTO createReview(String userEmail, Long productId, Integer rating, String comment, String title) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+
         // Validate user
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
@@ -71,7 +92,7 @@ public class ProductReviewService {
         ProductReview review = new ProductReview(user, product, order, rating, comment, title);
         review = reviewRepository.save(review);
 
-        // Update product rating cache (if you want to store it in product)
+        productRepository.addRating(product.getId(), rating, 1);
         updateProductRatingCache(product);
 
         return convertToDTO(review);
@@ -91,30 +112,37 @@ public class ProductReviewService {
     }
 
     /**
-     * Get review statistics for a product
+     * Get review statistics for a product, read from its review aggregates
      */
     public ReviewStatsDTO getProductReviewStats(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-
-        Double averageRating = reviewRepository.getAverageRatingByProduct(product);
-        Long totalReviews = reviewRepository.getReviewCountByProduct(product);
-        List<Object[]> distribution = reviewRepository.getRatingDistributionByProduct(product);
+        long[] aggregate = ratingAggregate(productId);
+        long totalReviews = aggregate[1];
 
-        // Convert to rating distribution
         RatingDistributionDTO[] ratingDistribution = new RatingDistributionDTO[5];
         for (int i = 1; i <= 5; i++) {
-            ratingDistribution[i-1] = new RatingDistributionDTO(i, 0L, 0.0);
+            long count = aggregate[i + 1];
+            Double percentage = totalReviews > 0 ? ((double) count / totalReviews) * 100 : 0.0;
+            ratingDistribution[i-1] = new RatingDistributionDTO(i, count, percentage);
         }
 
-        for (Object[] dist : distribution) {
-            Integer rating = (Integer) dist[0];
-            Long count = (Long) dist[1];
-            Double percentage = totalReviews > 0 ? (count.doubleValue() / totalReviews) * 100 : 0.0;
-            ratingDistribution[rating-1] = new RatingDistributionDTO(rating, count, percentage);
+        double averageRating = totalReviews > 0 ? (double) aggregate[0] / totalReviews : 0.0;
+        return new ReviewStatsDTO(averageRating, totalReviews, ratingDistribution);
+    }
+
+    /**
+     * Deactivate a review; only its author can. A review that is already inactive is left as is.
+     * Not exposed over HTTP: the caller must have authenticated userEmail.
+     */
+    public void deactivateReview(Long reviewId, String userEmail) {
+        ProductReview review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new IllegalArgumentException("Review not found"));
+        if (userEmail == null || !userEmail.equalsIgnoreCase(review.getUser().getEmail())) {
+            throw new IllegalArgumentException("You can only remove your own reviews");
         }
 
-        return new ReviewStatsDTO(averageRating != null ? averageRating : 0.0, totalReviews, ratingDistribution);
+        if (reviewRepository.deactivate(reviewId, OffsetDateTime.now()) == 0) return;
+        productRepository.addRating(review.getProduct().getId(), review.getRating(), -1);
+        updateProductRatingCache(review.getProduct());
     }
 
     /**
@@ -150,27 +178,76 @@ public class ProductReviewService {
     }
 
     /**
-     * Update product rating cache in metadata
+     * Count reviews written before the review aggregates existed, once. Runs outside a
+     * transaction so the queued job is committed before its worker looks it up.
      */
-    private void updateProductRatingCache(Product product) {
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void countExistingReviews() {
         try {
-            Double avgRating = reviewRepository.getAverageRatingByProduct(product);
-            Long reviewCount = reviewRepository.getReviewCountByProduct(product);
-
-            if (product.getMetadata() == null) {
-                product.setMetadata(new java.util.HashMap<>());
+            if (reviewRepository.existsUncountedReview()) {
+                log.info("ProductReviewService: Counting existing reviews into product aggregates");
+                maintenanceJobService.start(ReviewAggregatesTask.TYPE, null);
             }
+        } catch (Exception e) {
+            log.warn("ProductReviewService: Could not check review aggregates: {}", e.getMessage());
+        }
+    }
 
-            product.getMetadata().put("averageRating", avgRating != null ? avgRating : 0.0);
-            product.getMetadata().put("reviewCount", reviewCount != null ? reviewCount : 0L);
+    /**
+     * Update product rating cache (average_rating column and metadata) from the aggregates
+     */
+    private void updateProductRatingCache(Product product) {
+        try {
+            // Includes this transaction's increment; the row stays locked until commit
+            long[] aggregate = ratingAggregate(product.getId());
+            applyRatingCache(product, aggregate[0], aggregate[1]);
 
             productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangeEvent.upserted(product));
         } catch (Exception e) {
             // Log error but don't fail the review creation
             System.err.println("Failed to update product rating cache: " + e.getMessage());
         }
     }
 
+    // Average rating column and its metadata copies from the review aggregates; true when any of
+    // them changed. Shared with the review-aggregates job.
+    static boolean applyRatingCache(Product product, long ratingSum, long reviewCount) {
+        Double avgRating = reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+        double shownRating = avgRating != null ? avgRating : 0.0;
+
+        if (product.getMetadata() == null) {
+            product.setMetadata(new java.util.HashMap<>());
+        }
+        Map<String, Object> metadata = product.getMetadata();
+
+        boolean changed = !Objects.equals(product.getAverageRating(), avgRating)
+            || !(metadata.get("averageRating") instanceof Number shown && shown.doubleValue() == shownRating)
+            || !(metadata.get("reviewCount") instanceof Number count && count.longValue() == reviewCount);
+        if (changed) {
+            metadata.put("averageRating", shownRating);
+            metadata.put("reviewCount", reviewCount);
+            // Indexed column used by the rating sort; stays null until the product has a review
+            product.setAverageRating(avgRating);
+        }
+        return changed;
+    }
+
+    // {sum, count, 1-star, ..., 5-star}; zeros when not counted yet
+    private long[] ratingAggregate(Long productId) {
+        List<Object[]> rows = productRepository.findRatingAggregate(productId);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Product not found");
+        }
+        Object[] row = rows.get(0);
+        long[] aggregate = new long[row.length];
+        for (int i = 0; i < row.length; i++) {
+            aggregate[i] = row[i] instanceof Number n ? n.longValue() : 0L;
+        }
+        return aggregate;
+    }
+
     /**
      * Convert entity to DTO
      */
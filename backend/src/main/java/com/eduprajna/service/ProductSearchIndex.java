@@ -0,0 +1,242 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+import com.eduprajna.entity.Product;
+
+/**
+ * In-memory inverted index over product text, scored with BM25.
+ *
+ * Each field contributes its terms with a weight (a name match counts three times a
+ * description match), and document length is the weighted term count. Postings are kept
+ * in a sorted map so a query term with no exact match can fall back to the terms it is a
+ * prefix of ("chick" -> "chicken"). Updates and searches are guarded by a read/write lock;
+ * searches only take the read lock.
+ */
+public final class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MAX_PREFIX_EXPANSIONS = 10;
+    private static final float PREFIX_MATCH_FACTOR = 0.8f;
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float TAG_WEIGHT = 1.5f;
+    private static final float ACTIVE_INGREDIENT_WEIGHT = 1.5f;
+    private static final float SHORT_DESCRIPTION_WEIGHT = 1.0f;
+    private static final float INGREDIENTS_WEIGHT = 0.7f;
+
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private double totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final class Doc {
+        final String[] terms;
+        final float length;
+
+        Doc(String[] terms, float length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    public static final class Hit {
+        public final long productId;
+        public final float score;
+
+        Hit(long productId, float score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+
+    public static final class Result {
+        public final List<Hit> hits;
+        public final int total;
+
+        Result(List<Hit> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+    }
+
+    public static ProductSearchIndex of(Collection<Product> products) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (Product p : products) index.addUnlocked(p);
+        return index;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Add or replace a product. */
+    public void put(Product p) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(p.getId());
+            addUnlocked(p);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Score every product matching at least one query term and return the best {@code limit}.
+     * Products rejected by {@code filter} are neither returned nor counted.
+     */
+    public Result search(String query, LongPredicate filter, int limit) {
+        List<String> terms = ProductTextAnalyzer.analyze(query);
+        if (terms.isEmpty()) return new Result(List.of(), 0);
+
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            if (n == 0) return new Result(List.of(), 0);
+            double avgLength = totalLength / n;
+
+            List<String> distinct = new ArrayList<>(new LinkedHashSet<>(terms));
+            Map<Long, float[]> acc = new HashMap<>(); // id -> {score, matched query terms}
+            for (String term : distinct) {
+                Set<Long> matched = new HashSet<>();
+                for (Map.Entry<String, Float> e : expand(term).entrySet()) {
+                    Map<Long, Float> posting = postings.get(e.getKey());
+                    double idf = Math.log(1.0 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                    for (Map.Entry<Long, Float> p : posting.entrySet()) {
+                        float tf = p.getValue();
+                        double norm = tf + K1 * (1 - B + B * docs.get(p.getKey()).length / avgLength);
+                        float[] a = acc.computeIfAbsent(p.getKey(), k -> new float[2]);
+                        a[0] += (float) (idf * tf * (K1 + 1) / norm * e.getValue());
+                        if (matched.add(p.getKey())) a[1]++;
+                    }
+                }
+            }
+            return topK(acc, distinct.size(), filter, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Exact term if indexed, otherwise up to MAX_PREFIX_EXPANSIONS terms it is a prefix of
+    private Map<String, Float> expand(String term) {
+        Map<String, Float> out = new LinkedHashMap<>();
+        if (postings.containsKey(term)) {
+            out.put(term, 1.0f);
+            return out;
+        }
+        SortedMap<String, Map<Long, Float>> tail = postings.subMap(term, term + Character.MAX_VALUE);
+        for (String t : tail.keySet()) {
+            out.put(t, PREFIX_MATCH_FACTOR);
+            if (out.size() >= MAX_PREFIX_EXPANSIONS) break;
+        }
+        return out;
+    }
+
+    private Result topK(Map<Long, float[]> acc, int queryTerms, LongPredicate filter, int limit) {
+        PriorityQueue<Hit> heap = new PriorityQueue<>(
+                (x, y) -> x.score != y.score ? Float.compare(x.score, y.score) : Long.compare(y.productId, x.productId));
+        int total = 0;
+        for (Map.Entry<Long, float[]> e : acc.entrySet()) {
+            long id = e.getKey();
+            if (filter != null && !filter.test(id)) continue;
+            total++;
+            float[] a = e.getValue();
+            // Favour documents that match more of the query terms
+            float score = a[0] * (0.5f + 0.5f * Math.min(1f, a[1] / queryTerms));
+            heap.offer(new Hit(id, score));
+            if (heap.size() > limit) heap.poll();
+        }
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort((x, y) -> x.score != y.score ? Float.compare(y.score, x.score) : Long.compare(x.productId, y.productId));
+        return new Result(hits, total);
+    }
+
+    private void addUnlocked(Product p) {
+        if (p == null || p.getId() == null) return;
+        Map<String, Float> tf = weightedTerms(p);
+        if (tf.isEmpty()) return;
+        float length = 0;
+        for (Map.Entry<String, Float> e : tf.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(p.getId(), e.getValue());
+            length += e.getValue();
+        }
+        docs.put(p.getId(), new Doc(tf.keySet().toArray(new String[0]), length));
+        totalLength += length;
+    }
+
+    private void removeUnlocked(Long id) {
+        Doc doc = id == null ? null : docs.remove(id);
+        if (doc == null) return;
+        for (String term : doc.terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(id);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+        totalLength -= doc.length;
+    }
+
+    static Map<String, Float> weightedTerms(Product p) {
+        Map<String, Float> tf = new HashMap<>();
+        addField(tf, p.getName(), NAME_WEIGHT);
+        addField(tf, p.getBrand(), BRAND_WEIGHT);
+        addField(tf, p.getShortDescription(), SHORT_DESCRIPTION_WEIGHT);
+        addField(tf, p.getIngredients(), INGREDIENTS_WEIGHT);
+        addField(tf, p.getActiveIngredient(), ACTIVE_INGREDIENT_WEIGHT);
+        Map<String, Object> md = p.getMetadata();
+        if (md != null) {
+            addField(tf, flatten(md.get("tags")), TAG_WEIGHT);
+            addField(tf, flatten(md.get("badges")), TAG_WEIGHT);
+        }
+        return tf;
+    }
+
+    private static void addField(Map<String, Float> tf, String text, float weight) {
+        for (String term : ProductTextAnalyzer.analyze(text)) {
+            tf.merge(term, weight, Float::sum);
+        }
+    }
+
+    // Tags and badges arrive either as a list or as a comma-separated string
+    private static String flatten(Object value) {
+        if (value == null) return null;
+        if (value instanceof Collection<?>) {
+            StringBuilder sb = new StringBuilder();
+            for (Object o : (Collection<?>) value) {
+                if (o != null) sb.append(o).append(' ');
+            }
+            return sb.toString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.eduprajna.dto.ProductSearchResultDTO;
+import com.eduprajna.entity.Product;
+import com.eduprajna.event.CatalogSnapshotPublishedEvent;
+
+/**
+ * Full-text product search served from a {@link ProductSearchIndex} that follows the
+ * catalog snapshot: rebuilt on a full reload, patched per product on incremental updates.
+ * Searches never touch the database.
+ */
+@Service
+public class ProductSearchService {
+    private final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final AtomicReference<ProductSearchIndex> index = new AtomicReference<>();
+    private volatile CatalogSnapshot snapshot;
+
+    @EventListener
+    public void onSnapshotPublished(CatalogSnapshotPublishedEvent event) {
+        CatalogSnapshot next = event.getSnapshot();
+        ProductSearchIndex current = index.get();
+        if (event.isFullReload() || current == null) {
+            long start = System.currentTimeMillis();
+            index.set(ProductSearchIndex.of(next.getProducts()));
+            log.info("Search index built for snapshot v{} with {} products in {} ms",
+                    next.getVersion(), next.size(), System.currentTimeMillis() - start);
+        } else {
+            for (Long id : event.getChangedIds()) {
+                Product p = next.getById(id);
+                if (p != null) current.put(p);
+                else current.remove(id);
+            }
+        }
+        snapshot = next;
+    }
+
+    /** False until the first catalog snapshot has been indexed. */
+    public boolean isReady() {
+        return index.get() != null;
+    }
+
+    /**
+     * BM25-ranked products for {@code query}, optionally restricted to a type
+     * (Dog, Cat, Pharmacy, Outlet) and to products with available stock.
+     */
+    public ProductSearchResultDTO search(String query, String type, boolean inStockOnly, int limit) {
+        ProductSearchIndex idx = index.get();
+        CatalogSnapshot snap = snapshot;
+        if (idx == null || snap == null) return new ProductSearchResultDTO(query, 0, List.of());
+
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String typeKey = type == null || type.isBlank() ? null : type.trim();
+        LongPredicate filter = id -> {
+            Product p = snap.getById(id);
+            if (p == null) return false;
+            if (inStockOnly && !snap.isInStock(id)) return false;
+            return typeKey == null || snap.hasAudience(id, typeKey);
+        };
+
+        long start = System.nanoTime();
+        ProductSearchIndex.Result result = idx.search(query, filter, max);
+        List<Product> items = new ArrayList<>(result.hits.size());
+        for (ProductSearchIndex.Hit hit : result.hits) {
+            Product p = snap.getById(hit.productId);
+            if (p != null) items.add(p);
+        }
+        log.debug("Search '{}' matched {} products in {} us", query, result.total, (System.nanoTime() - start) / 1000);
+        return new ProductSearchResultDTO(query, result.total, items);
+    }
+}
@@ -1,15 +1,35 @@
 package com.eduprajna.service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.eduprajna.dto.ProductCardDTO;
+import com.eduprajna.dto.ProductPageDTO;
+import com.eduprajna.dto.VariantUpdateDTO;
+import com.eduprajna.dto.VariantUpdateResultDTO;
 import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductVariant;
+import com.eduprajna.event.ProductChangeEvent;
+import com.eduprajna.event.StockChangeEvent;
 import com.eduprajna.repository.CartItemRepository;
 import com.eduprajna.repository.OrderItemRepository;
 import com.eduprajna.repository.ProductRepository;
@@ -19,6 +39,11 @@ import com.eduprajna.repository.WishlistItemRepository;
 @Service
 public class ProductService {
     private final Logger log = LoggerFactory.getLogger(ProductService.class);
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+    // When filtering out-of-stock rows, stop scanning after this many batches and return a short page
+    private static final int MAX_STOCK_FILTER_ROUNDS = 5;
+    private static final int READ_MODEL_BATCH_SIZE = 100;
     @Autowired
     private ProductRepository productRepository;
     
@@ -31,7 +56,33 @@ public class ProductService {
     @Autowired
     private WishlistItemRepository wishlistItemRepository;
     
-    public List<Product> getAll() { return productRepository.findAllActive(); }
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ProductVariantService productVariantService;
+    
+    @Autowired
+    private ProductMetadataEnricher productMetadataEnricher;
+    
+    @Autowired
+    private ImageBlobService imageBlobService;
+    
+    @Autowired
+    private ImageCleanupService imageCleanupService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Products handed out by this service carry live variant stock from product_variant
+    public List<Product> getAll() { return withVariantStock(productRepository.findAllActive()); }
+
+    // Active products after an id, in id order, for chunked maintenance jobs
+    public List<Product> getActiveAfterId(long afterId, int size) {
+        return withVariantStock(productRepository.findActiveAfterId(afterId, PageRequest.of(0, size)));
+    }
+
+    public long countActive() { return productRepository.countActive(); }
     
     // Enhanced type-first filtering method
     public List<Product> getFilteredProductsByType(String type, String category, String subcategory) {
@@ -40,21 +91,19 @@ public class ProductService {
         
         List<Product> results = new ArrayList<>();
         
-        // Type-first filtering with optional category/subcategory refinement
+        // Type-first filtering with optional category/subcategory refinement; the type matches
+        // any product classified under that audience, not only products of that exact type
         if (type != null && !type.isBlank()) {
-            if (category != null && !category.isBlank() && subcategory != null && !subcategory.isBlank()) {
-                // Filter by all three parameters
-                results = productRepository.findByTypeAndCategoryAndSubcategory(type, category, subcategory);
-                log.info("ProductService: findByTypeAndCategoryAndSubcategory returned {} products", results.size());
-            } else if (category != null && !category.isBlank()) {
-                // Filter by type and category
-                results = productRepository.findByTypeAndCategory(type, category);
-                log.info("ProductService: findByTypeAndCategory returned {} products", results.size());
-            } else {
-                // Filter by type only
-                results = productRepository.findByType(type);
-                log.info("ProductService: findByType returned {} products", results.size());
-            }
+            KeyMatch categories = categoriesContaining(category);
+            // Subcategory only narrows a category match, as before
+            KeyMatch subcategories = categories.any() ? KeyMatch.ANY : subcategoriesContaining(subcategory);
+            results = categories.matchesNothing() || subcategories.matchesNothing()
+                    ? new ArrayList<>()
+                    : productRepository.findByAudience(ProductAudienceClassifier.key(type),
+                            categories.any(), categories.keysForQuery(),
+                            subcategories.any(), subcategories.keysForQuery());
+            log.info("ProductService: findByAudience returned {} products", results.size());
+            withVariantStock(results);
         } else {
             // Fallback to category/subcategory filtering
             results = getFilteredProducts(category, subcategory);
@@ -69,33 +118,45 @@ public class ProductService {
         
         List<Product> results = new ArrayList<>();
         
-        // Try exact matches first for better precision
-        if (category != null && !category.isBlank() && subcategory != null && !subcategory.isBlank()) {
+        // Try exact matches first for better precision; both compare the key columns
+        String categoryKey = Product.filterKey(category);
+        String subcategoryKey = Product.filterKey(subcategory);
+        if (categoryKey != null && subcategoryKey != null) {
             log.info("ProductService: Using findByExactCategoryAndSubcategory query");
-            results = productRepository.findByExactCategoryAndSubcategory(category, subcategory);
+            results = productRepository.findByExactCategoryAndSubcategory(categoryKey, subcategoryKey);
             
             // If no exact match found, try partial match
             if (results.isEmpty()) {
                 log.info("ProductService: No exact match found, trying partial match with findByCategoryAndSubcategory");
-                results = productRepository.findByCategoryAndSubcategory(category, subcategory);
+                List<String> categories = productRepository.findCategoryKeysContaining(categoryKey);
+                List<String> subcategories = productRepository.findSubcategoryKeysContaining(subcategoryKey);
+                if (!categories.isEmpty() && !subcategories.isEmpty()) {
+                    results = productRepository.findByCategoryAndSubcategory(categories, subcategories);
+                }
             }
-        } else if (category != null && !category.isBlank()) {
+        } else if (categoryKey != null) {
             log.info("ProductService: Using findByExactCategory query");
-            results = productRepository.findByExactCategory(category);
+            results = productRepository.findByExactCategory(categoryKey);
             
             // If no exact match found, try partial match
             if (results.isEmpty()) {
                 log.info("ProductService: No exact match found, trying partial match with findByCategory");
-                results = productRepository.findByCategory(category);
+                List<String> categories = productRepository.findCategoryKeysContaining(categoryKey);
+                if (!categories.isEmpty()) {
+                    results = productRepository.findByCategory(categories);
+                }
             }
-        } else if (subcategory != null && !subcategory.isBlank()) {
+        } else if (subcategoryKey != null) {
             log.info("ProductService: Using findByExactSubcategory query");
-            results = productRepository.findByExactSubcategory(subcategory);
+            results = productRepository.findByExactSubcategory(subcategoryKey);
             
             // If no exact match found, try partial match
             if (results.isEmpty()) {
                 log.info("ProductService: No exact match found, trying partial match with findBySubcategory");
-                results = productRepository.findBySubcategory(subcategory);
+                List<String> subcategories = productRepository.findSubcategoryKeysContaining(subcategoryKey);
+                if (!subcategories.isEmpty()) {
+                    results = productRepository.findBySubcategory(subcategories);
+                }
             }
         } else {
             log.info("ProductService: Using findAllActive query");
@@ -103,26 +164,374 @@ public class ProductService {
         }
         
         log.info("ProductService: Query returned {} products", results.size());
-        return results;
+        return withVariantStock(results);
+    }
+    
+    /**
+     * Card projections for listing pages, straight from the product columns. The type matches
+     * the product's audiences, as for {@link #getProductPage}.
+     */
+    public List<ProductCardDTO> getProductCards(String type, String category, String subcategory,
+            boolean inStockOnly) {
+        KeyMatch categories = categoriesContaining(category);
+        KeyMatch subcategories = subcategoriesContaining(subcategory);
+        if (categories.matchesNothing() || subcategories.matchesNothing()) return new ArrayList<>();
+        List<ProductCardDTO> cards = productRepository.findCards(blankToNull(type),
+                categories.any(), categories.keysForQuery(), subcategories.any(), subcategories.keysForQuery());
+        if (inStockOnly) cards.removeIf(card -> !card.inStock);
+        return cards;
+    }
+
+    /**
+     * One page of the active catalog in the requested sort order, using keyset pagination:
+     * the cursor carries the sort value and id of the last row read, so the next page is an
+     * index range scan from that position instead of an OFFSET.
+     *
+     * With inStockOnly, rows without available stock (including variant stock) are skipped,
+     * which can take a few extra batches; the returned page may then be shorter than limit
+     * while hasMore is still true.
+     */
+    public ProductPageDTO getProductPage(String type, String category, String subcategory,
+            ProductSort sort, String cursor, int limit, boolean inStockOnly) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable batch = PageRequest.of(0, pageSize + 1);
+        String t = blankToNull(type);
+
+        Object lastValue = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] decoded = decodeCursor(cursor);
+            lastValue = parseSortValue(sort, decoded[0]);
+            lastId = Long.valueOf(decoded[1]);
+        }
+
+        KeyMatch c = categoriesContaining(category);
+        KeyMatch sub = subcategoriesContaining(subcategory);
+        if (c.matchesNothing() || sub.matchesNothing()) {
+            return new ProductPageDTO(new ArrayList<>(), null, false, sort.getParam(), pageSize);
+        }
+
+        List<Product> items = new ArrayList<>(pageSize);
+        boolean hasMore = false;
+        int rounds = 0;
+        scan:
+        while (true) {
+            List<Product> rows = withVariantStock(fetchPage(sort, t, c, sub, inStockOnly, lastValue, lastId, batch));
+            for (Product row : rows) {
+                if (!inStockOnly || CatalogSnapshot.hasAvailableStock(row)) {
+                    if (items.size() == pageSize) {
+                        hasMore = true;
+                        break scan;
+                    }
+                    items.add(row);
+                }
+                lastValue = sortValue(sort, row);
+                lastId = row.getId();
+            }
+            if (rows.size() <= pageSize) break;
+            if (++rounds >= MAX_STOCK_FILTER_ROUNDS) {
+                hasMore = true;
+                break;
+            }
+        }
+
+        String nextCursor = hasMore ? encodeCursor(lastValue, lastId) : null;
+        log.info("ProductService: Page sort={} limit={} returned {} products, hasMore={}",
+                sort.getParam(), pageSize, items.size(), hasMore);
+        return new ProductPageDTO(items, nextCursor, hasMore, sort.getParam(), pageSize);
+    }
+
+    private List<Product> fetchPage(ProductSort sort, String type, KeyMatch c, KeyMatch sub,
+            boolean inStockOnly, Object lastValue, Long lastId, Pageable batch) {
+        boolean anyC = c.any();
+        List<String> cs = c.keysForQuery();
+        boolean anySub = sub.any();
+        List<String> subs = sub.keysForQuery();
+        switch (sort) {
+            case PRICE_ASC:
+                return productRepository.findPageByPriceAsc(type, anyC, cs, anySub, subs, inStockOnly, (Double) lastValue, lastId, batch);
+            case PRICE_DESC:
+                return productRepository.findPageByPriceDesc(type, anyC, cs, anySub, subs, inStockOnly, (Double) lastValue, lastId, batch);
+            case RATING:
+                return productRepository.findPageByRating(type, anyC, cs, anySub, subs, inStockOnly, (Double) lastValue, lastId, batch);
+            case NAME:
+                return productRepository.findPageByName(type, anyC, cs, anySub, subs, inStockOnly, (String) lastValue, lastId, batch);
+            case NEWEST:
+            default:
+                return productRepository.findPageByNewest(type, anyC, cs, anySub, subs, inStockOnly, lastId, batch);
+        }
+    }
+
+    // A "contains" filter on a key column, resolved to the key values it matches. any means no
+    // filter; otherwise an empty key list means nothing can match.
+    private record KeyMatch(boolean any, List<String> keys) {
+        static final KeyMatch ANY = new KeyMatch(true, List.of());
+
+        boolean matchesNothing() {
+            return !any && keys.isEmpty();
+        }
+
+        // IN () is not valid SQL, so the list passed alongside any = true still needs an element
+        List<String> keysForQuery() {
+            return keys.isEmpty() ? List.of("") : keys;
+        }
+    }
+
+    private KeyMatch categoriesContaining(String category) {
+        String term = Product.filterKey(category);
+        return term == null ? KeyMatch.ANY : new KeyMatch(false, productRepository.findCategoryKeysContaining(term));
+    }
+
+    private KeyMatch subcategoriesContaining(String subcategory) {
+        String term = Product.filterKey(subcategory);
+        return term == null ? KeyMatch.ANY : new KeyMatch(false, productRepository.findSubcategoryKeysContaining(term));
+    }
+
+    private static Object sortValue(ProductSort sort, Product p) {
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return p.getPrice();
+            case RATING:
+                return p.getAverageRating();
+            case NAME:
+                return p.getName();
+            default:
+                return null;
+        }
+    }
+
+    private static Object parseSortValue(ProductSort sort, String raw) {
+        if (raw.isEmpty()) return null;
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+            case RATING:
+                return Double.valueOf(raw);
+            case NAME:
+                return raw;
+            default:
+                return null;
+        }
+    }
+
+    // Cursor = base64url("<sort value>|<id>"); an empty sort value stands for NULL
+    private static String encodeCursor(Object value, Long id) {
+        String raw = (value == null ? "" : value.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) throw new IllegalArgumentException("Invalid cursor");
+            String id = raw.substring(sep + 1);
+            Long.parseLong(id);
+            return new String[] { raw.substring(0, sep), id };
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+    
+    @Transactional
+    public Product save(Product p) {
+        // Images the stored row refers to, read before the merge overwrites it
+        Set<String> previousImages = p.getId() == null ? Set.of()
+                : productRepository.findById(p.getId()).map(ImageBlobService::imageUrls).orElse(Set.of());
+        preserveServerManagedFields(p);
+        prepareForWrite(p);
+        Product saved = productRepository.save(p);
+        productVariantService.syncFromMetadata(saved);
+        imageBlobService.updateReferences(previousImages, ImageBlobService.imageUrls(saved));
+        eventPublisher.publishEvent(ProductChangeEvent.upserted(saved));
+        return saved;
     }
     
-    public Product save(Product p) { return productRepository.save(p); }
+    // Bulk insert of new products (catalog import), in the caller's transaction. Variant rows
+    // are inserted directly since new products have none to reconcile.
+    public List<Product> saveAllNew(List<Product> products) {
+        products.forEach(this::prepareForWrite);
+        List<Product> saved = productRepository.saveAll(products);
+        productVariantService.insertFromMetadata(saved);
+        imageBlobService.retain(saved);
+        saved.forEach(p -> eventPublisher.publishEvent(ProductChangeEvent.upserted(p)));
+        return saved;
+    }
+    
+    // Bulk variant stock/price changes for a group of products, in the caller's transaction.
+    // Stock is written to the locked product_variant rows only. The metadata JSON is rewritten,
+    // once per product, when a price changes (listings show the metadata price) or when a
+    // variant has no row yet. Results are in item order.
+    public List<VariantUpdateResultDTO> applyVariantUpdates(List<VariantUpdateDTO> items) {
+        Set<Long> ids = new LinkedHashSet<>();
+        items.forEach(item -> ids.add(item.productId));
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(ids).forEach(p -> products.put(p.getId(), p));
+        Map<Long, Map<String, ProductVariant>> rows = productVariantService.lockRows(products.keySet());
+
+        List<VariantUpdateResultDTO> results = new ArrayList<>(items.size());
+        Set<Product> changed = new LinkedHashSet<>();
+        Set<Product> rewrite = new LinkedHashSet<>();
+        Set<Product> missingRows = new LinkedHashSet<>();
+        for (VariantUpdateDTO item : items) {
+            Product p = products.get(item.productId);
+            if (p == null) {
+                results.add(VariantUpdateResultDTO.error(item, VariantUpdateResultDTO.NOT_FOUND, "Product not found"));
+                continue;
+            }
+            ProductVariant row = rows.getOrDefault(p.getId(), Map.of()).get(item.variantId);
+            Map<String, Object> variant = findVariant(p, item.variantId);
+            if (row == null && variant == null) {
+                results.add(VariantUpdateResultDTO.error(item, VariantUpdateResultDTO.NOT_FOUND, "Variant not found"));
+                continue;
+            }
+
+            Integer currentStock = row != null ? row.getStock() : ProductVariantService.toInteger(variant.get("stock"));
+            Double currentPrice = row != null && row.getPrice() != null ? row.getPrice()
+                    : variant != null ? ProductVariantService.toDouble(variant.get("price")) : null;
+            Integer stock = currentStock;
+            Double price = currentPrice;
+            if (item.stock != null) {
+                stock = item.isDelta() ? Math.max((currentStock != null ? currentStock : 0) + item.stock, 0) : item.stock;
+            }
+            if (item.price != null) {
+                if (item.isDelta() && currentPrice == null) {
+                    results.add(VariantUpdateResultDTO.error(item, VariantUpdateResultDTO.INVALID,
+                            "Variant has no price to change"));
+                    continue;
+                }
+                price = item.isDelta() ? currentPrice + item.price : item.price;
+                if (price < 0) {
+                    results.add(VariantUpdateResultDTO.error(item, VariantUpdateResultDTO.INVALID,
+                            "price must not be negative"));
+                    continue;
+                }
+            }
+
+            if (row != null) {
+                row.setStock(stock != null ? stock : 0);
+                row.setPrice(price);
+            } else {
+                missingRows.add(p);
+            }
+            if (variant != null && (item.price != null || row == null)) {
+                variant.put("stock", stock);
+                variant.put("price", price);
+                rewrite.add(p);
+            }
+            changed.add(p);
+            results.add(new VariantUpdateResultDTO(0, p.getId(), item.variantId, VariantUpdateResultDTO.UPDATED,
+                    stock, price, null));
+        }
+
+        for (Product p : rewrite) {
+            // The rewritten metadata carries the rows' current stock, so the save copies
+            // nothing stale back into product_variant
+            Map<String, ProductVariant> productRows = rows.getOrDefault(p.getId(), Map.of());
+            List<Map<String, Object>> variants = p.getVariantsInternal();
+            for (Map<String, Object> v : variants) {
+                ProductVariant row = v.get("id") == null ? null : productRows.get(v.get("id").toString());
+                if (row != null) v.put("stock", row.getStock());
+            }
+            p.setVariantsInternal(variants);
+            prepareForWrite(p);
+        }
+        productRepository.saveAll(rewrite);
+        missingRows.forEach(productVariantService::syncFromMetadata);
+        changed.forEach(p -> eventPublisher.publishEvent(ProductChangeEvent.upserted(p)));
+        // Price-only items leave stock alone, so they raise no stock event
+        for (int i = 0; i < items.size(); i++) {
+            VariantUpdateResultDTO r = results.get(i);
+            if (items.get(i).stock != null && VariantUpdateResultDTO.UPDATED.equals(r.status)) {
+                eventPublisher.publishEvent(new StockChangeEvent(r.productId, r.variantId, r.stock));
+            }
+        }
+        return results;
+    }
+
+    private static Map<String, Object> findVariant(Product p, String variantId) {
+        for (Map<String, Object> v : p.getVariantsInternal()) {
+            Object id = v == null ? null : v.get("id");
+            if (id != null && id.toString().equals(variantId)) return v;
+        }
+        return null;
+    }
     
     @Transactional
     public void delete(Long id) { 
         // First find the product
         Product product = productRepository.findById(id).orElse(null);
         if (product != null) {
+            // A primary image that predates the image index goes with its product, as before;
+            // indexed images are released below and deleted by the sweep once nothing uses them
+            boolean unindexedImage = !imageBlobService.isIndexed(product.getImageUrl());
             // Delete all related entities first to avoid foreign key constraint violations
             cartItemRepository.deleteByProduct(product);
             orderItemRepository.deleteByProduct(product);
             wishlistItemRepository.deleteByProduct(product);
+            productVariantService.deleteForProduct(id);
             
             // Now delete the product itself
             productRepository.deleteById(id);
+            imageBlobService.updateReferences(ImageBlobService.imageUrls(product), Set.of());
+            if (unindexedImage) imageCleanupService.enqueueUnindexed(product.getImageUrl(), product.getImagePublicId());
+            eventPublisher.publishEvent(ProductChangeEvent.deleted(id));
         }
     }
     
-    public Product getById(Long id) { return productRepository.findById(id).orElse(null); }
+    public Product getById(Long id) {
+        Product p = productRepository.findById(id).orElse(null);
+        productVariantService.applyStock(p);
+        return p;
+    }
+
+    // Materialize derived state once on write so reads use it as stored: enriched metadata
+    // for serialization and canonical audiences for type filtering. The audience set is
+    // replaced, never modified, since the loaded collection may be lazy and detached.
+    private void prepareForWrite(Product p) {
+        productMetadataEnricher.enrich(p);
+        p.setAudiences(ProductAudienceClassifier.classify(p));
+    }
+
+    // Rows written before the read model was stored (or by an older READ_MODEL_VERSION) are
+    // re-materialized and saved once at startup, one transaction (and change version) per batch
+    @EventListener(ApplicationReadyEvent.class)
+    public void materializeStaleReadModels() {
+        try {
+            List<Long> ids = productRepository.findIdsWithReadModelBefore(ProductMetadataEnricher.READ_MODEL_VERSION);
+            if (ids.isEmpty()) return;
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (int i = 0; i < ids.size(); i += READ_MODEL_BATCH_SIZE) {
+                List<Long> batchIds = ids.subList(i, Math.min(ids.size(), i + READ_MODEL_BATCH_SIZE));
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Product> batch = productRepository.findAllById(batchIds);
+                    productVariantService.applyStock(batch);
+                    batch.forEach(this::prepareForWrite);
+                    productRepository.saveAll(batch);
+                    batch.forEach(p -> eventPublisher.publishEvent(ProductChangeEvent.upserted(p)));
+                });
+            }
+            log.info("ProductService: Materialized read model v{} for {} product(s)",
+                    ProductMetadataEnricher.READ_MODEL_VERSION, ids.size());
+        } catch (Exception e) {
+            log.warn("ProductService: Read model backfill failed, reads will enrich on the fly: {}", e.getMessage());
+        }
+    }
+
+    private List<Product> withVariantStock(List<Product> products) {
+        productVariantService.applyStock(products);
+        return products;
+    }
+
+    // Admin updates bind a fresh Product from the request; keep columns the client never sends
+    private void preserveServerManagedFields(Product p) {
+        if (p.getId() == null || p.getAverageRating() != null) return;
+        productRepository.findById(p.getId()).ifPresent(existing -> p.setAverageRating(existing.getAverageRating()));
+    }
     
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.eduprajna.service;
+
+/**
+ * Server-side sort orders for the paginated catalog listing. Each one is backed by a
+ * keyset query in ProductRepository and always ends with id as the tie-breaker.
+ */
+public enum ProductSort {
+    NEWEST("newest"),
+    PRICE_ASC("price_asc"),
+    PRICE_DESC("price_desc"),
+    RATING("rating"),
+    NAME("name");
+
+    private final String param;
+
+    ProductSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Resolve the ?sort= request parameter; blank means {@link #NEWEST}.
+     *
+     * @throws IllegalArgumentException for an unknown sort
+     */
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) return NEWEST;
+        String v = value.trim().toLowerCase().replace('-', '_');
+        for (ProductSort s : values()) {
+            if (s.param.equals(v)) return s;
+        }
+        // Accept the bare field names used by the storefront sort dropdown
+        if ("price".equals(v)) return PRICE_ASC;
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
@@ -0,0 +1,261 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.eduprajna.dto.SuggestionDTO;
+import com.eduprajna.entity.Product;
+import com.eduprajna.event.CatalogSnapshotPublishedEvent;
+
+/**
+ * Typeahead suggestions (product names, brands, categories, subcategory labels) served
+ * from a {@link SuggestTrie}.
+ *
+ * The suggestion dictionary is maintained per product as catalog snapshots are published:
+ * only changed products are re-read, and only the suggestions that actually changed are
+ * removed from and re-added to the trie, so an edit copies just the affected key paths and
+ * the trie is built from scratch only on a full catalog reload. Products are suggested while
+ * in stock, so a stock change to or from zero edits that product's name keys and the keys
+ * of the taxonomy values whose counts moved. Lookups read the current immutable trie
+ * without locking.
+ *
+ * Popularity: a taxonomy value (brand, category, ...) scores the number of in-stock
+ * products carrying it; a product name scores 1 plus its review count. Aliases from
+ * {@link CatalogAliases} are added as synonym keys for the canonical value.
+ */
+@Service
+public class ProductSuggestService {
+    private final Logger log = LoggerFactory.getLogger(ProductSuggestService.class);
+
+    public static final int TOP_K = 10;
+
+    // Taxonomy kinds, in the order that breaks score ties for an alias target
+    private static final List<String> KINDS = List.of("type", "brand", "category", "subcategory");
+
+    private final AtomicReference<SuggestTrie> trie = new AtomicReference<>(SuggestTrie.empty(TOP_K));
+
+    // Dictionary state, only touched on the catalog-snapshot thread
+    private final Map<Long, SuggestionDTO> productNames = new HashMap<>();
+    private final Map<Long, List<TermRef>> taxonomyByProduct = new HashMap<>();
+    private final Map<String, Term> taxonomy = new HashMap<>();
+    // Suggestion each normalized taxonomy text's aliases currently point at
+    private final Map<String, SuggestionDTO> aliasTargets = new HashMap<>();
+    private Map<String, List<String>> aliasesByTarget;
+
+    // One taxonomy value carried by a product; key is "kind|normalized text"
+    private record TermRef(String key, String kind, String text) {
+    }
+
+    private static final class Term {
+        final String text;
+        final String kind;
+        int products;
+        SuggestionDTO suggestion;   // as indexed in the trie, null until indexed
+
+        Term(String text, String kind) {
+            this.text = text;
+            this.kind = kind;
+        }
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        return trie.get().suggest(prefix, limit);
+    }
+
+    @EventListener
+    public void onSnapshotPublished(CatalogSnapshotPublishedEvent event) {
+        CatalogSnapshot snapshot = event.getSnapshot();
+        long start = System.currentTimeMillis();
+        SuggestTrie next;
+        if (event.isFullReload()) {
+            productNames.clear();
+            taxonomyByProduct.clear();
+            taxonomy.clear();
+            aliasTargets.clear();
+            for (Product p : snapshot.getProducts()) {
+                apply(p.getId(), p, snapshot, null, new HashSet<>());
+            }
+            next = build();
+        } else {
+            SuggestTrie.Editor editor = trie.get().edit();
+            Set<Term> touched = new LinkedHashSet<>();
+            for (Long id : event.getChangedIds()) {
+                apply(id, snapshot.getById(id), snapshot, editor, touched);
+            }
+            reindexTerms(touched, editor);
+            if (!editor.hasChanges()) return;
+            next = editor.build();
+        }
+        trie.set(next);
+        log.debug("Suggest trie {} for snapshot v{}: {} keys in {} ms",
+                event.isFullReload() ? "rebuilt" : "updated",
+                snapshot.getVersion(), next.keyCount(), System.currentTimeMillis() - start);
+    }
+
+    // Replace one product's contribution. Its name is re-keyed in editor (when given) right away;
+    // taxonomy values whose counts moved are collected in touched
+    private void apply(Long id, Product p, CatalogSnapshot snapshot, SuggestTrie.Editor editor,
+            Set<Term> touched) {
+        boolean visible = p != null && snapshot.isInStock(id);
+
+        SuggestionDTO oldName = productNames.get(id);
+        SuggestionDTO newName = visible && notBlank(p.getName())
+                ? new SuggestionDTO(p.getName().trim(), "product", id, 1.0 + reviewCount(p))
+                : null;
+        if (!sameSuggestion(oldName, newName)) {
+            if (newName != null) productNames.put(id, newName);
+            else productNames.remove(id);
+            if (editor != null) {
+                if (oldName != null) forWordStarts(oldName.text, key -> editor.remove(key, oldName));
+                if (newName != null) forWordStarts(newName.text, key -> editor.add(key, newName));
+            }
+        }
+
+        List<TermRef> oldTerms = taxonomyByProduct.getOrDefault(id, List.of());
+        List<TermRef> newTerms = visible ? taxonomyRefs(p) : List.of();
+        if (oldTerms.equals(newTerms)) return;
+        if (newTerms.isEmpty()) taxonomyByProduct.remove(id);
+        else taxonomyByProduct.put(id, newTerms);
+
+        for (TermRef ref : oldTerms) {
+            Term t = taxonomy.get(ref.key());
+            if (t == null) continue;
+            touched.add(t);
+            if (--t.products <= 0) taxonomy.remove(ref.key());
+        }
+        for (TermRef ref : newTerms) {
+            Term t = taxonomy.computeIfAbsent(ref.key(), k -> new Term(ref.text(), ref.kind()));
+            touched.add(t);
+            t.products++;
+        }
+    }
+
+    // Re-key the taxonomy values whose product counts changed, then their aliases
+    private void reindexTerms(Set<Term> touched, SuggestTrie.Editor editor) {
+        Set<String> texts = new HashSet<>();
+        for (Term t : touched) {
+            boolean live = t.products > 0 && taxonomy.get(termKey(t.kind, t.text)) == t;
+            SuggestionDTO old = t.suggestion;
+            if (live && old != null && old.score == t.products) continue;
+            if (old != null) forWordStarts(t.text, key -> editor.remove(key, old));
+            t.suggestion = live ? new SuggestionDTO(t.text, t.kind, null, t.products) : null;
+            if (t.suggestion != null) forWordStarts(t.text, key -> editor.add(key, t.suggestion));
+            texts.add(SuggestTrie.normalizeKey(t.text));
+        }
+
+        for (String text : texts) {
+            SuggestionDTO old = aliasTargets.get(text);
+            SuggestionDTO target = canonical(text);
+            if (old == target) continue;
+            if (target != null) aliasTargets.put(text, target);
+            else aliasTargets.remove(text);
+            for (String alias : aliasesByTarget().getOrDefault(text, List.of())) {
+                if (old != null) editor.remove(alias, old);
+                if (target != null) editor.add(alias, target);
+            }
+        }
+    }
+
+    private SuggestTrie build() {
+        SuggestTrie.Builder builder = new SuggestTrie.Builder(TOP_K);
+        for (SuggestionDTO name : productNames.values()) {
+            forWordStarts(name.text, key -> builder.add(key, name));
+        }
+
+        for (Term t : taxonomy.values()) {
+            SuggestionDTO s = new SuggestionDTO(t.text, t.kind, null, t.products);
+            t.suggestion = s;
+            forWordStarts(t.text, key -> builder.add(key, s));
+        }
+
+        // Synonyms: "canine" suggests Dog, "grainfree" suggests Grain Free
+        for (Map.Entry<String, List<String>> e : aliasesByTarget().entrySet()) {
+            SuggestionDTO target = canonical(e.getKey());
+            if (target == null) continue;
+            aliasTargets.put(e.getKey(), target);
+            for (String alias : e.getValue()) builder.add(alias, target);
+        }
+        return builder.build();
+    }
+
+    // Highest-scoring indexed taxonomy value with this normalized text, if any
+    private SuggestionDTO canonical(String text) {
+        SuggestionDTO best = null;
+        for (String kind : KINDS) {
+            Term t = taxonomy.get(kind + "|" + text);
+            if (t == null || t.suggestion == null) continue;
+            if (best == null || t.suggestion.score > best.score) best = t.suggestion;
+        }
+        return best;
+    }
+
+    private Map<String, List<String>> aliasesByTarget() {
+        if (aliasesByTarget == null) {
+            Map<String, List<String>> byTarget = new HashMap<>();
+            for (Map.Entry<String, String> alias : CatalogAliases.aliases().entrySet()) {
+                byTarget.computeIfAbsent(SuggestTrie.normalizeKey(alias.getValue()), k -> new ArrayList<>())
+                        .add(alias.getKey());
+            }
+            aliasesByTarget = byTarget;
+        }
+        return aliasesByTarget;
+    }
+
+    // Each word start of a phrase is a key, so "chicken" finds "Pedigree Chicken Biscuits"
+    private static void forWordStarts(String text, Consumer<String> key) {
+        String normalized = SuggestTrie.normalizeKey(text);
+        key.accept(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            key.accept(normalized.substring(i + 1));
+        }
+    }
+
+    private static String termKey(String kind, String text) {
+        return kind + "|" + SuggestTrie.normalizeKey(text);
+    }
+
+    private static List<TermRef> taxonomyRefs(Product p) {
+        List<TermRef> refs = new ArrayList<>(5);
+        addRef(refs, "type", p.getType());
+        addRef(refs, "brand", p.getBrand());
+        addRef(refs, "category", p.getCategory());
+        addRef(refs, "subcategory", notBlank(p.getSubcategoryLabel()) ? p.getSubcategoryLabel() : p.getSubcategory());
+        return refs;
+    }
+
+    private static void addRef(List<TermRef> refs, String kind, String value) {
+        if (!notBlank(value)) return;
+        TermRef ref = new TermRef(termKey(kind, value), kind, value.trim());
+        for (TermRef r : refs) {
+            if (r.key().equals(ref.key())) return;
+        }
+        refs.add(ref);
+    }
+
+    private static long reviewCount(Product p) {
+        Map<String, Object> md = p.getMetadata();
+        Object count = md == null ? null : md.get("reviewCount");
+        return count instanceof Number ? ((Number) count).longValue() : 0L;
+    }
+
+    private static boolean sameSuggestion(SuggestionDTO a, SuggestionDTO b) {
+        if (a == null || b == null) return a == b;
+        return a.text.equals(b.text) && a.score == b.score;
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -0,0 +1,107 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns product text and search queries into index terms: lower-cases, splits on anything
+ * that is not a letter or digit, drops stop words and applies a light stemmer tuned for
+ * pet-store vocabulary (plurals, "puppies" -> "puppy", "chewing" -> "chew").
+ * The same analysis runs on documents and queries, so both sides meet on the same terms.
+ */
+public final class ProductTextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "as", "at", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+
+    // Irregular forms and pet-food synonyms the suffix rules below would get wrong
+    private static final Map<String, String> EXCEPTIONS = Map.ofEntries(
+            Map.entry("puppies", "puppy"),
+            Map.entry("pups", "puppy"),
+            Map.entry("pup", "puppy"),
+            Map.entry("kittens", "kitten"),
+            Map.entry("kitties", "kitten"),
+            Map.entry("kitty", "kitten"),
+            Map.entry("doggy", "dog"),
+            Map.entry("doggie", "dog"),
+            Map.entry("doggies", "dog"),
+            Map.entry("feline", "cat"),
+            Map.entry("felines", "cat"),
+            Map.entry("canine", "dog"),
+            Map.entry("canines", "dog"),
+            Map.entry("mice", "mouse"),
+            Map.entry("geese", "goose"),
+            Map.entry("species", "species"),
+            Map.entry("dried", "dry"),
+            Map.entry("gravies", "gravy"),
+            Map.entry("herring", "herring"),
+            Map.entry("pudding", "pudding"),
+            Map.entry("breed", "breed"),
+            Map.entry("breeds", "breed"));
+
+    private ProductTextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) return terms;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                start = -1;
+                if (STOP_WORDS.contains(token)) continue;
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        String exception = EXCEPTIONS.get(token);
+        if (exception != null) return exception;
+        if (token.length() <= 3 || !Character.isLetter(token.charAt(token.length() - 1))) return token;
+
+        if (token.endsWith("ies") && token.length() > 4) return token.substring(0, token.length() - 3) + "y";
+        if (token.endsWith("sses")) return token.substring(0, token.length() - 2);
+        if (token.endsWith("ches") || token.endsWith("shes") || token.endsWith("xes")) {
+            return token.substring(0, token.length() - 2);
+        }
+        // Only when a vowel is left, so "string" and "shred" stay whole
+        if (token.endsWith("ing") && token.length() > 5 && hasVowel(token, token.length() - 3)) {
+            return undouble(token.substring(0, token.length() - 3));
+        }
+        if (token.endsWith("ed") && token.length() > 4 && hasVowel(token, token.length() - 2)) {
+            return undouble(token.substring(0, token.length() - 2));
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static boolean hasVowel(String token, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(token.charAt(i)) >= 0) return true;
+        }
+        return false;
+    }
+
+    // "chopped" -> "chopp" -> "chop"
+    private static String undouble(String stem) {
+        int n = stem.length();
+        if (n > 2 && stem.charAt(n - 1) == stem.charAt(n - 2) && "lsz".indexOf(stem.charAt(n - 1)) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,209 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductVariant;
+import com.eduprajna.repository.ProductVariantRepository;
+
+/**
+ * Row-level variant price and stock (product_variant table).
+ *
+ * Stock checks and order decrements are single-row operations on the
+ * (product_id, variant_id) index. The metadata["variants"] JSON stays the authoring
+ * format for labels and prices: every product save copies those into rows and adds or
+ * removes rows to match its variant ids. Stock belongs to the rows: a save only sets it on
+ * rows it inserts, and existing rows change through explicit stock writes (order decrements,
+ * the bulk variant PATCH). {@link #applyStock} writes the live row stock back into loaded
+ * products so listings and the admin form show current values.
+ */
+@Service
+public class ProductVariantService {
+    private final Logger log = LoggerFactory.getLogger(ProductVariantService.class);
+
+    private final ProductVariantRepository variantRepository;
+
+    public ProductVariantService(ProductVariantRepository variantRepository) {
+        this.variantRepository = variantRepository;
+    }
+
+    public Optional<ProductVariant> find(Long productId, String variantId) {
+        if (productId == null || variantId == null || variantId.isEmpty()) return Optional.empty();
+        return variantRepository.findOne(productId, variantId);
+    }
+
+    /**
+     * Decrement stock on the variant row, clamped at zero.
+     * Returns false when the variant has no row yet (caller falls back to metadata).
+     */
+    public boolean decrementStock(Long productId, String variantId, int qty) {
+        if (productId == null || variantId == null || variantId.isEmpty()) return false;
+        return variantRepository.decrementStock(productId, variantId, qty) > 0;
+    }
+
+    /** Stock of a variant row read from the database (a managed row is stale after decrementStock); null when missing. */
+    public Integer currentStock(Long productId, String variantId) {
+        if (productId == null || variantId == null || variantId.isEmpty()) return null;
+        return variantRepository.findStock(productId, variantId);
+    }
+
+    /**
+     * Reconcile the product's variant rows with the variants in its metadata: label and prices
+     * of existing rows, new rows (with their metadata stock) and removed ones. Existing rows
+     * keep their stock, since the metadata copy may predate a concurrent decrement; the saved
+     * metadata is given the rows' stock instead.
+     */
+    @Transactional
+    public void syncFromMetadata(Product product) {
+        if (product == null || product.getId() == null) return;
+        Map<String, ProductVariant> existing = new HashMap<>();
+        for (ProductVariant row : variantRepository.findByProductId(product.getId())) {
+            existing.put(row.getVariantId(), row);
+        }
+
+        List<ProductVariant> upserts = new ArrayList<>();
+        boolean stockReplaced = false;
+        List<Map<String, Object>> variants = product.getVariantsInternal();
+        for (Map<String, Object> v : variants) {
+            String variantId = variantId(v);
+            if (variantId == null) continue;
+            ProductVariant row = existing.remove(variantId);
+            if (row != null && !Objects.equals(toInteger(v.get("stock")), row.getStock())) {
+                v.put("stock", row.getStock());
+                stockReplaced = true;
+            }
+            upserts.add(copyInto(row, product, variantId, v));
+        }
+        variantRepository.saveAll(upserts);
+        if (stockReplaced) product.setVariantsInternal(variants);
+        if (!existing.isEmpty()) {
+            variantRepository.deleteAll(existing.values());
+        }
+        log.debug("ProductVariantService: Synced {} variant row(s) for product {}, removed {}",
+                upserts.size(), product.getId(), existing.size());
+    }
+
+    /**
+     * Variant rows for products that were just inserted. They cannot have rows yet, so this
+     * skips the per-product lookup {@link #syncFromMetadata} needs and saves all rows at once.
+     */
+    @Transactional
+    public void insertFromMetadata(Collection<Product> products) {
+        List<ProductVariant> rows = new ArrayList<>();
+        for (Product product : products) {
+            if (product == null || product.getId() == null) continue;
+            for (Map<String, Object> v : product.getVariantsInternal()) {
+                String variantId = variantId(v);
+                if (variantId != null) rows.add(copyInto(null, product, variantId, v));
+            }
+        }
+        variantRepository.saveAll(rows);
+    }
+
+    /**
+     * Variant rows of the given products by product id and variant id, locked until the
+     * surrounding transaction ends. Changes to the returned rows are written at flush.
+     */
+    @Transactional
+    public Map<Long, Map<String, ProductVariant>> lockRows(Collection<Long> productIds) {
+        Map<Long, Map<String, ProductVariant>> rows = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) return rows;
+        for (ProductVariant row : variantRepository.findByProductIdInForUpdate(productIds)) {
+            rows.computeIfAbsent(row.getProductId(), k -> new HashMap<>()).put(row.getVariantId(), row);
+        }
+        return rows;
+    }
+
+    @Transactional
+    public void deleteForProduct(Long productId) {
+        variantRepository.deleteByProductId(productId);
+    }
+
+    /** Overlay live row stock onto metadata variants, one query for all products. */
+    public void applyStock(Collection<Product> products) {
+        if (products == null || products.isEmpty()) return;
+        List<Long> ids = new ArrayList<>();
+        for (Product p : products) {
+            if (p != null && p.getId() != null && p.hasVariants()) ids.add(p.getId());
+        }
+        if (ids.isEmpty()) return;
+
+        Map<Long, Map<String, Integer>> stockByProduct = new HashMap<>();
+        for (ProductVariant row : variantRepository.findByProductIdIn(ids)) {
+            stockByProduct.computeIfAbsent(row.getProductId(), k -> new HashMap<>())
+                    .put(row.getVariantId(), row.getStock());
+        }
+        for (Product p : products) {
+            Map<String, Integer> stock = p == null ? null : stockByProduct.get(p.getId());
+            if (stock == null) continue;
+            for (Map<String, Object> v : p.getVariantsInternal()) {
+                Object idObj = v.get("id");
+                Integer live = idObj == null ? null : stock.get(idObj.toString());
+                if (live != null) v.put("stock", live);
+            }
+        }
+    }
+
+    public void applyStock(Product product) {
+        if (product != null) applyStock(List.of(product));
+    }
+
+    private static String variantId(Map<String, Object> v) {
+        Object idObj = v == null ? null : v.get("id");
+        return idObj == null || idObj.toString().isBlank() ? null : idObj.toString();
+    }
+
+    // Stock is only copied into new rows
+    private static ProductVariant copyInto(ProductVariant row, Product product, String variantId,
+            Map<String, Object> v) {
+        if (row == null) {
+            row = new ProductVariant();
+            row.setProduct(product);
+            row.setVariantId(variantId);
+            Integer stock = toInteger(v.get("stock"));
+            row.setStock(stock != null ? Math.max(stock, 0) : 0);
+        }
+        Object label = v.get("label");
+        row.setLabel(label != null ? truncate(label.toString(), 150) : null);
+        row.setPrice(toDouble(v.get("price")));
+        row.setOriginalPrice(toDouble(v.get("originalPrice")));
+        return row;
+    }
+
+    static Double toDouble(Object o) {
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        if (o instanceof String && !((String) o).isBlank()) {
+            try {
+                return Double.parseDouble(((String) o).trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return null;
+    }
+
+    static Integer toInteger(Object o) {
+        if (o instanceof Number) return ((Number) o).intValue();
+        if (o instanceof String && !((String) o).isBlank()) {
+            try {
+                return Integer.parseInt(((String) o).trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return null;
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
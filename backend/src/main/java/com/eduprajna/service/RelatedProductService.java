@@ -0,0 +1,271 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.dto.ProductCardDTO;
+import com.eduprajna.entity.CoOccurrenceOrder;
+import com.eduprajna.entity.Product;
+import com.eduprajna.entity.ProductPairCount;
+import com.eduprajna.entity.ProductRelated;
+import com.eduprajna.event.OrderPlacedEvent;
+import com.eduprajna.repository.CoOccurrenceOrderRepository;
+import com.eduprajna.repository.OrderItemRepository;
+import com.eduprajna.repository.ProductPairCountRepository;
+import com.eduprajna.repository.ProductRelatedRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * "Frequently bought together" from order history.
+ *
+ * Orders are folded into a sparse product-by-product co-occurrence matrix
+ * (product_co_occurrence), either in bulk by {@link RelatedProductsTask} or one at a time after
+ * each placed order. Each product's strongest neighbours are kept as one compact
+ * product_related row and in memory, so a lookup is a map get plus a catalog snapshot lookup
+ * per neighbour, whatever the order volume.
+ *
+ * All matrix writes hold one lock until their transaction ends, so the rebuild job and the
+ * per-order updates never race on the same cells, and co_occurrence_order makes counting an
+ * order idempotent.
+ */
+@Service
+public class RelatedProductService {
+    private final Logger log = LoggerFactory.getLogger(RelatedProductService.class);
+
+    public static final int DEFAULT_LIMIT = 8;
+
+    private final ProductPairCountRepository pairCountRepository;
+    private final ProductRelatedRepository productRelatedRepository;
+    private final CoOccurrenceOrderRepository coOccurrenceOrderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int topN;
+
+    private final Map<Long, long[]> related = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "related-products");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RelatedProductService(ProductPairCountRepository pairCountRepository,
+            ProductRelatedRepository productRelatedRepository,
+            CoOccurrenceOrderRepository coOccurrenceOrderRepository, OrderItemRepository orderItemRepository,
+            CatalogSnapshotService catalogSnapshotService, PlatformTransactionManager transactionManager,
+            EntityManager entityManager, @Value("${catalog.related.top-n:12}") int topN) {
+        this.pairCountRepository = pairCountRepository;
+        this.productRelatedRepository = productRelatedRepository;
+        this.coOccurrenceOrderRepository = coOccurrenceOrderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.topN = Math.max(1, topN);
+    }
+
+    /**
+     * In-stock products most often bought with {@code productId}, strongest first; empty
+     * while the catalog snapshot is loading.
+     */
+    public List<ProductCardDTO> related(Long productId, int limit) {
+        long[] ids = related.get(productId);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (ids == null || snapshot == null) return List.of();
+        List<ProductCardDTO> cards = new ArrayList<>(Math.min(limit, ids.length));
+        for (long id : ids) {
+            if (cards.size() >= limit) break;
+            Product p = snapshot.getById(id);
+            if (p == null || !snapshot.isInStock(id)) continue;
+            cards.add(new ProductCardDTO(p.getId(), p.getName(), p.getPrice(), p.getOriginalPrice(),
+                    p.getImageUrl(), p.getBrand(), p.getAverageRating(), p.getInStock()));
+        }
+        return cards;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        worker.execute(this::reload);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.getOrderId() == null) return;
+        worker.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lockUntilCompletion();
+                    rank(countOrders(List.of(event.getOrderId())));
+                });
+            } catch (Exception e) {
+                log.warn("RelatedProductService: Could not add order {}: {}", event.getOrderId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Take the matrix write lock until the current transaction commits or rolls back. Every
+     * method below that writes must run after this, in the same transaction.
+     */
+    public void lockUntilCompletion() {
+        writeLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    /** Add the orders that were not counted yet to the matrix; returns the products touched. */
+    public Set<Long> countOrders(Collection<Long> orderIds) {
+        Set<Long> touched = new LinkedHashSet<>();
+        if (orderIds.isEmpty()) return touched;
+        Set<Long> fresh = new LinkedHashSet<>(orderIds);
+        fresh.removeAll(coOccurrenceOrderRepository.findCounted(orderIds));
+        if (fresh.isEmpty()) return touched;
+
+        // Distinct products per order (two variants of one product are one purchase)
+        Map<Long, Set<Long>> products = new LinkedHashMap<>();
+        for (Object[] row : orderItemRepository.findOrderProductIds(fresh)) {
+            products.computeIfAbsent((Long) row[0], k -> new LinkedHashSet<>()).add((Long) row[1]);
+        }
+
+        // Pair counts for the whole chunk, both directions, applied with one read and batched writes
+        Map<ProductPairCount.Key, Integer> deltas = new HashMap<>();
+        for (Set<Long> basket : products.values()) {
+            if (basket.size() < 2) continue;
+            touched.addAll(basket);
+            for (Long a : basket) {
+                for (Long b : basket) {
+                    if (!a.equals(b)) deltas.merge(new ProductPairCount.Key(a, b), 1, Integer::sum);
+                }
+            }
+        }
+        if (!deltas.isEmpty()) {
+            for (ProductPairCount cell : pairCountRepository.findAmong(touched)) {
+                Integer delta = deltas.remove(new ProductPairCount.Key(cell.getProductId(), cell.getOtherId()));
+                if (delta != null) cell.setOrders(cell.getOrders() + delta);
+            }
+            // Cells seen for the first time; persist() inserts without merge's select per row
+            for (Map.Entry<ProductPairCount.Key, Integer> e : deltas.entrySet()) {
+                entityManager.persist(new ProductPairCount(e.getKey().getProductId(), e.getKey().getOtherId(),
+                        e.getValue()));
+            }
+        }
+        for (Long id : fresh) entityManager.persist(new CoOccurrenceOrder(id));
+        return touched;
+    }
+
+    /** Recompute the stored and cached neighbours of {@code productIds}. */
+    public void rank(Collection<Long> productIds) {
+        if (productIds.isEmpty()) return;
+        Map<Long, long[]> ranked = new HashMap<>();
+        List<ProductRelated> rows = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            List<ProductPairCount> strongest = pairCountRepository.findStrongest(productId, PageRequest.of(0, topN));
+            if (strongest.isEmpty()) continue;
+            StringBuilder encoded = new StringBuilder();
+            long[] ids = new long[strongest.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ProductPairCount cell = strongest.get(i);
+                ids[i] = cell.getOtherId();
+                if (i > 0) encoded.append(',');
+                encoded.append(cell.getOtherId()).append(':').append(cell.getOrders());
+            }
+            rows.add(new ProductRelated(productId, encoded.toString()));
+            ranked.put(productId, ids);
+        }
+        productRelatedRepository.saveAll(rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                related.putAll(ranked);
+            }
+        });
+    }
+
+    /** Empty the matrix and the counted-order marks; stored neighbours stay until re-ranked. */
+    public void resetCounts() {
+        pairCountRepository.deleteAllInBatch();
+        coOccurrenceOrderRepository.deleteAllInBatch();
+    }
+
+    /** Drop stored neighbours of products that no longer co-occur; the cache is reloaded after commit. */
+    public int pruneOrphans() {
+        int removed = productRelatedRepository.deleteOrphans();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                worker.execute(RelatedProductService.this::reload);
+            }
+        });
+        return removed;
+    }
+
+    private void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, long[]> loaded = new HashMap<>();
+            for (ProductRelated row : productRelatedRepository.findAll()) {
+                long[] ids = decode(row.getRelated());
+                if (ids.length > 0) loaded.put(row.getProductId(), ids);
+            }
+            related.keySet().retainAll(loaded.keySet());
+            related.putAll(loaded);
+            log.info("Related products loaded for {} products in {} ms", loaded.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("RelatedProductService: Could not load related products: {}", e.getMessage());
+        }
+    }
+
+    private static long[] decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) return new long[0];
+        String[] parts = encoded.split(",");
+        long[] ids = new long[parts.length];
+        int n = 0;
+        for (String part : parts) {
+            int colon = part.indexOf(':');
+            try {
+                ids[n++] = Long.parseLong(colon < 0 ? part.trim() : part.substring(0, colon).trim());
+            } catch (NumberFormatException e) {
+                n--;
+            }
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
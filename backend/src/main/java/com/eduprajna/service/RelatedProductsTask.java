@@ -0,0 +1,77 @@
+package com.eduprajna.service;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.eduprajna.repository.OrderRepository;
+import com.eduprajna.repository.ProductPairCountRepository;
+
+/**
+ * Rebuilds the co-occurrence matrix behind related products from the whole order history:
+ * clear it, fold in orders by id, re-rank every product that co-occurs with another, then drop
+ * stored neighbours of products that no longer do. Orders placed meanwhile are added by
+ * RelatedProductService as usual and are not counted twice.
+ */
+@Component
+public class RelatedProductsTask implements MaintenanceTask {
+    public static final String TYPE = "related-products";
+    private static final String RESET = "reset";
+    private static final String ORDERS = "orders";
+    private static final String RANK = "rank";
+    private static final String PRUNE = "prune";
+
+    private final RelatedProductService relatedProductService;
+    private final OrderRepository orderRepository;
+    private final ProductPairCountRepository pairCountRepository;
+
+    public RelatedProductsTask(RelatedProductService relatedProductService, OrderRepository orderRepository,
+            ProductPairCountRepository pairCountRepository) {
+        this.relatedProductService = relatedProductService;
+        this.orderRepository = orderRepository;
+        this.pairCountRepository = pairCountRepository;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<String> phases() {
+        return List.of(RESET, ORDERS, RANK, PRUNE);
+    }
+
+    @Override
+    public Long estimateTotal() {
+        return orderRepository.count();
+    }
+
+    @Override
+    public Chunk runChunk(String phase, String cursor, int size) {
+        relatedProductService.lockUntilCompletion();
+        switch (phase) {
+            case RESET -> {
+                relatedProductService.resetCounts();
+                return new Chunk(null, 0, 0, true);
+            }
+            case ORDERS -> {
+                List<Long> orderIds = orderRepository.findIdsAfter(MaintenanceTask.idAfter(cursor), PageRequest.of(0, size));
+                int products = relatedProductService.countOrders(orderIds).size();
+                Long lastId = orderIds.isEmpty() ? null : orderIds.get(orderIds.size() - 1);
+                return Chunk.ofIds(lastId, cursor, orderIds.size(), products, size);
+            }
+            case RANK -> {
+                List<Long> productIds = pairCountRepository.findProductIdsAfter(MaintenanceTask.idAfter(cursor),
+                        PageRequest.of(0, size));
+                relatedProductService.rank(productIds);
+                Long lastId = productIds.isEmpty() ? null : productIds.get(productIds.size() - 1);
+                return Chunk.ofIds(lastId, cursor, productIds.size(), productIds.size(), size);
+            }
+            default -> {
+                return new Chunk(null, 0, relatedProductService.pruneOrphans(), true);
+            }
+        }
+    }
+}
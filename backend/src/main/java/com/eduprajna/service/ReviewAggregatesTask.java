@@ -0,0 +1,81 @@
+package com.eduprajna.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.eduprajna.entity.Product;
+import com.eduprajna.event.ProductChangeEvent;
+import com.eduprajna.repository.ProductRepository;
+
+/**
+ * Recounts the review aggregates (rating sum, count, per-star counts and average_rating) of
+ * every product from its active reviews. Started once by ProductReviewService when reviews
+ * from before the aggregates exist; afterwards only needed to repair drifted counts.
+ * Products whose rating changed are saved with refreshed metadata and published like any
+ * other product change, so caches, the snapshot and the search index pick them up.
+ */
+@Component
+public class ReviewAggregatesTask implements MaintenanceTask {
+    public static final String TYPE = "review-aggregates";
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReviewAggregatesTask(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Long estimateTotal() {
+        return productRepository.count();
+    }
+
+    // One UPDATE per chunk computes the counts in the database; only changed products are saved
+    @Override
+    public Chunk runChunk(String phase, String cursor, int size) {
+        List<Long> ids = productRepository.findIdsAfter(MaintenanceTask.idAfter(cursor), PageRequest.of(0, size));
+        if (ids.isEmpty()) {
+            return Chunk.ofIds(null, cursor, 0, 0, size);
+        }
+        Map<Long, List<Object>> before = aggregates(ids);
+        productRepository.recountRatings(ids);
+        Map<Long, List<Object>> after = aggregates(ids);
+
+        int changed = 0;
+        // Loaded after the bulk update, so the entities carry the recounted aggregates
+        for (Product product : productRepository.findAllById(ids)) {
+            List<Object> counts = after.get(product.getId());
+            boolean cacheChanged = ProductReviewService.applyRatingCache(product,
+                ((Number) counts.get(0)).longValue(), ((Number) counts.get(1)).longValue());
+            if (cacheChanged) {
+                productRepository.save(product);
+                eventPublisher.publishEvent(ProductChangeEvent.upserted(product));
+            }
+            if (cacheChanged || !counts.equals(before.get(product.getId()))) {
+                changed++;
+            }
+        }
+        return Chunk.ofIds(ids.get(ids.size() - 1), cursor, ids.size(), changed, size);
+    }
+
+    // id -> [sum, count, 1-star ... 5-star]
+    private Map<Long, List<Object>> aggregates(List<Long> ids) {
+        Map<Long, List<Object>> aggregates = new HashMap<>();
+        for (Object[] row : productRepository.findRatingAggregates(ids)) {
+            aggregates.put(((Number) row[0]).longValue(), Arrays.asList(row).subList(1, row.length));
+        }
+        return aggregates;
+    }
+}
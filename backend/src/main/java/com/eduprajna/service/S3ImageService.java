@@ -1,6 +1,7 @@
 package com.eduprajna.service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -94,7 +95,8 @@ public class S3ImageService {
 
         log.info("Uploading image to S3: {}", fileName);
 
-        try {
+        // Stream from the multipart temp file; the SDK needs the length up front
+        try (InputStream in = file.getInputStream()) {
             // Create S3 put request
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
@@ -104,7 +106,7 @@ public class S3ImageService {
                     .build();
 
             // Upload to S3
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(in, file.getSize()));
 
             // Generate S3 URL
             String s3Url = String.format("https://%s.s3.%s.amazonaws.com/%s", 
@@ -123,24 +125,31 @@ public class S3ImageService {
      * Delete image from S3 bucket
      */
     public void deleteImage(String s3Url) {
+        try {
+            deleteObject(s3Url);
+        } catch (Exception e) {
+            log.error("Failed to delete image from S3: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete image from S3 bucket, letting failures propagate so the caller can retry
+     */
+    public void deleteObject(String s3Url) {
         if (s3Url == null || s3Url.isEmpty()) {
             return;
         }
 
-        try {
-            // Extract the key from S3 URL
-            String key = extractKeyFromUrl(s3Url);
-            if (key != null) {
-                DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(key)
-                        .build();
-
-                s3Client.deleteObject(deleteObjectRequest);
-                log.info("Successfully deleted image from S3: {}", key);
-            }
-        } catch (Exception e) {
-            log.error("Failed to delete image from S3: {}", e.getMessage(), e);
+        // Extract the key from S3 URL
+        String key = extractKeyFromUrl(s3Url);
+        if (key != null) {
+            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+
+            s3Client.deleteObject(deleteObjectRequest);
+            log.info("Successfully deleted image from S3: {}", key);
         }
     }
 
@@ -3,6 +3,7 @@ package com.eduprajna.service;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -10,11 +11,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -41,6 +48,16 @@ public class StorageService {
             "jpg", "jpeg", "png", "gif", "webp", "avif", "bmp", "svg"
     ));
 
+    private static final AtomicLong LAST_STAMP = new AtomicLong();
+    private static final Map<String, MediaType> MEDIA_TYPES = new ConcurrentHashMap<>();
+
+    // Millisecond timestamp for upload names, unique within this process: uploads now run in
+    // parallel, and two files named "blob" stored in the same millisecond would overwrite
+    static long nextUploadStamp() {
+        long now = System.currentTimeMillis();
+        return LAST_STAMP.accumulateAndGet(now, (last, candidate) -> Math.max(last + 1, candidate));
+    }
+
     public String store(MultipartFile file) throws IOException {
         String detectedExt = detectImageExtension(file);
         if (detectedExt == null) {
@@ -52,7 +69,7 @@ public class StorageService {
             original = "image";
         }
 
-        String baseName = Long.toString(System.currentTimeMillis()) + "_" + original;
+        String baseName = Long.toString(nextUploadStamp()) + "_" + original;
         // ensure file has an extension matching detected type
         String filename = baseName;
         int idx = original.lastIndexOf('.');
@@ -123,62 +140,81 @@ public class StorageService {
     // Remove non-image files from the uploads directory and return deleted filenames
     public List<String> sanitizeUploads() {
         List<String> deleted = new ArrayList<>();
-        File dir = new File(UPLOAD_DIR);
-        if (!dir.exists() || !dir.isDirectory()) return deleted;
-        File[] files = dir.listFiles();
-        if (files == null) return deleted;
-        for (File f : files) {
-            if (!f.isFile()) continue;
-            try {
-                // Attempt to probe by filename extension first
-                String name = f.getName();
-                int idx = name.lastIndexOf('.');
-                boolean isImage = false;
-                String currentExt = null;
-                if (idx > 0) {
-                    currentExt = name.substring(idx + 1).toLowerCase();
-                    if (ALLOWED_EXTENSIONS.contains(currentExt)) isImage = true;
-                }
+        for (String name : listUploadsAfter(null, Integer.MAX_VALUE)) {
+            if (sanitizeUpload(name)) deleted.add(name);
+        }
+        return deleted;
+    }
 
-                // If not image by extension, try probing content-type
-                if (!isImage) {
-                    Path p = Paths.get(UPLOAD_DIR).resolve(name).normalize();
-                    String type = Files.probeContentType(p);
-                    if (type != null && type.toLowerCase().startsWith("image/")) {
-                        // derive ext from content-type
-                        String sub = type.substring(type.indexOf('/') + 1).toLowerCase();
-                        if (sub.equals("jpeg")) sub = "jpg";
-                        if (sub.equals("svg+xml")) sub = "svg";
-                        if (ALLOWED_EXTENSIONS.contains(sub)) {
-                            isImage = true;
-                            // if file lacked extension or had wrong extension, rename it to include correct ext
-                            if (currentExt == null || !currentExt.equals(sub)) {
-                                String newName = (idx > 0 ? name.substring(0, idx) : name) + "." + sub;
-                                Files.move(p, p.resolveSibling(newName));
-                            }
-                        }
-                    }
-                }
+    // Regular files in the uploads directory named after afterName (null for all), in name
+    // order, so a sweep can be split into chunks
+    public List<String> listUploadsAfter(String afterName, int limit) {
+        Path dir = Paths.get(UPLOAD_DIR);
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> afterName == null || name.compareTo(afterName) > 0)
+                    .sorted()
+                    .limit(limit)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list " + dir, e);
+        }
+    }
 
-                // If still not recognized, attempt magic-byte detection
-                if (!isImage) {
-                    String detected = detectImageExtensionForFile(f);
-                    if (detected != null) {
+    // Delete the upload if it is not an image, or give it the right extension if it is one
+    // without; true when the file was deleted
+    public boolean sanitizeUpload(String name) {
+        File f = Paths.get(UPLOAD_DIR).resolve(name).normalize().toFile();
+        if (!f.isFile()) return false;
+        try {
+            // Attempt to probe by filename extension first
+            int idx = name.lastIndexOf('.');
+            boolean isImage = false;
+            String currentExt = null;
+            if (idx > 0) {
+                currentExt = name.substring(idx + 1).toLowerCase();
+                if (ALLOWED_EXTENSIONS.contains(currentExt)) isImage = true;
+            }
+
+            // If not image by extension, try probing content-type
+            if (!isImage) {
+                Path p = Paths.get(UPLOAD_DIR).resolve(name).normalize();
+                String type = Files.probeContentType(p);
+                if (type != null && type.toLowerCase().startsWith("image/")) {
+                    // derive ext from content-type
+                    String sub = type.substring(type.indexOf('/') + 1).toLowerCase();
+                    if (sub.equals("jpeg")) sub = "jpg";
+                    if (sub.equals("svg+xml")) sub = "svg";
+                    if (ALLOWED_EXTENSIONS.contains(sub)) {
                         isImage = true;
-                        if (currentExt == null || !currentExt.equals(detected)) {
-                            Path p = Paths.get(UPLOAD_DIR).resolve(name).normalize();
-                            String newName = (idx > 0 ? name.substring(0, idx) : name) + "." + detected;
+                        // if file lacked extension or had wrong extension, rename it to include correct ext
+                        if (currentExt == null || !currentExt.equals(sub)) {
+                            String newName = (idx > 0 ? name.substring(0, idx) : name) + "." + sub;
                             Files.move(p, p.resolveSibling(newName));
                         }
                     }
                 }
+            }
 
-                if (!isImage) {
-                    if (f.delete()) deleted.add(f.getName());
+            // If still not recognized, attempt magic-byte detection
+            if (!isImage) {
+                String detected = detectImageExtensionForFile(f);
+                if (detected != null) {
+                    isImage = true;
+                    if (currentExt == null || !currentExt.equals(detected)) {
+                        Path p = Paths.get(UPLOAD_DIR).resolve(name).normalize();
+                        String newName = (idx > 0 ? name.substring(0, idx) : name) + "." + detected;
+                        Files.move(p, p.resolveSibling(newName));
+                    }
                 }
-            } catch (Exception ignored) {}
+            }
+
+            return !isImage && f.delete();
+        } catch (Exception ignored) {
+            return false;
         }
-        return deleted;
     }
 
     // Inspect a stored file's header bytes to detect image type; returns extension or null
@@ -210,31 +246,34 @@ public class StorageService {
         return ALLOWED_EXTENSIONS.contains(ext);
     }
 
+    // File-backed so it can be re-read: Spring serves Range requests from it, and the
+    // controller hands whole files to the connector's sendfile
     public Resource loadAsResource(String filename) throws IOException {
         Path filePath = Paths.get(UPLOAD_DIR).resolve(filename).normalize();
-        if (!Files.exists(filePath)) {
+        if (!Files.isRegularFile(filePath)) {
             throw new IOException("File not found: " + filename);
         }
-        return new InputStreamResource(new FileInputStream(filePath.toFile())) {
-            @Override
-            public String getFilename() {
-                return filePath.getFileName().toString();
-            }
-
-            @Override
-            public long contentLength() throws IOException {
-                return Files.size(filePath);
-            }
-        };
+        return new FileSystemResource(filePath);
     }
 
+    // Media type by extension, resolved once per extension instead of probing the file on every
+    // request; unknown extensions fall back to probing
     public MediaType probeMediaType(String filename) {
-        try {
-            Path filePath = Paths.get(UPLOAD_DIR).resolve(filename).normalize();
-            String type = Files.probeContentType(filePath);
-            if (type != null) return MediaType.parseMediaType(type);
-        } catch (Exception ignored) {}
-        return MediaType.APPLICATION_OCTET_STREAM;
+        int idx = filename.lastIndexOf('.');
+        String ext = idx >= 0 ? filename.substring(idx + 1).toLowerCase(Locale.ROOT) : "";
+        MediaType cached = MEDIA_TYPES.get(ext);
+        if (cached != null) return cached;
+        MediaType type = MediaTypeFactory.getMediaType(filename).orElse(null);
+        if (type == null) {
+            try {
+                Path filePath = Paths.get(UPLOAD_DIR).resolve(filename).normalize();
+                String probed = Files.probeContentType(filePath);
+                if (probed != null) return MediaType.parseMediaType(probed);
+            } catch (Exception ignored) {}
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        if (!ext.isEmpty()) MEDIA_TYPES.put(ext, type);
+        return type;
     }
 
     public List<String> listAll() {
@@ -0,0 +1,336 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+import com.eduprajna.dto.SuggestionDTO;
+
+/**
+ * Immutable compressed prefix trie (radix tree) for typeahead.
+ *
+ * Single-child chains are collapsed into one edge label, and every node caches the top-k
+ * suggestions of its whole subtree, so a lookup is a walk down at most |prefix| characters
+ * followed by returning a precomputed array. Build a trie with {@link Builder}; change one
+ * with {@link #edit()}, which copies only the paths of the changed keys (splitting or merging
+ * edges as needed) and shares every other node with the original.
+ */
+public final class SuggestTrie {
+
+    private static final Comparator<SuggestionDTO> BY_SCORE = Comparator
+            .comparingDouble((SuggestionDTO s) -> -s.score)
+            .thenComparing(s -> s.text, String.CASE_INSENSITIVE_ORDER);
+
+    private static final SuggestionDTO[] NONE = new SuggestionDTO[0];
+    private static final char[] NO_FIRSTS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        final String label;        // edge label leading into this node
+        final char[] firsts;       // first char of each child label, sorted
+        final Node[] children;
+        final SuggestionDTO[] own; // suggestions whose key ends here
+        final SuggestionDTO[] top;
+
+        Node(String label, char[] firsts, Node[] children, SuggestionDTO[] own, SuggestionDTO[] top) {
+            this.label = label;
+            this.firsts = firsts;
+            this.children = children;
+            this.own = own;
+            this.top = top;
+        }
+    }
+
+    private final Node root;
+    private final int k;
+    private final int keys;
+
+    private SuggestTrie(Node root, int k, int keys) {
+        this.root = root;
+        this.k = k;
+        this.keys = keys;
+    }
+
+    public static SuggestTrie empty(int k) {
+        return new SuggestTrie(new Node("", NO_FIRSTS, NO_CHILDREN, NONE, NONE), k, 0);
+    }
+
+    public int keyCount() {
+        return keys;
+    }
+
+    /** An editor starting from this trie; the trie itself is not changed. */
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Best suggestions for a prefix, at most {@code limit} (capped at the k the trie was built with).
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty()) return List.of();
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int c = Arrays.binarySearch(node.firsts, key.charAt(i));
+            if (c < 0) return List.of();
+            Node child = node.children[c];
+            String label = child.label;
+            int j = 0;
+            while (j < label.length() && i < key.length()) {
+                if (label.charAt(j) != key.charAt(i)) return List.of();
+                i++;
+                j++;
+            }
+            node = child;
+        }
+        int n = Math.min(Math.min(limit, k), node.top.length);
+        return n <= 0 ? List.of() : Collections.unmodifiableList(Arrays.asList(node.top).subList(0, n));
+    }
+
+    /** Lower case, punctuation to spaces, single spaces: "Grain-Free  Food" -> "grain free food". */
+    public static String normalizeKey(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(ch)) {
+                sb.append(ch);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') sb.setLength(len - 1);
+        return sb.toString();
+    }
+
+    /**
+     * Collects key -> suggestion pairs, then compresses them into a {@link SuggestTrie}.
+     * A suggestion may be added under several keys (e.g. every word start of a product name);
+     * it is still returned once per lookup.
+     */
+    public static final class Builder {
+        private static final class MutableNode {
+            final TreeMap<Character, MutableNode> children = new TreeMap<>();
+            List<SuggestionDTO> terminal;
+        }
+
+        private final int k;
+        private final MutableNode root = new MutableNode();
+        private int keys;
+
+        public Builder(int k) {
+            this.k = k;
+        }
+
+        public Builder add(String text, SuggestionDTO suggestion) {
+            String key = normalizeKey(text);
+            if (key.isEmpty() || suggestion == null) return this;
+            MutableNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new MutableNode());
+            }
+            if (node.terminal == null) {
+                node.terminal = new ArrayList<>(1);
+                keys++;
+            }
+            node.terminal.add(suggestion);
+            return this;
+        }
+
+        public SuggestTrie build() {
+            return new SuggestTrie(compress("", root), k, keys);
+        }
+
+        private Node compress(String label, MutableNode node) {
+            // Collapse chains of single-child, non-terminal nodes into one edge
+            StringBuilder edge = new StringBuilder(label);
+            while (node.terminal == null && node.children.size() == 1 && node != root) {
+                Map.Entry<Character, MutableNode> only = node.children.firstEntry();
+                edge.append(only.getKey());
+                node = only.getValue();
+            }
+
+            char[] firsts = new char[node.children.size()];
+            Node[] children = new Node[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> e : node.children.entrySet()) {
+                firsts[i] = e.getKey();
+                children[i] = compress(String.valueOf(e.getKey()), e.getValue());
+                i++;
+            }
+            SuggestionDTO[] own = node.terminal == null ? NONE : node.terminal.toArray(NONE);
+            return new Node(edge.toString(), firsts, children, own, topOf(own, children, k));
+        }
+    }
+
+    /**
+     * Adds and removes key -> suggestion pairs on a copy of a trie. Suggestions are matched by
+     * identity on removal, as they are deduplicated by identity in lookups.
+     */
+    public static final class Editor {
+        private final int k;
+        private Node root;
+        private int keys;
+        private boolean changed;
+
+        private Editor(SuggestTrie trie) {
+            this.k = trie.k;
+            this.root = trie.root;
+            this.keys = trie.keys;
+        }
+
+        public Editor add(String text, SuggestionDTO suggestion) {
+            String key = normalizeKey(text);
+            if (key.isEmpty() || suggestion == null) return this;
+            root = update(root, key, own -> {
+                SuggestionDTO[] more = Arrays.copyOf(own, own.length + 1);
+                more[own.length] = suggestion;
+                return more;
+            });
+            return this;
+        }
+
+        public Editor remove(String text, SuggestionDTO suggestion) {
+            String key = normalizeKey(text);
+            if (key.isEmpty() || suggestion == null) return this;
+            root = update(root, key, own -> {
+                for (int i = 0; i < own.length; i++) {
+                    if (own[i] != suggestion) continue;
+                    SuggestionDTO[] fewer = new SuggestionDTO[own.length - 1];
+                    System.arraycopy(own, 0, fewer, 0, i);
+                    System.arraycopy(own, i + 1, fewer, i, own.length - i - 1);
+                    return fewer;
+                }
+                return own;
+            });
+            return this;
+        }
+
+        public boolean hasChanges() {
+            return changed;
+        }
+
+        public SuggestTrie build() {
+            return new SuggestTrie(root, k, keys);
+        }
+
+        // Copy of node with change applied to the suggestions of key rest below it (its own label
+        // already matched); the same node when nothing changed
+        private Node update(Node node, String rest, UnaryOperator<SuggestionDTO[]> change) {
+            if (rest.isEmpty()) {
+                SuggestionDTO[] own = change.apply(node.own);
+                if (own == node.own) return node;
+                counted(node.own, own);
+                return node(node.label, own, node.firsts, node.children);
+            }
+            int c = Arrays.binarySearch(node.firsts, rest.charAt(0));
+            if (c < 0) {
+                SuggestionDTO[] own = change.apply(NONE);
+                if (own.length == 0) return node;
+                counted(NONE, own);
+                int at = -c - 1;
+                char[] firsts = new char[node.firsts.length + 1];
+                Node[] children = new Node[node.children.length + 1];
+                System.arraycopy(node.firsts, 0, firsts, 0, at);
+                System.arraycopy(node.children, 0, children, 0, at);
+                firsts[at] = rest.charAt(0);
+                children[at] = node(rest, own, NO_FIRSTS, NO_CHILDREN);
+                System.arraycopy(node.firsts, at, firsts, at + 1, node.firsts.length - at);
+                System.arraycopy(node.children, at, children, at + 1, node.children.length - at);
+                return node(node.label, node.own, firsts, children);
+            }
+
+            Node child = node.children[c];
+            int common = 0;
+            while (common < child.label.length() && common < rest.length()
+                    && child.label.charAt(common) == rest.charAt(common)) {
+                common++;
+            }
+            Node updated;
+            if (common == child.label.length()) {
+                updated = compact(update(child, rest.substring(common), change));
+                if (updated == child) return node;
+            } else {
+                // The key leaves the edge part way along: split it (removing an absent key is a no-op)
+                SuggestionDTO[] own = change.apply(NONE);
+                if (own.length == 0) return node;
+                counted(NONE, own);
+                Node tail = new Node(child.label.substring(common), child.firsts, child.children, child.own, child.top);
+                String head = child.label.substring(0, common);
+                if (common == rest.length()) {
+                    updated = node(head, own, new char[] { tail.label.charAt(0) }, new Node[] { tail });
+                } else {
+                    Node leaf = node(rest.substring(common), own, NO_FIRSTS, NO_CHILDREN);
+                    boolean tailFirst = tail.label.charAt(0) < leaf.label.charAt(0);
+                    Node a = tailFirst ? tail : leaf;
+                    Node b = tailFirst ? leaf : tail;
+                    updated = node(head, NONE, new char[] { a.label.charAt(0), b.label.charAt(0) },
+                            new Node[] { a, b });
+                }
+            }
+
+            char[] firsts = node.firsts;
+            Node[] children;
+            if (updated == null) {
+                firsts = new char[node.firsts.length - 1];
+                children = new Node[node.children.length - 1];
+                System.arraycopy(node.firsts, 0, firsts, 0, c);
+                System.arraycopy(node.children, 0, children, 0, c);
+                System.arraycopy(node.firsts, c + 1, firsts, c, firsts.length - c);
+                System.arraycopy(node.children, c + 1, children, c, children.length - c);
+            } else {
+                children = node.children.clone();
+                children[c] = updated;
+            }
+            return node(node.label, node.own, firsts, children);
+        }
+
+        // A non-root node left without suggestions goes away, or merges into its only child
+        private static Node compact(Node node) {
+            if (node.own.length > 0 || node.children.length > 1) return node;
+            if (node.children.length == 0) return null;
+            Node only = node.children[0];
+            return new Node(node.label + only.label, only.firsts, only.children, only.own, only.top);
+        }
+
+        private Node node(String label, SuggestionDTO[] own, char[] firsts, Node[] children) {
+            return new Node(label, firsts, children, own, topOf(own, children, k));
+        }
+
+        private void counted(SuggestionDTO[] before, SuggestionDTO[] after) {
+            changed = true;
+            if (before.length == 0 && after.length > 0) keys++;
+            if (before.length > 0 && after.length == 0) keys--;
+        }
+    }
+
+    // Best k of a node's own suggestions and its children's tops, each suggestion once
+    private static SuggestionDTO[] topOf(SuggestionDTO[] own, Node[] children, int k) {
+        List<SuggestionDTO> candidates = new ArrayList<>(Arrays.asList(own));
+        for (Node child : children) candidates.addAll(Arrays.asList(child.top));
+        if (candidates.isEmpty()) return NONE;
+        candidates.sort(BY_SCORE);
+
+        Map<SuggestionDTO, Boolean> seen = new IdentityHashMap<>();
+        List<SuggestionDTO> top = new ArrayList<>(Math.min(k, candidates.size()));
+        for (SuggestionDTO s : candidates) {
+            if (seen.put(s, Boolean.TRUE) != null) continue;
+            top.add(s);
+            if (top.size() == k) break;
+        }
+        return top.toArray(NONE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.eduprajna.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes non-image files from the local uploads directory and fixes missing image
+ * extensions (POST /api/admin/products/images/cleanup). The cursor is the last file name.
+ */
+@Component
+public class UploadSanitizeTask implements MaintenanceTask {
+    public static final String TYPE = "sanitize-uploads";
+
+    private final StorageService storageService;
+
+    public UploadSanitizeTask(StorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Long estimateTotal() {
+        return null;
+    }
+
+    @Override
+    public Chunk runChunk(String phase, String cursor, int size) {
+        List<String> names = storageService.listUploadsAfter(cursor, size);
+        int deleted = 0;
+        for (String name : names) {
+            if (storageService.sanitizeUpload(name)) deleted++;
+        }
+        String last = names.isEmpty() ? cursor : names.get(names.size() - 1);
+        return new Chunk(last, names.size(), deleted, names.size() < size);
+    }
+}
@@ -0,0 +1,131 @@
+package com.eduprajna.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduprajna.dto.BulkVariantUpdateResultDTO;
+import com.eduprajna.dto.VariantUpdateDTO;
+import com.eduprajna.dto.VariantUpdateResultDTO;
+
+/**
+ * Bulk variant stock and price updates (PATCH /api/admin/products/variants), for warehouse
+ * syncs that would otherwise call the single-variant endpoint once per variant.
+ *
+ * Items are validated, grouped by product and applied by
+ * {@link ProductService#applyVariantUpdates} in transactions of up to
+ * {@link #PRODUCTS_PER_TRANSACTION} products. A transaction that fails is retried product by
+ * product, so one bad product does not fail the rest of its group.
+ */
+@Service
+public class VariantBulkUpdateService {
+    private final Logger log = LoggerFactory.getLogger(VariantBulkUpdateService.class);
+
+    public static final int MAX_ITEMS = 10000;
+    static final int PRODUCTS_PER_TRANSACTION = 100;
+
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+
+    public VariantBulkUpdateService(ProductService productService, PlatformTransactionManager transactionManager) {
+        this.productService = productService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkVariantUpdateResultDTO update(List<VariantUpdateDTO> items) {
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items per request");
+        }
+        long start = System.nanoTime();
+        VariantUpdateResultDTO[] results = new VariantUpdateResultDTO[items.size()];
+
+        // Request positions of the valid items, grouped by product in first-seen order
+        Map<Long, List<Integer>> byProduct = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            VariantUpdateDTO item = items.get(i);
+            String error = validate(item);
+            if (error != null) {
+                results[i] = VariantUpdateResultDTO.error(item, VariantUpdateResultDTO.INVALID, error);
+            } else {
+                byProduct.computeIfAbsent(item.productId, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int transactions = 0;
+        List<List<Integer>> groups = new ArrayList<>(byProduct.values());
+        for (int from = 0; from < groups.size(); from += PRODUCTS_PER_TRANSACTION) {
+            List<List<Integer>> chunk = groups.subList(from, Math.min(groups.size(), from + PRODUCTS_PER_TRANSACTION));
+            transactions++;
+            try {
+                apply(items, flatten(chunk), results);
+            } catch (RuntimeException e) {
+                log.debug("VariantBulkUpdateService: Group of {} products failed ({}), retrying one by one",
+                        chunk.size(), e.getMessage());
+                for (List<Integer> group : chunk) {
+                    transactions++;
+                    try {
+                        apply(items, group, results);
+                    } catch (RuntimeException productError) {
+                        String message = productError.getMessage() != null ? productError.getMessage()
+                                : productError.getClass().getSimpleName();
+                        for (int i : group) {
+                            results[i] = VariantUpdateResultDTO.error(items.get(i), VariantUpdateResultDTO.FAILED,
+                                    message);
+                        }
+                    }
+                }
+            }
+        }
+
+        int updated = 0;
+        for (int i = 0; i < results.length; i++) {
+            results[i].index = i;
+            if (VariantUpdateResultDTO.UPDATED.equals(results[i].status)) updated++;
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("VariantBulkUpdateService: Updated {} of {} variant items across {} products in {} transactions, {} ms",
+                updated, items.size(), byProduct.size(), transactions, elapsedMs);
+        return new BulkVariantUpdateResultDTO(items.size(), updated, items.size() - updated, byProduct.size(),
+                transactions, elapsedMs, Arrays.asList(results));
+    }
+
+    // Applies the items at the given positions in one transaction; results are only recorded
+    // once it has committed
+    private void apply(List<VariantUpdateDTO> items, List<Integer> positions, VariantUpdateResultDTO[] results) {
+        List<VariantUpdateDTO> batch = new ArrayList<>(positions.size());
+        for (int i : positions) batch.add(items.get(i));
+        List<VariantUpdateResultDTO> applied = transactionTemplate.execute(
+                status -> productService.applyVariantUpdates(batch));
+        for (int k = 0; k < positions.size(); k++) results[positions.get(k)] = applied.get(k);
+    }
+
+    private static List<Integer> flatten(List<List<Integer>> groups) {
+        List<Integer> positions = new ArrayList<>();
+        groups.forEach(positions::addAll);
+        return positions;
+    }
+
+    private static String validate(VariantUpdateDTO item) {
+        if (item == null) return "Empty item";
+        if (item.productId == null) return "productId is required";
+        if (item.variantId == null || item.variantId.isBlank()) return "variantId is required";
+        if (item.stock == null && item.price == null) return "stock or price is required";
+        if (item.mode != null && !item.mode.isBlank() && !VariantUpdateDTO.MODE_SET.equalsIgnoreCase(item.mode)
+                && !item.isDelta()) {
+            return "mode must be \"set\" or \"delta\"";
+        }
+        if (!item.isDelta()) {
+            if (item.stock != null && item.stock < 0) return "stock must not be negative";
+            if (item.price != null && item.price < 0) return "price must not be negative";
+        }
+        return null;
+    }
+}
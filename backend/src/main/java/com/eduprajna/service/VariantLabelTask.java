@@ -0,0 +1,89 @@
+package com.eduprajna.service;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.eduprajna.entity.CartItem;
+import com.eduprajna.entity.OrderItem;
+import com.eduprajna.repository.CartItemRepository;
+import com.eduprajna.repository.OrderItemRepository;
+
+/**
+ * Re-derives variant_label on cart items, then order items, from the product's variant
+ * metadata (POST /api/dev/fix-variant-labels).
+ */
+@Component
+public class VariantLabelTask implements MaintenanceTask {
+    public static final String TYPE = "variant-labels";
+    private static final String CART_ITEMS = "cart-items";
+    private static final String ORDER_ITEMS = "order-items";
+
+    private final CartItemRepository cartItemRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CartService cartService;
+
+    public VariantLabelTask(CartItemRepository cartItemRepository, OrderItemRepository orderItemRepository,
+            CartService cartService) {
+        this.cartItemRepository = cartItemRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.cartService = cartService;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<String> phases() {
+        return List.of(CART_ITEMS, ORDER_ITEMS);
+    }
+
+    @Override
+    public Long estimateTotal() {
+        return cartItemRepository.count() + orderItemRepository.count();
+    }
+
+    // Items are managed in the chunk's transaction, so changed labels are flushed on commit
+    @Override
+    public Chunk runChunk(String phase, String cursor, int size) {
+        PageRequest page = PageRequest.of(0, size);
+        int changed = 0;
+        Long lastId = null;
+        int processed;
+        if (CART_ITEMS.equals(phase)) {
+            List<CartItem> items = cartItemRepository.findAfterId(MaintenanceTask.idAfter(cursor), page);
+            for (CartItem ci : items) {
+                String derived = derive(ci.getProduct(), ci.getVariantId());
+                if (derived != null && !derived.equals(ci.getVariantLabel())) {
+                    ci.setVariantLabel(derived);
+                    changed++;
+                }
+                lastId = ci.getId();
+            }
+            processed = items.size();
+        } else {
+            List<OrderItem> items = orderItemRepository.findAfterId(MaintenanceTask.idAfter(cursor), page);
+            for (OrderItem oi : items) {
+                String derived = derive(oi.getProduct(), oi.getVariantId());
+                if (derived != null && !derived.equals(oi.getVariantLabel())) {
+                    oi.setVariantLabel(derived);
+                    changed++;
+                }
+                lastId = oi.getId();
+            }
+            processed = items.size();
+        }
+        return Chunk.ofIds(lastId, cursor, processed, changed, size);
+    }
+
+    private String derive(com.eduprajna.entity.Product product, String variantId) {
+        try {
+            return product != null ? cartService.deriveVariantLabel(product, variantId) : null;
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Work queue of stored images to delete (ImageCleanupService): rows are written with the
+-- product change that orphaned the image and removed once the object is gone
+CREATE TABLE IF NOT EXISTS image_deletion (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    url VARCHAR(512) NOT NULL,
+    storage VARCHAR(20) NOT NULL,
+    public_id VARCHAR(255) NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(500) NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_image_deletion_due (status, next_attempt_at)
+);
@@ -0,0 +1,20 @@
+-- Catalog maintenance jobs (MaintenanceJobService) and their checkpoints: phase and
+-- cursor_key name the last committed chunk, so a job resumes after a restart
+CREATE TABLE IF NOT EXISTS maintenance_job (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    phase VARCHAR(50) NULL,
+    cursor_key VARCHAR(255) NULL,
+    chunk_size INT NOT NULL,
+    processed BIGINT NOT NULL DEFAULT 0,
+    changed BIGINT NOT NULL DEFAULT 0,
+    total BIGINT NULL,
+    last_error VARCHAR(500) NULL,
+    created_at DATETIME(6) NOT NULL,
+    started_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL,
+    finished_at DATETIME(6) NULL,
+    PRIMARY KEY (id),
+    INDEX idx_maintenance_job_status (status)
+);
@@ -0,0 +1,24 @@
+-- Delta sync (GET /api/products/changes): catalog-wide change version per product, the
+-- counter it is drawn from, and tombstones for deleted products. Rows with no version are
+-- stamped by CatalogChangeService at startup.
+ALTER TABLE product
+ADD COLUMN change_version BIGINT NULL,
+ADD COLUMN updated_at DATETIME(6) NULL;
+
+CREATE INDEX idx_product_change_version ON product (change_version, id);
+
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id INT NOT NULL,
+    current_version BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT IGNORE INTO catalog_version (id, current_version) VALUES (1, 0);
+
+CREATE TABLE IF NOT EXISTS product_tombstone (
+    product_id BIGINT NOT NULL,
+    change_version BIGINT NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (product_id),
+    INDEX idx_product_tombstone_version (change_version)
+);
@@ -0,0 +1,21 @@
+-- Related products (RelatedProductService): sparse product-by-product co-occurrence counts,
+-- each product's top neighbours, and the orders already counted
+CREATE TABLE IF NOT EXISTS product_co_occurrence (
+    product_id BIGINT NOT NULL,
+    other_id BIGINT NOT NULL,
+    orders INT NOT NULL,
+    PRIMARY KEY (product_id, other_id),
+    INDEX idx_product_co_occurrence_rank (product_id, orders)
+);
+
+CREATE TABLE IF NOT EXISTS product_related (
+    product_id BIGINT NOT NULL,
+    related VARCHAR(1000) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (product_id)
+);
+
+CREATE TABLE IF NOT EXISTS co_occurrence_order (
+    order_id BIGINT NOT NULL,
+    PRIMARY KEY (order_id)
+);
@@ -0,0 +1,16 @@
+-- Best sellers (BestSellerService): all-time units sold per product and daily units for the
+-- rolling windows
+CREATE TABLE IF NOT EXISTS product_sales (
+    product_id BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (product_id)
+);
+
+CREATE TABLE IF NOT EXISTS product_sales_day (
+    product_id BIGINT NOT NULL,
+    sales_day DATE NOT NULL,
+    units BIGINT NOT NULL,
+    PRIMARY KEY (product_id, sales_day),
+    INDEX idx_product_sales_day_day (sales_day)
+);
@@ -0,0 +1,11 @@
+-- Review aggregates on product (ProductReviewService): rating sum, count and per-star counts of
+-- active reviews, kept by atomic increments. Products with reviews from before these columns
+-- are counted by the review-aggregates maintenance job at startup.
+ALTER TABLE product
+ADD COLUMN rating_sum BIGINT NULL,
+ADD COLUMN rating_count INT NULL,
+ADD COLUMN rating_1 INT NULL,
+ADD COLUMN rating_2 INT NULL,
+ADD COLUMN rating_3 INT NULL,
+ADD COLUMN rating_4 INT NULL,
+ADD COLUMN rating_5 INT NULL;
@@ -0,0 +1,9 @@
+-- Unreferenced image blobs are reclaimed by ImageBlobService's sweep once reclaimable_at has
+-- passed. Uploads and releases push it out by the grace period, so a blob an upload just
+-- resolved survives until the product save takes its reference. Existing rows get a day from
+-- their creation.
+ALTER TABLE image_blob
+ADD COLUMN reclaimable_at DATETIME(6) NULL,
+ADD INDEX idx_image_blob_reclaim (ref_count, reclaimable_at);
+
+UPDATE image_blob SET reclaimable_at = DATE_ADD(created_at, INTERVAL 1 DAY) WHERE reclaimable_at IS NULL;
@@ -0,0 +1,14 @@
+-- Catalog change versions (CatalogChangeService) come from an insert-only log instead of the
+-- single catalog_version counter, whose row lock every writing transaction held until commit.
+-- The log continues the counter's sequence; readers derive the delta-sync watermark from it.
+CREATE TABLE IF NOT EXISTS catalog_change (
+    version BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (version),
+    INDEX idx_catalog_change_created (created_at)
+);
+
+INSERT INTO catalog_change (version, created_at)
+SELECT current_version, NOW(6) FROM catalog_version WHERE current_version > 0;
+
+DROP TABLE IF EXISTS catalog_version;
@@ -0,0 +1,20 @@
+-- Keyset pagination for the catalog listing (GET /api/admin/products?limit=&cursor=&sort=)
+
+-- Average of active review ratings, maintained by ProductReviewService
+ALTER TABLE product
+ADD COLUMN average_rating DOUBLE NULL;
+
+-- Backfill from existing reviews
+UPDATE product p
+JOIN (
+    SELECT product_id, AVG(rating) AS avg_rating
+    FROM product_reviews
+    WHERE is_active = 1
+    GROUP BY product_id
+) r ON r.product_id = p.id
+SET p.average_rating = r.avg_rating;
+
+-- (is_active, sort column, id): each page is a range scan starting after the cursor row
+CREATE INDEX idx_product_active_price ON product (is_active, price, id);
+CREATE INDEX idx_product_active_name ON product (is_active, name, id);
+CREATE INDEX idx_product_active_rating ON product (is_active, average_rating, id);
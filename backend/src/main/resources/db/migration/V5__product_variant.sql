@@ -0,0 +1,38 @@
+-- Row-level variant price and stock (previously only in product.metadata -> variants)
+CREATE TABLE IF NOT EXISTS product_variant (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    product_id BIGINT NOT NULL,
+    variant_id VARCHAR(100) NOT NULL,
+    label VARCHAR(150),
+    price DOUBLE,
+    original_price DOUBLE,
+    stock INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_product_variant UNIQUE (product_id, variant_id),
+    CONSTRAINT fk_product_variant_product FOREIGN KEY (product_id) REFERENCES product (id)
+);
+
+-- Backfill from existing metadata JSON (MySQL 8 JSON_TABLE)
+INSERT INTO product_variant (product_id, variant_id, label, price, original_price, stock)
+SELECT p.id,
+       jt.variant_id,
+       LEFT(jt.label, 150),
+       jt.price,
+       jt.original_price,
+       GREATEST(COALESCE(jt.stock, 0), 0)
+FROM product p,
+     JSON_TABLE(p.metadata, '$.variants[*]' COLUMNS (
+         variant_id VARCHAR(100) PATH '$.id',
+         label VARCHAR(255) PATH '$.label',
+         price DOUBLE PATH '$.price' NULL ON ERROR,
+         original_price DOUBLE PATH '$.originalPrice' NULL ON ERROR,
+         stock INT PATH '$.stock' NULL ON ERROR
+     )) jt
+WHERE JSON_VALID(p.metadata)
+  AND jt.variant_id IS NOT NULL
+  AND jt.variant_id <> ''
+ON DUPLICATE KEY UPDATE
+    label = VALUES(label),
+    price = VALUES(price),
+    original_price = VALUES(original_price),
+    stock = VALUES(stock);
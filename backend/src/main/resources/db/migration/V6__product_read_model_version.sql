@@ -0,0 +1,4 @@
+-- Version of the enriched metadata stored with each product (ProductMetadataEnricher.READ_MODEL_VERSION).
+-- NULL rows are enriched and saved once by ProductService at startup.
+ALTER TABLE product
+ADD COLUMN read_model_version INT NULL;
@@ -0,0 +1,16 @@
+-- Canonical listing audiences per product (ProductAudienceClassifier), so a type filter is
+-- one lookup on idx_product_audience instead of a scan with per-row heuristics.
+CREATE TABLE IF NOT EXISTS product_audience (
+    product_id BIGINT NOT NULL,
+    audience VARCHAR(50) NOT NULL,
+    PRIMARY KEY (product_id, audience),
+    INDEX idx_product_audience (audience, product_id),
+    CONSTRAINT fk_product_audience_product FOREIGN KEY (product_id) REFERENCES product (id) ON DELETE CASCADE
+);
+
+-- Seed each product's own type; the metadata and category rules are applied by the
+-- application's startup backfill (READ_MODEL_VERSION 2), which rewrites these rows.
+INSERT IGNORE INTO product_audience (product_id, audience)
+SELECT id, LEFT(LOWER(TRIM(type)), 50)
+FROM product
+WHERE type IS NOT NULL AND TRIM(type) <> '';
@@ -0,0 +1,16 @@
+-- Lower-cased, trimmed copies of type/category/subcategory (Product.updateFilterKeys), so
+-- listing filters compare indexed columns instead of LOWER(column) on every row
+ALTER TABLE product
+ADD COLUMN type_key VARCHAR(50) NULL,
+ADD COLUMN category_key VARCHAR(100) NULL,
+ADD COLUMN subcategory_key VARCHAR(100) NULL;
+
+-- Backfill; blank values become NULL as in the application
+UPDATE product
+SET type_key = NULLIF(LOWER(TRIM(type)), ''),
+    category_key = NULLIF(LOWER(TRIM(category)), ''),
+    subcategory_key = NULLIF(LOWER(TRIM(subcategory)), '');
+
+-- Equality on the leading key columns; the category index also serves category-only filters
+CREATE INDEX idx_product_filter_keys ON product (is_active, type_key, category_key, subcategory_key);
+CREATE INDEX idx_product_category_keys ON product (is_active, category_key, subcategory_key);
@@ -0,0 +1,16 @@
+-- Content-addressed index of stored product images (ImageBlob): uploads of known content reuse
+-- the stored URL, and ref_count tracks how many products use it so deletes only remove
+-- objects nobody references. Images stored before this table existed are not indexed.
+CREATE TABLE IF NOT EXISTS image_blob (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    content_hash VARCHAR(64) NOT NULL,
+    url VARCHAR(512) NOT NULL,
+    storage VARCHAR(20) NOT NULL,
+    public_id VARCHAR(255) NULL,
+    size_bytes BIGINT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_image_blob_hash UNIQUE (content_hash),
+    INDEX idx_image_blob_url (url)
+);
@@ -0,0 +1,174 @@
+package com.eduprajna.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.eduprajna.converter.JsonMapConverter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * Eager (previous) vs lazy {@link JsonMapConverter} over a page of product metadata columns.
+ *
+ * Each operation mimics what Hibernate does per loaded row: convert the column, take the
+ * load-time snapshot (a to-column/from-column round trip) and, for the save cases, convert
+ * back at flush. Run {@link #main} on the test classpath after {@code mvn test-compile};
+ * add {@code .addProfiler("gc")} to compare allocation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMapConverterBenchmark {
+
+    @Param({ "2000" })
+    public int rows;
+
+    private List<String> columns;
+    private final EagerJsonMapConverter eager = new EagerJsonMapConverter();
+    private final JsonMapConverter lazy = new JsonMapConverter();
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        columns = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            columns.add(mapper.writeValueAsString(sampleMetadata(i)));
+        }
+    }
+
+    /** Listing that only reads plain columns. */
+    @Benchmark
+    public int loadOnlyEager() {
+        int n = 0;
+        for (String json : columns) n += load(eager, json).hashCode() & 1;
+        return n;
+    }
+
+    @Benchmark
+    public int loadOnlyLazy() {
+        int n = 0;
+        for (String json : columns) n += System.identityHashCode(load(lazy, json)) & 1;
+        return n;
+    }
+
+    /** Listing that reads one scalar metadata key per row. */
+    @Benchmark
+    public int readKeyEager() {
+        int n = 0;
+        for (String json : columns) n += load(eager, json).get("reviewCount") != null ? 1 : 0;
+        return n;
+    }
+
+    @Benchmark
+    public int readKeyLazy() {
+        int n = 0;
+        for (String json : columns) n += load(lazy, json).get("reviewCount") != null ? 1 : 0;
+        return n;
+    }
+
+    /** Load and save without touching metadata (e.g. a stock or price update). */
+    @Benchmark
+    public int saveUnchangedEager() {
+        int n = 0;
+        for (String json : columns) n += eager.convertToDatabaseColumn(load(eager, json)).length();
+        return n;
+    }
+
+    @Benchmark
+    public int saveUnchangedLazy() {
+        int n = 0;
+        for (String json : columns) n += lazy.convertToDatabaseColumn(load(lazy, json)).length();
+        return n;
+    }
+
+    // Column -> attribute plus Hibernate's snapshot copy (to column and back)
+    private static Map<String, Object> load(
+            AttributeConverter<Map<String, Object>, String> converter, String json) {
+        Map<String, Object> value = converter.convertToEntityAttribute(json);
+        converter.convertToEntityAttribute(converter.convertToDatabaseColumn(value));
+        return value;
+    }
+
+    private static Map<String, Object> sampleMetadata(int i) {
+        Map<String, Object> md = new LinkedHashMap<>();
+        List<Map<String, Object>> variants = new ArrayList<>();
+        for (int v = 0; v < 3; v++) {
+            Map<String, Object> variant = new LinkedHashMap<>();
+            variant.put("id", "v" + v);
+            variant.put("label", (v + 1) + "kg");
+            variant.put("price", 299 + v * 150);
+            variant.put("originalPrice", 349 + v * 150);
+            variant.put("stock", (i + v) % 20);
+            variants.add(variant);
+        }
+        md.put("variants", variants);
+        md.put("images", List.of("https://cdn.example.com/p/" + i + "/1.jpg", "https://cdn.example.com/p/" + i + "/2.jpg"));
+        md.put("tags", List.of("grain free", "chicken", "adult"));
+        md.put("badges", List.of("Bestseller"));
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("lifeStage", List.of("Adult"));
+        filters.put("breedSize", List.of("Medium", "Large"));
+        filters.put("proteinSource", List.of("Chicken"));
+        md.put("filters", filters);
+        md.put("reviewCount", i % 50);
+        md.put("description", "Complete and balanced nutrition for adult dogs, product " + i);
+        return md;
+    }
+
+    /** The converter as it was before metadata became lazy. */
+    static final class EagerJsonMapConverter
+            implements AttributeConverter<Map<String, Object>, String> {
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+        private static final TypeReference<Map<String, Object>> TYPE_REFERENCE = new TypeReference<>() {};
+
+        @Override
+        public String convertToDatabaseColumn(Map<String, Object> attribute) {
+            if (attribute == null || attribute.isEmpty()) return null;
+            try {
+                return OBJECT_MAPPER.writeValueAsString(attribute);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Map<String, Object> convertToEntityAttribute(String dbData) {
+            if (dbData == null || dbData.isBlank()) return new HashMap<>();
+            try {
+                return OBJECT_MAPPER.readValue(dbData, TYPE_REFERENCE);
+            } catch (Exception e) {
+                return new HashMap<>();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonMapConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,192 @@
+package com.eduprajna.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.eduprajna.entity.Product;
+
+/**
+ * Category filters over a synthetic product table: the previous LOWER(column) predicates,
+ * which scan every row, vs equality on the key columns through idx_product_filter_keys /
+ * idx_product_category_keys (V8).
+ *
+ * Runs on in-memory H2 in MySQL mode, so absolute numbers differ from production; the gap
+ * between a full scan and an index range read is the point. Run {@link #main} on the test
+ * classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductFilterQueryBenchmark {
+
+    private static final String[] TYPES = { "Dog", "Cat", "Pharmacy", "Outlet" };
+    private static final String[] CATEGORIES = { "Dog Food", "Cat Food", "Dog Treats", "Cat Litter",
+            "Toys", "Grooming", "Supplements", "Accessories", "Beds", "Bowls" };
+    private static final String[] SUBCATEGORIES = { "Dry Food", "Wet Food", "Puppy", "Kitten", "Adult",
+            "Senior", "Chew", "Shampoo", "Collars", "Leashes" };
+
+    @Param({ "100000" })
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement scanCategory;
+    private PreparedStatement scanTypeCategorySub;
+    private PreparedStatement scanContains;
+    private PreparedStatement keyCategory;
+    private PreparedStatement keyTypeCategorySub;
+    private PreparedStatement keysContaining;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                // Result reuse would answer repeated identical queries without reading the table
+                "jdbc:h2:mem:filters;MODE=MySQL;DATABASE_TO_LOWER=TRUE;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, name VARCHAR(255), price DOUBLE, " +
+                    "is_active BOOLEAN, type VARCHAR(50), category VARCHAR(100), subcategory VARCHAR(100), " +
+                    "type_key VARCHAR(50), category_key VARCHAR(100), subcategory_key VARCHAR(100))");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO product VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                String type = TYPES[i % TYPES.length];
+                // Stored values are not consistently cased, as with admin-entered data
+                String c = CATEGORIES[(i / TYPES.length) % CATEGORIES.length];
+                String category = i % 3 == 0 ? c.toUpperCase() : c;
+                String subcategory = SUBCATEGORIES[(i / 7) % SUBCATEGORIES.length];
+                insert.setLong(1, i);
+                insert.setString(2, "Product " + i);
+                insert.setDouble(3, 99 + i % 900);
+                insert.setBoolean(4, i % 17 != 0);
+                insert.setString(5, type);
+                insert.setString(6, category);
+                insert.setString(7, subcategory);
+                insert.setString(8, Product.filterKey(type));
+                insert.setString(9, Product.filterKey(category));
+                insert.setString(10, Product.filterKey(subcategory));
+                insert.addBatch();
+                if (i % 1000 == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE INDEX idx_product_filter_keys ON product (is_active, type_key, category_key, subcategory_key)");
+            st.execute("CREATE INDEX idx_product_category_keys ON product (is_active, category_key, subcategory_key)");
+            st.execute("ANALYZE");
+        }
+
+        scanCategory = connection.prepareStatement(
+                "SELECT id FROM product WHERE is_active = TRUE AND LOWER(category) = LOWER(?)");
+        scanTypeCategorySub = connection.prepareStatement(
+                "SELECT id FROM product WHERE is_active = TRUE AND LOWER(type) = LOWER(?) AND " +
+                "LOWER(category) = LOWER(?) AND LOWER(subcategory) = LOWER(?)");
+        scanContains = connection.prepareStatement(
+                "SELECT id FROM product WHERE is_active = TRUE AND " +
+                "LOWER(category) LIKE LOWER(CONCAT('%', ?, '%'))");
+        keyCategory = connection.prepareStatement(
+                "SELECT id FROM product WHERE is_active = TRUE AND category_key = ?");
+        keyTypeCategorySub = connection.prepareStatement(
+                "SELECT id FROM product WHERE is_active = TRUE AND type_key = ? AND " +
+                "category_key = ? AND subcategory_key = ?");
+        // Contains: resolve the matching keys first, then look them up (as ProductService does)
+        keysContaining = connection.prepareStatement(
+                "SELECT DISTINCT category_key FROM product WHERE is_active = TRUE AND " +
+                "category_key LIKE CONCAT('%', ?, '%')");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int categoryScan() throws SQLException {
+        scanCategory.setString(1, "Cat Litter");
+        return count(scanCategory);
+    }
+
+    @Benchmark
+    public int categoryKey() throws SQLException {
+        keyCategory.setString(1, Product.filterKey("Cat Litter"));
+        return count(keyCategory);
+    }
+
+    @Benchmark
+    public int typeCategorySubcategoryScan() throws SQLException {
+        scanTypeCategorySub.setString(1, "Dog");
+        scanTypeCategorySub.setString(2, "Dog Food");
+        scanTypeCategorySub.setString(3, "Puppy");
+        return count(scanTypeCategorySub);
+    }
+
+    @Benchmark
+    public int typeCategorySubcategoryKey() throws SQLException {
+        keyTypeCategorySub.setString(1, Product.filterKey("Dog"));
+        keyTypeCategorySub.setString(2, Product.filterKey("Dog Food"));
+        keyTypeCategorySub.setString(3, Product.filterKey("Puppy"));
+        return count(keyTypeCategorySub);
+    }
+
+    @Benchmark
+    public int categoryContainsScan() throws SQLException {
+        scanContains.setString(1, "litter");
+        return count(scanContains);
+    }
+
+    @Benchmark
+    public int categoryContainsKey() throws SQLException {
+        keysContaining.setString(1, "litter");
+        List<String> keys = new ArrayList<>();
+        try (ResultSet rs = keysContaining.executeQuery()) {
+            while (rs.next()) keys.add(rs.getString(1));
+        }
+        if (keys.isEmpty()) return 0;
+        String in = String.join(", ", Collections.nCopies(keys.size(), "?"));
+        try (PreparedStatement byKeys = connection.prepareStatement(
+                "SELECT id FROM product WHERE is_active = TRUE AND category_key IN (" + in + ")")) {
+            for (int i = 0; i < keys.size(); i++) byKeys.setString(i + 1, keys.get(i));
+            return count(byKeys);
+        }
+    }
+
+    private static int count(PreparedStatement query) throws SQLException {
+        int n = 0;
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) n++;
+        }
+        return n;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductFilterQueryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
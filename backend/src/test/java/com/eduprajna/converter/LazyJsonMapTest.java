@@ -0,0 +1,106 @@
+package com.eduprajna.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LazyJsonMapTest {
+
+    private final JsonMapConverter converter = new JsonMapConverter();
+
+    private LazyJsonMap load(String json) {
+        return (LazyJsonMap) converter.convertToEntityAttribute(json);
+    }
+
+    @Test
+    void untouchedMapWritesOriginalJson() {
+        String json = "{ \"brand\" : \"Acme\", \"images\": [\"a.png\"] }";
+        LazyJsonMap map = load(json);
+
+        assertEquals("Acme", map.get("brand"));
+        assertTrue(map.isClean());
+        assertEquals(json, converter.convertToDatabaseColumn(map));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nestedListMutationThroughGetIsWrittenBack() {
+        LazyJsonMap map = load("{\"images\":[\"a.png\"]}");
+
+        ((List<Object>) map.get("images")).add("b.png");
+
+        assertFalse(map.isClean());
+        assertEquals("{\"images\":[\"a.png\",\"b.png\"]}", converter.convertToDatabaseColumn(map));
+    }
+
+    @Test
+    void untouchedCopiesCompareWithoutParsing() {
+        String json = "{\"brand\":\"Acme\",\"weight\":2}";
+        LazyJsonMap loaded = load(json);
+        LazyJsonMap snapshot = load(json);
+
+        assertTrue(loaded.equals(snapshot));
+        assertFalse(loaded.isParsed());
+        assertFalse(snapshot.isParsed());
+    }
+
+    @Test
+    void modifiedCopyComparesByContent() {
+        LazyJsonMap loaded = load("{\"brand\":\"Acme\"}");
+        LazyJsonMap snapshot = load("{\"brand\":\"Acme\"}");
+
+        loaded.put("brand", "Other");
+
+        assertFalse(loaded.equals(snapshot));
+        assertEquals(Map.of("brand", "Acme"), snapshot);
+    }
+
+    @Test
+    void unreadableJsonKeepsRawColumn() {
+        String json = "{not json";
+        LazyJsonMap map = load(json);
+
+        assertTrue(map.isEmpty());
+        assertEquals(json, converter.convertToDatabaseColumn(map));
+    }
+
+    @Test
+    void unreadableJsonIsReplacedOnceModified() {
+        LazyJsonMap map = load("{not json");
+
+        map.put("brand", "Acme");
+
+        assertEquals("{\"brand\":\"Acme\"}", converter.convertToDatabaseColumn(map));
+    }
+
+    @Test
+    void iteratingKeysKeepsMapClean() {
+        LazyJsonMap map = load("{\"a\":1,\"b\":2}");
+
+        assertEquals(2, map.keySet().size());
+        assertTrue(map.keySet().contains("a"));
+        for (String key : map.keySet()) assertTrue(map.containsKey(key));
+
+        assertTrue(map.isClean());
+    }
+
+    @Test
+    void removingThroughKeySetIsWrittenBack() {
+        LazyJsonMap map = load("{\"a\":1,\"b\":2,\"c\":3}");
+
+        map.keySet().remove("a");
+        Iterator<String> keys = map.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().equals("b")) keys.remove();
+        }
+
+        assertFalse(map.isClean());
+        assertEquals("{\"c\":3}", converter.convertToDatabaseColumn(map));
+    }
+}
@@ -0,0 +1,50 @@
+package com.eduprajna.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BestSellerTopKTest {
+
+    @Test
+    void ranksByUnitsBestFirst() {
+        BestSellerService.TopK top = new BestSellerService.TopK(3);
+        top.offer(1, 5);
+        top.offer(2, 9);
+        top.offer(3, 1);
+        top.offer(4, 7);
+
+        assertArrayEquals(new long[] { 2, 4, 1 }, top.ranked());
+    }
+
+    @Test
+    void tiesGoToTheLowerId() {
+        BestSellerService.TopK top = new BestSellerService.TopK(10);
+        top.offer(30, 4);
+        top.offer(10, 4);
+        top.offer(20, 4);
+        top.offer(40, 6);
+
+        assertArrayEquals(new long[] { 40, 10, 20, 30 }, top.ranked());
+    }
+
+    @Test
+    void fullHeapKeepsTheLowerIdOnATie() {
+        BestSellerService.TopK top = new BestSellerService.TopK(2);
+        top.offer(5, 3);
+        top.offer(9, 3);
+        top.offer(7, 3);
+        top.offer(1, 3);
+
+        assertArrayEquals(new long[] { 1, 5 }, top.ranked());
+    }
+
+    @Test
+    void fewerOffersThanK() {
+        BestSellerService.TopK top = new BestSellerService.TopK(5);
+        assertArrayEquals(new long[0], top.ranked());
+
+        top.offer(8, 2);
+        assertArrayEquals(new long[] { 8 }, top.ranked());
+    }
+}
@@ -0,0 +1,98 @@
+package com.eduprajna.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.eduprajna.dto.FacetValueDTO;
+import com.eduprajna.dto.ProductFacetsDTO;
+import com.eduprajna.entity.Product;
+
+class CatalogSnapshotFacetTest {
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+            product(1, "Dog", "Pedigree", "[\"Adult\", \"Puppy\"]", "Veg", 5),
+            product(2, "Dog", "Royal Canin", "[\"Adult\"]", "Non-Veg", 5),
+            product(3, "Dog", "Pedigree", "[\"Senior\"]", "Veg", 0),
+            product(4, "Dog", "Drools", "[\"Puppy\"]", "Veg", 5),
+            product(5, "Cat", "Whiskas", "[\"Kitten\"]", "Non-Veg", 3)), 1);
+
+    private static Product product(long id, String type, String brand, String lifeStages, String foodType, int stock) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("P" + id);
+        p.setType(type);
+        p.setBrands("[\"" + brand + "\"]");
+        p.setLifeStages(lifeStages);
+        p.setFoodType(foodType);
+        p.setIsActive(true);
+        p.setInStock(true);
+        p.setStockQuantity(stock);
+        return p;
+    }
+
+    // "value:count", with a trailing * when selected
+    private static List<String> values(ProductFacetsDTO facets, String facet) {
+        List<String> out = new ArrayList<>();
+        for (FacetValueDTO v : facets.facets.get(facet)) {
+            out.add(v.value + ":" + v.count + (Boolean.TRUE.equals(v.selected) ? "*" : ""));
+        }
+        return out;
+    }
+
+    private static Map<String, Set<String>> select(String facet, String... values) {
+        Map<String, Set<String>> selected = new LinkedHashMap<>();
+        selected.put(facet, Set.of(values));
+        return selected;
+    }
+
+    @Test
+    void countsOnlyInStockProductsOfTheListing() {
+        ProductFacetsDTO facets = snapshot.facetCounts("Dog", null, null, Map.of());
+
+        assertEquals(3, facets.total);
+        assertEquals(List.of("Drools:1", "Pedigree:1", "Royal Canin:1"), values(facets, "brands"));
+        assertEquals(List.of("Adult:2", "Puppy:2"), values(facets, "lifeStages"));
+        assertEquals(List.of("Veg:2", "Non-Veg:1"), values(facets, "foodType"));
+    }
+
+    @Test
+    void valuesWithinAFacetAreOred() {
+        ProductFacetsDTO facets = snapshot.facetCounts("Dog", null, null, select("brands", "pedigree", "Drools"));
+
+        assertEquals(2, facets.total);
+        assertEquals(List.of("Puppy:2", "Adult:1"), values(facets, "lifeStages"));
+    }
+
+    @Test
+    void facetsAreAndedButEachIgnoresItsOwnSelection() {
+        Map<String, Set<String>> selected = select("brands", "Pedigree", "Royal Canin");
+        selected.put("lifeStages", Set.of("Puppy"));
+
+        ProductFacetsDTO facets = snapshot.facetCounts("Dog", null, null, selected);
+
+        assertEquals(1, facets.total);
+        // Brands are counted against the Puppy selection only; a selected value stays listed at 0
+        assertEquals(List.of("Drools:1", "Pedigree:1*", "Royal Canin:0*"), values(facets, "brands"));
+        // Life stages are counted against the brand selection only
+        assertEquals(List.of("Adult:2", "Puppy:1*"), values(facets, "lifeStages"));
+        assertEquals(List.of("Veg:1"), values(facets, "foodType"));
+    }
+
+    @Test
+    void unknownFacetsAndEmptySelectionsAreIgnored() {
+        Map<String, Set<String>> selected = select("colour", "Red");
+        selected.put("brands", Set.of());
+
+        ProductFacetsDTO facets = snapshot.facetCounts("Dog", null, null, selected);
+
+        assertEquals(3, facets.total);
+        assertEquals(List.of("Drools:1", "Pedigree:1", "Royal Canin:1"), values(facets, "brands"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.eduprajna.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.eduprajna.dto.SuggestionDTO;
+import com.eduprajna.entity.Product;
+import com.eduprajna.event.CatalogSnapshotPublishedEvent;
+
+class ProductSuggestServiceTest {
+
+    private static final List<String> PREFIXES = List.of(
+            "p", "pedigree", "chicken", "biscuits", "w", "whiskas", "tuna", "d", "dog", "dog food",
+            "c", "cat", "canine", "feline", "food", "treats", "r", "royal", "royal canin");
+
+    private final ProductSuggestService service = new ProductSuggestService();
+    private CatalogSnapshot snapshot;
+
+    private static Product product(long id, String name, String type, String brand, String category, int stock) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setType(type);
+        p.setBrand(brand);
+        p.setCategory(category);
+        p.setIsActive(true);
+        p.setInStock(true);
+        p.setStockQuantity(stock);
+        return p;
+    }
+
+    private void load(Product... products) {
+        snapshot = CatalogSnapshot.of(List.of(products), 1);
+        service.onSnapshotPublished(new CatalogSnapshotPublishedEvent(snapshot, null));
+    }
+
+    private void change(Product... upserts) {
+        Set<Long> ids = new HashSet<>();
+        for (Product p : upserts) ids.add(p.getId());
+        snapshot = snapshot.apply(List.of(upserts), List.of(), snapshot.getVersion() + 1);
+        service.onSnapshotPublished(new CatalogSnapshotPublishedEvent(snapshot, ids));
+    }
+
+    private void delete(long id) {
+        snapshot = snapshot.apply(List.of(), List.of(id), snapshot.getVersion() + 1);
+        service.onSnapshotPublished(new CatalogSnapshotPublishedEvent(snapshot, Set.of(id)));
+    }
+
+    private static List<String> scored(List<SuggestionDTO> suggestions) {
+        List<String> out = new ArrayList<>();
+        for (SuggestionDTO s : suggestions) out.add(s.kind + ":" + s.text + ":" + s.score);
+        return out;
+    }
+
+    // Suggestions after incremental updates must match a rebuild of the same snapshot
+    private void assertMatchesFullReload() {
+        ProductSuggestService rebuilt = new ProductSuggestService();
+        rebuilt.onSnapshotPublished(new CatalogSnapshotPublishedEvent(snapshot, null));
+        for (String prefix : PREFIXES) {
+            assertEquals(scored(rebuilt.suggest(prefix, 10)), scored(service.suggest(prefix, 10)), prefix);
+        }
+    }
+
+    @Test
+    void namesAreFoundFromAnyWordStart() {
+        load(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 5));
+
+        assertEquals(List.of("product:Pedigree Chicken Biscuits:1.0"), scored(service.suggest("chick", 10)));
+        assertEquals(List.of("product:Pedigree Chicken Biscuits:1.0"), scored(service.suggest("biscuits", 10)));
+        assertEquals(List.of("category:Dog Treats:1.0"), scored(service.suggest("treats", 10)));
+    }
+
+    @Test
+    void aliasesPointAtTheCanonicalValue() {
+        load(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 5),
+                product(2, "Royal Canin Maxi", "Dog", "Royal Canin", "Dog Food", 5));
+
+        assertEquals(List.of("type:Dog:2.0"), scored(service.suggest("canine", 10)));
+        assertEquals(List.of(), service.suggest("feline", 10));
+    }
+
+    @Test
+    void stockChangesEditOnlyTheProductAndItsTaxonomy() {
+        load(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 5),
+                product(2, "Pedigree Dog Food Chicken", "Dog", "Pedigree", "Dog Food", 5),
+                product(3, "Whiskas Tuna", "Cat", "Whiskas", "Cat Food", 5));
+
+        change(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 0));
+        assertEquals(List.of("product:Pedigree Dog Food Chicken:1.0"), scored(service.suggest("chicken", 10)));
+        assertEquals(List.of(), service.suggest("treats", 10));
+        assertMatchesFullReload();
+
+        change(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 3));
+        assertEquals(2, service.suggest("chicken", 10).size());
+        assertMatchesFullReload();
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullReload() {
+        load(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 5),
+                product(2, "Royal Canin Maxi", "Dog", "Royal Canin", "Dog Food", 5),
+                product(3, "Whiskas Tuna", "Cat", "Whiskas", "Cat Food", 5));
+
+        change(product(2, "Royal Canin Maxi Adult", "Dog", "Royal Canin", "Dog Food", 5));
+        assertMatchesFullReload();
+        change(product(3, "Whiskas Tuna", "Cat", "Pedigree", "Cat Treats", 5),
+                product(4, "Royal Canin Kitten", "Cat", "Royal Canin", "Cat Food", 2));
+        assertMatchesFullReload();
+        // The last Dog product leaves and a new one arrives in the same snapshot
+        change(product(1, "Pedigree Chicken Biscuits", "Dog", "Pedigree", "Dog Treats", 0),
+                product(2, "Royal Canin Maxi Adult", "Cat", "Royal Canin", "Cat Food", 5),
+                product(5, "Dog Food Sampler", "Dog", "Pedigree", "Dog Food", 1));
+        assertMatchesFullReload();
+        delete(5);
+        assertEquals(List.of(), service.suggest("canine", 10));
+        assertMatchesFullReload();
+    }
+}
@@ -0,0 +1,69 @@
+package com.eduprajna.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ProductTextAnalyzerTest {
+
+    @Test
+    void pluralsAndIrregularForms() {
+        assertEquals("treat", ProductTextAnalyzer.stem("treats"));
+        assertEquals("berry", ProductTextAnalyzer.stem("berries"));
+        assertEquals("brush", ProductTextAnalyzer.stem("brushes"));
+        assertEquals("box", ProductTextAnalyzer.stem("boxes"));
+        assertEquals("glass", ProductTextAnalyzer.stem("glasses"));
+        assertEquals("puppy", ProductTextAnalyzer.stem("puppies"));
+        assertEquals("mouse", ProductTextAnalyzer.stem("mice"));
+        assertEquals("dog", ProductTextAnalyzer.stem("canine"));
+    }
+
+    @Test
+    void wordsEndingInSThatAreNotPlurals() {
+        assertEquals("grass", ProductTextAnalyzer.stem("grass"));
+        assertEquals("citrus", ProductTextAnalyzer.stem("citrus"));
+        assertEquals("analysis", ProductTextAnalyzer.stem("analysis"));
+        assertEquals("species", ProductTextAnalyzer.stem("species"));
+    }
+
+    @Test
+    void verbEndingsAreStrippedAndDoubledConsonantsUndone() {
+        assertEquals("chew", ProductTextAnalyzer.stem("chewing"));
+        assertEquals("chop", ProductTextAnalyzer.stem("chopped"));
+        assertEquals("shred", ProductTextAnalyzer.stem("shredded"));
+        assertEquals("groom", ProductTextAnalyzer.stem("grooming"));
+        assertEquals("fill", ProductTextAnalyzer.stem("filling"));
+        assertEquals("dry", ProductTextAnalyzer.stem("dried"));
+    }
+
+    @Test
+    void endingsAreKeptWhenNoVowelWouldBeLeft() {
+        assertEquals("string", ProductTextAnalyzer.stem("string"));
+        assertEquals("spring", ProductTextAnalyzer.stem("spring"));
+        assertEquals("shred", ProductTextAnalyzer.stem("shred"));
+    }
+
+    @Test
+    void foodNounsEndingInIngAreKeptWhole() {
+        assertEquals("herring", ProductTextAnalyzer.stem("herring"));
+        assertEquals("pudding", ProductTextAnalyzer.stem("pudding"));
+    }
+
+    @Test
+    void shortTokensAndNumbersAreKept() {
+        assertEquals("cat", ProductTextAnalyzer.stem("cat"));
+        assertEquals("bed", ProductTextAnalyzer.stem("bed"));
+        assertEquals("2kg", ProductTextAnalyzer.stem("2kg"));
+        assertEquals("500", ProductTextAnalyzer.stem("500"));
+    }
+
+    @Test
+    void analyzeSplitsDropsStopWordsAndStems() {
+        assertEquals(List.of("grain", "free", "puppy", "treat", "chicken", "2kg"),
+                ProductTextAnalyzer.analyze("Grain-Free Puppies' Treats with Chicken (2kg)"));
+        assertEquals(List.of(), ProductTextAnalyzer.analyze("  "));
+        assertEquals(List.of(), ProductTextAnalyzer.analyze(null));
+    }
+}
@@ -0,0 +1,163 @@
+package com.eduprajna.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.eduprajna.dto.SuggestionDTO;
+
+class SuggestTrieTest {
+
+    private static SuggestionDTO s(String text, double score) {
+        return new SuggestionDTO(text, "product", null, score);
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        List<String> texts = new ArrayList<>();
+        for (SuggestionDTO s : suggestions) texts.add(s.text);
+        return texts;
+    }
+
+    @Test
+    void keysDivergingInsideAnEdgeAreSplit() {
+        SuggestTrie trie = new SuggestTrie.Builder(10)
+                .add("dog", s("Dog", 3))
+                .add("dogs", s("Dogs", 2))
+                .add("door", s("Door", 1))
+                .build();
+
+        assertEquals(3, trie.keyCount());
+        assertEquals(List.of("Dog", "Dogs", "Door"), texts(trie.suggest("do", 10)));
+        assertEquals(List.of("Dog", "Dogs"), texts(trie.suggest("dog", 10)));
+        assertEquals(List.of("Door"), texts(trie.suggest("doo", 10)));
+        assertEquals(List.of(), trie.suggest("dox", 10));
+        assertEquals(List.of(), trie.suggest("doors", 10));
+    }
+
+    @Test
+    void lookupNormalizesThePrefix() {
+        SuggestTrie trie = new SuggestTrie.Builder(10).add("Grain-Free  Food", s("Grain Free Food", 1)).build();
+
+        assertEquals(List.of("Grain Free Food"), texts(trie.suggest("  GRAIN free", 10)));
+        assertEquals(List.of(), trie.suggest("   ", 10));
+    }
+
+    @Test
+    void suggestionUnderSeveralKeysIsReturnedOnce() {
+        SuggestionDTO chew = s("Chew Toy", 5);
+        SuggestTrie trie = new SuggestTrie.Builder(10)
+                .add("chew toy", chew)
+                .add("chew", chew)
+                .add("cheese", s("Cheese", 1))
+                .build();
+
+        List<SuggestionDTO> found = trie.suggest("che", 10);
+        assertEquals(2, found.size());
+        assertSame(chew, found.get(0));
+    }
+
+    @Test
+    void topKKeepsBestScoresWithTiesByText() {
+        SuggestTrie trie = new SuggestTrie.Builder(2)
+                .add("cat bed", s("cat bed", 1))
+                .add("cat tree", s("Cat Tree", 4))
+                .add("cat bowl", s("Cat Bowl", 4))
+                .build();
+
+        assertEquals(List.of("Cat Bowl", "Cat Tree"), texts(trie.suggest("cat", 10)));
+        assertEquals(List.of("Cat Bowl"), texts(trie.suggest("cat", 1)));
+        assertEquals(List.of("cat bed"), texts(trie.suggest("cat be", 10)));
+    }
+
+    @Test
+    void editorSplitsAndMergesEdgesWithoutTouchingTheOriginal() {
+        SuggestionDTO treats = s("Dog Treats", 2);
+        SuggestionDTO food = s("Dog Food", 1);
+        SuggestTrie base = new SuggestTrie.Builder(10).add("dog treats", treats).build();
+
+        SuggestTrie.Editor editor = base.edit().add("dog food", food).add("dog", food);
+        assertTrue(editor.hasChanges());
+        SuggestTrie edited = editor.build();
+
+        assertEquals(3, edited.keyCount());
+        assertEquals(List.of("Dog Treats", "Dog Food"), texts(edited.suggest("dog", 10)));
+        assertEquals(List.of("Dog Food"), texts(edited.suggest("dog f", 10)));
+        assertEquals(List.of("Dog Treats"), texts(base.suggest("dog", 10)));
+        assertEquals(1, base.keyCount());
+
+        SuggestTrie back = edited.edit().remove("dog food", food).remove("dog", food).build();
+        assertEquals(1, back.keyCount());
+        assertEquals(List.of("Dog Treats"), texts(back.suggest("d", 10)));
+        assertEquals(List.of(), back.suggest("dog f", 10));
+    }
+
+    @Test
+    void removingAnAbsentPairChangesNothing() {
+        SuggestionDTO dog = s("Dog", 1);
+        SuggestTrie trie = new SuggestTrie.Builder(10).add("dog", dog).build();
+
+        SuggestTrie.Editor editor = trie.edit()
+                .remove("dog", s("Dog", 1))
+                .remove("do", dog)
+                .remove("dogs", dog);
+
+        assertFalse(editor.hasChanges());
+        assertSame(dog, editor.build().suggest("d", 10).get(0));
+    }
+
+    @Test
+    void editsMatchAFreshBuild() {
+        Random random = new Random(42);
+        String[] words = { "a", "ab", "abc", "abd", "b", "ba", "bab", "a b", "ab c", "abcd" };
+        SuggestionDTO[] pool = new SuggestionDTO[12];
+        for (int i = 0; i < pool.length; i++) pool[i] = s("s" + i, random.nextInt(4));
+
+        List<String> keys = new ArrayList<>();
+        List<SuggestionDTO> values = new ArrayList<>();
+        SuggestTrie trie = SuggestTrie.empty(3);
+        for (int step = 0; step < 400; step++) {
+            SuggestTrie.Editor editor = trie.edit();
+            for (int op = random.nextInt(3) + 1; op > 0; op--) {
+                if (!keys.isEmpty() && random.nextInt(5) < 2) {
+                    int i = random.nextInt(keys.size());
+                    editor.remove(keys.remove(i), values.remove(i));
+                } else {
+                    String key = words[random.nextInt(words.length)];
+                    SuggestionDTO value = pool[random.nextInt(pool.length)];
+                    keys.add(key);
+                    values.add(value);
+                    editor.add(key, value);
+                }
+            }
+            trie = editor.build();
+
+            SuggestTrie.Builder builder = new SuggestTrie.Builder(3);
+            for (int i = 0; i < keys.size(); i++) builder.add(keys.get(i), values.get(i));
+            SuggestTrie expected = builder.build();
+
+            assertEquals(expected.keyCount(), trie.keyCount(), "key count at step " + step);
+            TreeSet<String> prefixes = new TreeSet<>();
+            for (String word : words) {
+                for (int n = 1; n <= word.length() + 1; n++) prefixes.add((word + "x").substring(0, n));
+            }
+            for (String prefix : prefixes) {
+                assertEquals(scored(expected.suggest(prefix, 3)), scored(trie.suggest(prefix, 3)),
+                        "prefix '" + prefix + "' at step " + step);
+            }
+        }
+    }
+
+    private static List<String> scored(List<SuggestionDTO> suggestions) {
+        List<String> out = new ArrayList<>();
+        for (SuggestionDTO s : suggestions) out.add(s.text + ":" + s.score);
+        return out;
+    }
+}